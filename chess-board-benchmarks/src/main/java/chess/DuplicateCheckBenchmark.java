@@ -0,0 +1,196 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.board.BoardSignature;
+import chess.board.PlacementTrie;
+import chess.io.SignatureSet;
+import chess.metrics.SolverMetrics;
+import chess.piece.PieceType;
+
+/**
+ * Measures the check of a combination against the combinations already found, for different numbers of stored combinations,
+ * with the structures used by the {@link Executor}: the {@link SignatureSet} without a memory budget, the {@link SignatureSet}
+ * with a memory budget of a quarter of the combinations, so most of them are checked through the Bloom filter and the runs
+ * written to disk, and the {@link PlacementTrie} followed by the random retries. Half of the checked combinations are
+ * stored and half are not.<br/>
+ * The combinations are random placements of 2 kings, 1 queen, 2 bishops, 2 knights and 1 rook on a board of size 8x8, with
+ * the pieces of the same type on increasing squares as placed by the searches. The check only depends on the squares
+ * so the pieces do not need to be safe from each other.
+ * @author Willie
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Xmx2g")
+@State(Scope.Benchmark)
+public class DuplicateCheckBenchmark {
+
+	private static final int BOARD_SIZE=8;
+
+	private static final PieceType[] POOL=new PieceType[]{PieceType.KING, PieceType.KING, PieceType.QUEEN, PieceType.BISHOP,
+		PieceType.BISHOP, PieceType.KNIGHT, PieceType.KNIGHT, PieceType.ROOK};
+
+	private static final int PROBES=1024;
+
+	/**
+	 * The memory budget of the bounded set is the memory of the stored combinations divided by this number
+	 */
+	private static final int BUDGET_FRACTION=4;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	private int storedSolutions;
+
+	private SignatureSet signatures;
+
+	private SignatureSet boundedSignatures;
+
+	private PlacementTrie trie;
+
+	private BoardSignature[] probes;
+
+	/**
+	 * The squares of every probe in the order of the pool, the path of the probe in the trie
+	 */
+	private int[][] probeSquares;
+
+	private int next;
+
+	@Setup
+	public void setUp()
+	{
+		Random random=new Random(42);
+		signatures=new SignatureSet();
+		boundedSignatures=new SignatureSet(Math.max(1024, storedSolutions*SolverMetrics.estimateSignatureBytes(POOL.length)/BUDGET_FRACTION), null);
+		trie=new PlacementTrie();
+		List<int[]> stored=new ArrayList<int[]>();
+		int[] squares;
+		BoardSignature signature;
+		while(stored.size()<storedSolutions)
+		{
+			squares=randomSquares(random);
+			signature=toSignature(squares);
+			if(signatures.add(signature))
+			{
+				boundedSignatures.add(signature);
+				addPath(squares);
+				stored.add(squares);
+			}
+		}
+		probes=new BoardSignature[PROBES];
+		probeSquares=new int[PROBES][];
+		for(int i=0; i<PROBES; i++)
+		{
+			if(i%2==0)
+			{
+				probeSquares[i]=stored.get(random.nextInt(stored.size()));
+			}else{
+				do {
+					probeSquares[i]=randomSquares(random);
+				} while(signatures.contains(toSignature(probeSquares[i])));
+			}
+			probes[i]=toSignature(probeSquares[i]);
+		}
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		signatures.close();
+		boundedSignatures.close();
+	}
+
+	/**
+	 * Places the pieces of the pool on distinct random squares, the pieces of the same type on increasing squares
+	 * @param random the generator of the squares
+	 * @return the square of every piece of the pool
+	 */
+	private static int[] randomSquares(Random random)
+	{
+		int[] squares=new int[POOL.length];
+		boolean[] used=new boolean[BOARD_SIZE*BOARD_SIZE];
+		for(int i=0; i<squares.length; i++)
+		{
+			do {
+				squares[i]=random.nextInt(used.length);
+			} while(used[squares[i]]);
+			used[squares[i]]=true;
+		}
+		int first=0;
+		for(int i=1; i<=squares.length; i++)
+		{
+			if(i==squares.length || POOL[i]!=POOL[first])
+			{
+				Arrays.sort(squares, first, i);
+				first=i;
+			}
+		}
+		return squares;
+	}
+
+	private static BoardSignature toSignature(int[] squares)
+	{
+		return new BoardSignature(squares, POOL, POOL.length, BoardSignature.calculateHash(squares, POOL, POOL.length));
+	}
+
+	/**
+	 * Adds the path of a combination to the trie and exhausts its last node, as done by the retries when they find a combination
+	 * @param squares the square of every piece of the pool
+	 */
+	private void addPath(int[] squares)
+	{
+		PlacementTrie.Node[] path=new PlacementTrie.Node[squares.length+1];
+		path[0]=trie.getRoot();
+		for(int depth=0; depth<squares.length; depth++)
+		{
+			path[depth+1]=path[depth].child(squares[depth]);
+		}
+		trie.exhaust(path, squares.length);
+	}
+
+	@Benchmark
+	public boolean signatureSet()
+	{
+		next=(next+1)&(PROBES-1);
+		return signatures.contains(probes[next]);
+	}
+
+	@Benchmark
+	public boolean boundedSignatureSet()
+	{
+		next=(next+1)&(PROBES-1);
+		return boundedSignatures.contains(probes[next]);
+	}
+
+	@Benchmark
+	public boolean placementTrie()
+	{
+		next=(next+1)&(PROBES-1);
+		int[] squares=probeSquares[next];
+		PlacementTrie.Node node=trie.getRoot();
+		for(int depth=0; depth<squares.length && node!=null; depth++)
+		{
+			node=node.getChild(squares[depth]);
+		}
+		return node!=null && node.isExhausted();
+	}
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chess.board.BitBoard;
+import chess.board.Board;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.piece.PieceType;
+
+/**
+ * Measures the checks of the slots where a piece can be placed on a board of size 8x8 which already holds a king,
+ * a bishop and a rook: checking every slot one by one against the safe squares kept by the board, listing
+ * the safe slots as coordinates and listing the safe squares as done by the {@link Executor} before every placement
+ * @author Willie
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlacementBenchmark {
+
+	private static final int BOARD_SIZE=8;
+
+	@Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK"})
+	private PieceType type;
+
+	private Piece piece;
+
+	private Board board;
+
+	private int[] squares;
+
+	@Setup
+	public void setUp()
+	{
+		piece=type.newPiece();
+		board=new Board(BOARD_SIZE, BOARD_SIZE);
+		board.addPiece(PieceType.KING.newPiece(), Coordinate.valueOf(1, 1));
+		board.addPiece(PieceType.BISHOP.newPiece(), Coordinate.valueOf(3, 5));
+		board.addPiece(PieceType.ROOK.newPiece(), Coordinate.valueOf(6, 2));
+		squares=new int[BOARD_SIZE*BOARD_SIZE];
+		for(int x=1; x<=BOARD_SIZE; x++)
+		{
+			for(int y=1; y<=BOARD_SIZE; y++)
+			{
+				squares[(x-1)*BOARD_SIZE+y-1]=board.getSquare(Coordinate.valueOf(x, y));
+			}
+		}
+	}
+
+	@Benchmark
+	public void checkEverySlot(Blackhole blackhole)
+	{
+		BitBoard bitBoard=board.getBitBoard();
+		int type=piece.getType().ordinal();
+		for(int square: squares)
+		{
+			blackhole.consume(bitBoard.isSafe(square, type));
+		}
+	}
+
+	@Benchmark
+	public List<Coordinate> getSafeCoordinates()
+	{
+		return board.getSafeCoordinates(piece.getType());
+	}
+
+	@Benchmark
+	public int[] getSafeSquares()
+	{
+		return board.getSafeSquares(piece.getType());
+	}
+}
@@ -0,0 +1,47 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link ExhaustiveExecutor} solving the reference problems from the beginning to the end,
+ * with every ordering strategy, the combinations are only counted
+ * @author Willie
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+
+	/**
+	 * The parameters of the problems: M N Kings Queens Bishops Knights Rooks
+	 */
+	@Param({"3 3 2 0 0 0 1", "4 4 0 0 0 4 2", "6 6 2 1 2 2 1"})
+	private String problem;
+
+	@Param({"natural", "footprint", "least-constraining"})
+	private String ordering;
+
+	@Benchmark
+	public long solve()
+	{
+		ExhaustiveExecutor executor=new ExhaustiveExecutor(problem.split(" "));
+		executor.setOrderingStrategy(SearchOrdering.fromName(ordering));
+		executor.start();
+		return executor.getSuccessCount();
+	}
+}
@@ -0,0 +1,79 @@
+package chess.piece;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the calculation of the capture slots of every piece on every slot of the board, and the
+ * lookup of the same slots in the {@link AttackTable} that caches them
+ * @author Willie
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CapturePositionsBenchmark {
+
+	@Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK"})
+	private PieceType type;
+
+	@Param({"8", "16"})
+	private int boardSize;
+
+	private Piece piece;
+
+	private Coordinate size;
+
+	private Coordinate[] positions;
+
+	private AttackTable attackTable;
+
+	@Setup
+	public void setUp()
+	{
+		piece=type.newPiece();
+		size=new Coordinate(boardSize, boardSize);
+		positions=new Coordinate[boardSize*boardSize];
+		for(int x=1; x<=boardSize; x++)
+		{
+			for(int y=1; y<=boardSize; y++)
+			{
+				positions[(x-1)*boardSize+y-1]=new Coordinate(x, y);
+			}
+		}
+		attackTable=AttackTable.getInstance(type, size);
+	}
+
+	@Benchmark
+	public void calculateCapturePositions(Blackhole blackhole)
+	{
+		for(Coordinate position: positions)
+		{
+			blackhole.consume(piece.calculateCapturePositions(position, size));
+		}
+	}
+
+	@Benchmark
+	public void attackTableCapturePositions(Blackhole blackhole)
+	{
+		for(Coordinate position: positions)
+		{
+			blackhole.consume(attackTable.getCapturePositions(position));
+		}
+	}
+}
@@ -0,0 +1,581 @@
+package chess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.sink.CountingSolutionSink;
+import chess.sink.FileSolutionSink;
+import chess.sink.SolutionSink;
+
+/**
+ * Distributes the exhaustive search among {@link ClusterWorker} processes connected over TCP, for instance on several
+ * machines or on the loopback interface of a single machine. The tree is first split in one {@link WorkUnit} per square
+ * of the first piece, and every worker asks for a unit as soon as it finishes the previous one.<br/>
+ * The subtrees differ a lot in size, so when a worker asks for work and there are no units left the coordinator asks one
+ * of the busy workers to split its unit at its next report: the worker gives away the last half of the squares left at the
+ * shallowest level of its branch, see {@link SubtreeTask#split()}, and the new unit is handed to the idle worker.<br/>
+ * Every progress report of a worker is a checkpoint of its unit: its combinations are pushed to the sink as they arrive,
+ * so the memory of the coordinator does not depend on the size of the units, and it carries the counters of the unit so far
+ * and the units left, without the parts already given away. When a worker disconnects the counters of its last checkpoint
+ * are kept and only the units left are handed to other workers, so the combinations the worker found after its last
+ * checkpoint, which never reached the sink, are searched again and no combination is pushed twice.
+ * See {@link ClusterProtocol} for the messages exchanged.
+ * @author Willie
+ *
+ */
+public class ClusterCoordinator {
+
+	/**
+	 * Option with the TCP port where the coordinator listens to the workers
+	 */
+	public static final String OPTION_PORT="port";
+
+	public static final int DEFAULT_PORT=7070;
+
+	private Logger log= LoggerFactory.getLogger(ClusterCoordinator.class);
+
+	/**
+	 * Execution parameters
+	 */
+	private String args[];
+
+	/**
+	 * The size of the chess board
+	 */
+	private Coordinate boardSize;
+
+	/**
+	 * The container of pieces to be placed in the board, in the order decided by the ordering strategy
+	 */
+	private List<Piece> pool;
+
+	private OrderingStrategy orderingStrategy=SearchOrdering.NATURAL;
+
+	private int port;
+
+	private ServerSocket serverSocket;
+
+	/**
+	 * Receives the combinations of every progress report
+	 */
+	private SolutionSink sink;
+
+	/**
+	 * Set when the sink has been set through {@link #setSink(SolutionSink)}
+	 */
+	private boolean customSink;
+
+	/**
+	 * Whether the workers send their combinations, only when they are written to a file or to a sink set through
+	 * {@link #setSink(SolutionSink)}, since the default sink only counts them and the counts come with the counters
+	 */
+	private boolean sendSolutions;
+
+	/**
+	 * A flag to indicate if the execution should be serialized
+	 */
+	private boolean saveExecution=false;
+
+	/**
+	 * default path to save the execution data
+	 */
+	private String executionSavePath;
+
+	/**
+	 * Guards the units and the counters below, the connections wait on it for new units
+	 */
+	private final Object lock=new Object();
+
+	/**
+	 * The units not handed to any worker yet
+	 */
+	private Deque<WorkUnit> pending=new ArrayDeque<WorkUnit>();
+
+	/**
+	 * Number of units being searched by the workers
+	 */
+	private int busyUnits;
+
+	/**
+	 * Number of connections waiting for a unit
+	 */
+	private int idleWorkers;
+
+	/**
+	 * Number of workers asked to split their unit that have not answered yet
+	 */
+	private int splitsRequested;
+
+	/**
+	 * Number of units done
+	 */
+	private long unitsDone;
+
+	/**
+	 * Set when the coordinator cannot accept the workers
+	 */
+	private boolean failed;
+
+	/**
+	 * The counters of the units done and of the checkpoints of the units whose worker disconnected
+	 */
+	private SearchCounters counters=new SearchCounters();
+
+	/**
+	 * Constructor of the ClusterCoordinator class which takes as parameter an array of strings which <b>must</b> contain
+	 * the following parameters in the indicated order:
+	 * <ol>
+	 * <li>M size of the board
+	 * <li>N size of the board
+	 * <li>Number of Kings
+	 * <li>Number of Queens
+	 * <li>Number of Bishop
+	 * <li>Number of Knights
+	 * <li>Number of Rooks (may be 0)
+	 * <li>The path including the filename where this execution's data will be saved (optional parameter)
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--port &lt;port&gt;</code> the TCP port where the workers connect, {@value #DEFAULT_PORT} by default
+	 * <li><code>--ordering &lt;name&gt;</code> the strategy that decides the order of the pieces and squares, see {@link SearchOrdering}
+	 * </ul>
+	 * @param args the array of strings containing the parameters defined above
+	 * @throws RuntimeException in case the parameters are incorrect or missing
+	 */
+	public ClusterCoordinator(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length<Problem.NUMBER_OF_PARAMETERS || args.length>Problem.NUMBER_OF_PARAMETERS+1)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		this.args=args;
+		port=options.getIntOption(OPTION_PORT, DEFAULT_PORT);
+		if(options.getOption(ExhaustiveExecutor.OPTION_ORDERING)!=null)
+		{
+			orderingStrategy=SearchOrdering.fromName(options.getOption(ExhaustiveExecutor.OPTION_ORDERING));
+		}
+		Problem problem=new Problem(args, 0);
+		boardSize=problem.getBoardSize();
+		pool=orderingStrategy.orderPool(problem.getPool(), boardSize);
+		if(args.length==Problem.NUMBER_OF_PARAMETERS+1 && !StringUtils.isBlank(args[Problem.NUMBER_OF_PARAMETERS]))
+		{
+			executionSavePath=args[Problem.NUMBER_OF_PARAMETERS];
+			saveExecution=true;
+		}
+	}
+
+	/**
+	 * Opens the server socket, it is called by {@link #start()} when the socket is not open yet
+	 * @throws RuntimeException in case the port cannot be opened
+	 */
+	public void bind()
+	{
+		try {
+			serverSocket=new ServerSocket(port);
+		} catch (IOException e) {
+			log.error("Error listening on port " + port, e);
+			throw new RuntimeException(e);
+		}
+		log.info("Waiting for workers on port " + serverSocket.getLocalPort());
+	}
+
+	/**
+	 * Returns the port where the coordinator listens, which is chosen by the system when the port 0 is requested
+	 * @return the port, -1 if the server socket is not open
+	 */
+	public int getLocalPort()
+	{
+		return serverSocket!=null ? serverSocket.getLocalPort() : -1;
+	}
+
+	/**
+	 * Hands the units to the workers until every unit is done and logs the total number of combinations found
+	 * @throws RuntimeException in case the search cannot be completed
+	 */
+	public void start()
+	{
+		long startRunningTime=Calendar.getInstance().getTimeInMillis();
+		printExecutionParameters();
+		if(sink==null)
+		{
+			sink=saveExecution ? new FileSolutionSink(executionSavePath, boardSize, pool) : new CountingSolutionSink();
+		}
+		sendSolutions=saveExecution || customSink;
+		if(!pool.isEmpty())
+		{
+			for(int rank=0; rank<boardSize.getX()*boardSize.getY(); rank++)
+			{
+				pending.add(new WorkUnit(new int[0], rank, rank+1));
+			}
+		}
+		if(serverSocket==null)
+		{
+			bind();
+		}
+		ExecutorService connections=Executors.newCachedThreadPool();
+		try {
+			while(!isSearchOver())
+			{
+				final Socket socket=serverSocket.accept();
+				connections.execute(new Runnable() {
+					@Override
+					public void run() {
+						serve(socket);
+					}
+				});
+			}
+		} catch (SocketException e) {
+			//the server socket is closed once every unit is done
+			log.debug("Server socket closed");
+		} catch (IOException e) {
+			log.error("Error accepting a worker", e);
+			fail();
+		} finally {
+			closeServerSocket();
+			connections.shutdown();
+			try {
+				connections.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			try {
+				sink.close();
+			} catch (IOException e) {
+				log.error("Error closing the solution sink", e);
+			}
+		}
+		if(failed)
+		{
+			throw new RuntimeException("The search could not be completed, the workers could not be accepted");
+		}
+		DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance();
+		df.applyPattern("#####0.00##");
+		log.info("Total Success combinations found: " + counters.getSuccessCount());
+		log.info("Symmetry classes found: " + counters.getSymmetryClassesCount());
+		log.info("Number of positions tried: " + counters.getVisitedNodes());
+		log.info("Number of units searched: " + unitsDone);
+		long totalRunningTime=Calendar.getInstance().getTimeInMillis()-startRunningTime;
+		log.info("Total running time in seconds " + df.format(totalRunningTime/1000d));
+		log.info("Total running time in minutes " + df.format(totalRunningTime/(1000d*60)));
+	}
+
+	private boolean isSearchOver()
+	{
+		synchronized (lock) {
+			return failed || (pending.isEmpty() && busyUnits==0);
+		}
+	}
+
+	/**
+	 * Serves the messages of a worker until the search is over or the worker disconnects
+	 * @param socket the connection of the worker
+	 */
+	private void serve(Socket socket)
+	{
+		WorkUnit unit=null;
+		//the checkpoint of the unit: the units left and the counters of the part already searched
+		List<WorkUnit> remaining=null;
+		SearchCounters checkpoint=null;
+		boolean splitRequested=false;
+		List<BoardSignature> solutions=new ArrayList<BoardSignature>();
+		try {
+			DataInputStream in=new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out=new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeInt(ClusterProtocol.MAGIC);
+			out.writeShort(ClusterProtocol.VERSION);
+			out.writeUTF(StringUtils.join(args, ' ', 0, Problem.NUMBER_OF_PARAMETERS));
+			out.writeUTF(orderingStrategy.getName());
+			out.writeBoolean(sendSolutions);
+			out.flush();
+			while(true)
+			{
+				byte message=in.readByte();
+				switch(message)
+				{
+				case ClusterProtocol.REQUEST_WORK:
+					unit=takeUnit();
+					if(unit==null)
+					{
+						out.writeByte(ClusterProtocol.FINISHED);
+						out.flush();
+						return;
+					}
+					remaining=Collections.singletonList(unit);
+					checkpoint=new SearchCounters();
+					out.writeByte(ClusterProtocol.WORK);
+					unit.write(out);
+					out.flush();
+					break;
+				case ClusterProtocol.PROGRESS:
+					ClusterProtocol.readSolutions(in, pool.size(), solutions);
+					SearchCounters unitCounters=ClusterProtocol.readCounters(in);
+					List<WorkUnit> unitsLeft=ClusterProtocol.readUnits(in);
+					//the batch and the checkpoint are taken together, the worker has already moved past them
+					acceptSolutions(solutions);
+					solutions.clear();
+					checkpoint=unitCounters;
+					remaining=unitsLeft;
+					splitRequested=isSplitNeeded();
+					out.writeByte(splitRequested ? ClusterProtocol.SPLIT : ClusterProtocol.CONTINUE);
+					out.flush();
+					break;
+				case ClusterProtocol.SPLIT_PART:
+					WorkUnit part=in.readBoolean() ? WorkUnit.read(in) : null;
+					//the part is searched by another worker, so it is no longer left to this one
+					remaining=ClusterProtocol.readUnits(in);
+					splitRequested=false;
+					addPart(part);
+					break;
+				case ClusterProtocol.UNIT_DONE:
+					ClusterProtocol.readSolutions(in, pool.size(), solutions);
+					completeUnit(ClusterProtocol.readCounters(in), solutions);
+					unit=null;
+					remaining=null;
+					checkpoint=null;
+					solutions.clear();
+					break;
+				default:
+					throw new IOException("Unknown message " + message);
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Worker " + socket.getRemoteSocketAddress() + " disconnected: " + e);
+			loseWorker(unit, remaining, checkpoint, splitRequested);
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				log.debug("Error closing the connection of a worker", e);
+			}
+		}
+	}
+
+	/**
+	 * Waits until there is a unit for the worker or every unit is done
+	 * @return the unit, null if the search is over
+	 */
+	private WorkUnit takeUnit()
+	{
+		synchronized (lock) {
+			idleWorkers++;
+			try {
+				while(pending.isEmpty() && busyUnits>0 && !failed)
+				{
+					lock.wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} finally {
+				idleWorkers--;
+			}
+			if(pending.isEmpty() || failed)
+			{
+				return null;
+			}
+			busyUnits++;
+			return pending.poll();
+		}
+	}
+
+	/**
+	 * Checks whether a busy worker should split its unit: there are more idle workers than units left and splits requested
+	 * @return true if the worker must split its unit, the split is then counted as requested
+	 */
+	private boolean isSplitNeeded()
+	{
+		synchronized (lock) {
+			if(idleWorkers>pending.size()+splitsRequested)
+			{
+				splitsRequested++;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Registers the answer of a worker asked to split its unit
+	 * @param part the unit given away by the worker, null if it could not split its unit
+	 */
+	private void addPart(WorkUnit part)
+	{
+		synchronized (lock) {
+			splitsRequested--;
+			if(part!=null)
+			{
+				pending.add(part);
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Pushes a batch of combinations of a progress report to the sink
+	 * @param solutions the combinations
+	 */
+	private void acceptSolutions(List<BoardSignature> solutions)
+	{
+		synchronized (lock) {
+			for(BoardSignature solution: solutions)
+			{
+				sink.accept(solution);
+			}
+		}
+	}
+
+	/**
+	 * Pushes the last combinations of a unit to the sink and adds its counters, when it is the last unit the server socket is closed
+	 * @param unitCounters the counters of the unit
+	 * @param solutions the combinations found since the last progress report
+	 */
+	private void completeUnit(SearchCounters unitCounters, List<BoardSignature> solutions)
+	{
+		synchronized (lock) {
+			for(BoardSignature solution: solutions)
+			{
+				sink.accept(solution);
+			}
+			counters.add(unitCounters);
+			unitsDone++;
+			busyUnits--;
+			if(pending.isEmpty() && busyUnits==0)
+			{
+				closeServerSocket();
+			}
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Hands the units left by a worker that disconnected to other workers and keeps the counters of its last checkpoint,
+	 * the combinations of the checkpoint are already in the sink
+	 * @param unit the unit of the worker, null if it was not searching any unit
+	 * @param remaining the units left at the last checkpoint, without the parts given away
+	 * @param checkpoint the counters of the unit at the last checkpoint
+	 * @param splitRequested true if the worker had been asked to split its unit and had not answered
+	 */
+	private void loseWorker(WorkUnit unit, List<WorkUnit> remaining, SearchCounters checkpoint, boolean splitRequested)
+	{
+		synchronized (lock) {
+			if(splitRequested)
+			{
+				splitsRequested--;
+			}
+			if(unit==null)
+			{
+				return;
+			}
+			busyUnits--;
+			counters.add(checkpoint);
+			log.warn("The unit " + unit + " is handed to other workers from its last checkpoint: " + remaining);
+			pending.addAll(remaining);
+			if(pending.isEmpty() && busyUnits==0)
+			{
+				closeServerSocket();
+			}
+			lock.notifyAll();
+		}
+	}
+
+	private void fail()
+	{
+		synchronized (lock) {
+			failed=true;
+			lock.notifyAll();
+		}
+	}
+
+	private void closeServerSocket()
+	{
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			log.debug("Error closing the server socket", e);
+		}
+	}
+
+	/**
+	 * prints in the logs the execution parameters sent to the ClusterCoordinator
+	 */
+	private void printExecutionParameters()
+	{
+		log.info("Execution parameters:");
+		log.info("Board size: " + args[0]+"x"+args[1]);
+		log.info("#Kings: " + args[2]);
+		log.info("#Queens: " + args[3]);
+		log.info("#Bishops: " + args[4]);
+		log.info("#Knights: " + args[5]);
+		log.info("#Rooks: " + args[6]);
+		log.info("Ordering strategy: " + orderingStrategy.getName());
+		log.info("Currente execution data file saved in: " + (saveExecution?executionSavePath:"Current execution not saved to a file"));
+	}
+
+	/**
+	 * Sets the sink that receives the combinations found by the workers, it is closed at the end of {@link #start()}.
+	 * By default the combinations are only counted, or written to a file when the execution data path is provided.
+	 * The workers send every combination found when a sink is set
+	 * @param sink the sink
+	 */
+	public void setSink(SolutionSink sink) {
+		this.sink = sink;
+		customSink = true;
+	}
+
+	/**
+	 * Returns the number of distinct combinations found by the last call to {@link #start()}
+	 * @return the number of combinations
+	 */
+	public long getSuccessCount() {
+		return counters.getSuccessCount();
+	}
+
+	/**
+	 * Returns the number of symmetry classes of the combinations found by the last call to {@link #start()}
+	 * @return the number of combinations that are not a rotation or reflection of each other
+	 */
+	public long getSymmetryClassesCount() {
+		return counters.getSymmetryClassesCount();
+	}
+
+	/**
+	 * Returns the number of positions tried by the last call to {@link #start()}
+	 * @return the number of positions tried
+	 */
+	public long getVisitedNodes() {
+		return counters.getVisitedNodes();
+	}
+
+	/**
+	 * Returns the number of units searched by the last call to {@link #start()}, including the units created by splitting other units
+	 * @return the number of units
+	 */
+	public long getUnitsDone() {
+		return unitsDone;
+	}
+}
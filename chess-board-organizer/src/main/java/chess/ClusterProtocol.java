@@ -0,0 +1,136 @@
+package chess;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.board.BoardSignature;
+
+/**
+ * Describes the messages exchanged by the {@link ClusterCoordinator} and the {@link ClusterWorker} over a TCP connection,
+ * every message starts with its type (byte):
+ * <ol>
+ * <li>When the connection is opened the coordinator sends the magic number (int), the version of the protocol (short),
+ * the parameters of the problem (UTF), the name of the ordering strategy (UTF) and whether the combinations must be sent (boolean)
+ * <li>{@link #REQUEST_WORK}: the worker asks for a unit, the coordinator answers {@link #WORK} followed by the {@link WorkUnit}
+ * or {@link #FINISHED} when the search is over
+ * <li>{@link #PROGRESS}: the worker sends the combinations found since its last message, the number of combinations (int)
+ * followed by the packed combinations, and the checkpoint of its unit: the counters of the unit so far (three longs) and the
+ * units left (the number of units (int) followed by the units). The coordinator answers {@link #CONTINUE} or {@link #SPLIT}
+ * <li>{@link #SPLIT_PART}: after a {@link #SPLIT} answer the worker sends whether it could split its unit (boolean)
+ * followed by the part given away and the units left without the part
+ * <li>{@link #UNIT_DONE}: the worker sends the last combinations as in {@link #PROGRESS} followed by the counters of the unit
+ * (three longs), there is no answer
+ * </ol>
+ * @author Willie
+ *
+ */
+public final class ClusterProtocol {
+
+	static final int MAGIC=0x43424F57;
+
+	static final short VERSION=2;
+
+	static final byte REQUEST_WORK=1;
+
+	static final byte PROGRESS=2;
+
+	static final byte SPLIT_PART=3;
+
+	static final byte UNIT_DONE=4;
+
+	static final byte WORK=11;
+
+	static final byte FINISHED=12;
+
+	static final byte CONTINUE=13;
+
+	static final byte SPLIT=14;
+
+	private ClusterProtocol()
+	{
+	}
+
+	/**
+	 * Writes a batch of combinations
+	 * @param out the stream
+	 * @param solutions the combinations, null to only write an empty batch
+	 * @throws IOException in case the combinations cannot be written
+	 */
+	static void writeSolutions(DataOutputStream out, List<BoardSignature> solutions) throws IOException
+	{
+		out.writeInt(solutions==null ? 0 : solutions.size());
+		if(solutions!=null)
+		{
+			for(BoardSignature solution: solutions)
+			{
+				out.write(solution.getPacked());
+			}
+		}
+	}
+
+	/**
+	 * Reads a batch of combinations written by {@link #writeSolutions(DataOutputStream, List)}
+	 * @param in the stream
+	 * @param pieces the number of pieces of every combination
+	 * @param solutions the list where the combinations are added
+	 * @throws IOException in case the combinations cannot be read
+	 */
+	static void readSolutions(DataInputStream in, int pieces, List<BoardSignature> solutions) throws IOException
+	{
+		int count=in.readInt();
+		byte[] packed;
+		for(int i=0; i<count; i++)
+		{
+			packed=new byte[pieces*2];
+			in.readFully(packed);
+			solutions.add(new BoardSignature(packed));
+		}
+	}
+
+	static void writeCounters(DataOutputStream out, SearchCounters counters) throws IOException
+	{
+		out.writeLong(counters.getSuccessCount());
+		out.writeLong(counters.getSymmetryClassesCount());
+		out.writeLong(counters.getVisitedNodes());
+	}
+
+	static SearchCounters readCounters(DataInputStream in) throws IOException
+	{
+		return new SearchCounters(in.readLong(), in.readLong(), in.readLong());
+	}
+
+	/**
+	 * Writes a list of units
+	 * @param out the stream
+	 * @param units the units
+	 * @throws IOException in case the units cannot be written
+	 */
+	static void writeUnits(DataOutputStream out, List<WorkUnit> units) throws IOException
+	{
+		out.writeInt(units.size());
+		for(WorkUnit unit: units)
+		{
+			unit.write(out);
+		}
+	}
+
+	/**
+	 * Reads a list of units written by {@link #writeUnits(DataOutputStream, List)}
+	 * @param in the stream
+	 * @return the units
+	 * @throws IOException in case the units cannot be read
+	 */
+	static List<WorkUnit> readUnits(DataInputStream in) throws IOException
+	{
+		int count=in.readInt();
+		List<WorkUnit> units=new ArrayList<WorkUnit>(count);
+		for(int i=0; i<count; i++)
+		{
+			units.add(WorkUnit.read(in));
+		}
+		return units;
+	}
+}
@@ -0,0 +1,211 @@
+package chess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.board.BoardSignature;
+
+/**
+ * Searches the units handed by a {@link ClusterCoordinator}: the worker receives the problem from the coordinator,
+ * asks for a unit, searches it, reports its combinations and counters and asks for the next one until the coordinator
+ * tells it the search is over.<br/>
+ * The worker opens one connection per thread, every connection searches its units on its own board so the threads
+ * do not share any state.
+ * @author Willie
+ *
+ */
+public class ClusterWorker {
+
+	/**
+	 * Option with the number of units searched at the same time
+	 */
+	public static final String OPTION_THREADS="threads";
+
+	private Logger log= LoggerFactory.getLogger(ClusterWorker.class);
+
+	private String host;
+
+	private int port;
+
+	/**
+	 * Number of connections to the coordinator, every one is served by its own thread
+	 */
+	private int threads;
+
+	/**
+	 * Number of units searched by all the connections
+	 */
+	private long unitsDone;
+
+	/**
+	 * The parameters of this class are:
+	 * <ol>
+	 * <li>The host name or address of the coordinator
+	 * <li>The TCP port of the coordinator
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--threads &lt;number&gt;</code> the number of units searched at the same time, by default the number of
+	 * processors of the machine
+	 * </ul>
+	 * @param args the array of parameters
+	 * @throws RuntimeException in case the parameters are incorrect or missing
+	 */
+	public ClusterWorker(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length!=2 || !NumberUtils.isDigits(args[1]))
+		{
+			throw new RuntimeException("Incorrect parameters, expected the host and port of the coordinator");
+		}
+		host=args[0];
+		port=Integer.parseInt(args[1]);
+		threads=options.getIntOption(OPTION_THREADS, Runtime.getRuntime().availableProcessors());
+		if(threads<=0)
+		{
+			throw new RuntimeException("Incorrect number of threads " + threads);
+		}
+	}
+
+	/**
+	 * Connects to the coordinator and searches units until the search is over
+	 * @throws RuntimeException in case any of the connections fails
+	 */
+	public void start()
+	{
+		log.info("Searching units of " + host + ":" + port + " with " + threads + " threads");
+		final List<Exception> errors=new ArrayList<Exception>();
+		List<Thread> connections=new ArrayList<Thread>();
+		for(int i=0; i<threads; i++)
+		{
+			Thread thread=new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						searchUnits();
+					} catch (IOException | RuntimeException e) {
+						log.error("Error searching the units of " + host + ":" + port, e);
+						synchronized (errors) {
+							errors.add(e);
+						}
+					}
+				}
+			}, "worker-" + i);
+			thread.start();
+			connections.add(thread);
+		}
+		for(Thread thread: connections)
+		{
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		if(!errors.isEmpty())
+		{
+			throw new RuntimeException("The worker stopped with errors", errors.get(0));
+		}
+		log.info("Number of units searched: " + getUnitsDone());
+	}
+
+	/**
+	 * Opens a connection to the coordinator and searches the units it hands until the search is over
+	 * @throws IOException in case the connection fails
+	 */
+	private void searchUnits() throws IOException
+	{
+		Socket socket=new Socket(host, port);
+		try {
+			final DataInputStream in=new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out=new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			if(in.readInt()!=ClusterProtocol.MAGIC || in.readShort()!=ClusterProtocol.VERSION)
+			{
+				throw new IOException(host + ":" + port + " is not a coordinator");
+			}
+			String[] problem=in.readUTF().split(" ");
+			String[] args=Arrays.copyOf(problem, problem.length+2);
+			args[problem.length]="--" + ExhaustiveExecutor.OPTION_ORDERING;
+			args[problem.length+1]=in.readUTF();
+			final boolean sendSolutions=in.readBoolean();
+			ExhaustiveExecutor executor=new ExhaustiveExecutor(args);
+			executor.prepareSearch();
+			WorkUnitListener listener=new WorkUnitListener() {
+				@Override
+				public void publish(SubtreeTask task, List<BoardSignature> solutions) {
+					try {
+						out.writeByte(ClusterProtocol.PROGRESS);
+						ClusterProtocol.writeSolutions(out, sendSolutions ? solutions : null);
+						ClusterProtocol.writeCounters(out, task.getCounters());
+						ClusterProtocol.writeUnits(out, task.getRemainingUnits());
+						out.flush();
+						if(in.readByte()==ClusterProtocol.SPLIT)
+						{
+							WorkUnit part=task.split();
+							out.writeByte(ClusterProtocol.SPLIT_PART);
+							out.writeBoolean(part!=null);
+							if(part!=null)
+							{
+								part.write(out);
+							}
+							ClusterProtocol.writeUnits(out, task.getRemainingUnits());
+							out.flush();
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+
+				@Override
+				public void complete(SubtreeTask task, SearchCounters counters, List<BoardSignature> solutions) {
+					try {
+						out.writeByte(ClusterProtocol.UNIT_DONE);
+						ClusterProtocol.writeSolutions(out, sendSolutions ? solutions : null);
+						ClusterProtocol.writeCounters(out, counters);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+			WorkUnit unit;
+			while(true)
+			{
+				out.writeByte(ClusterProtocol.REQUEST_WORK);
+				out.flush();
+				if(in.readByte()!=ClusterProtocol.WORK)
+				{
+					return;
+				}
+				unit=WorkUnit.read(in);
+				log.debug("Searching the unit " + unit);
+				new SubtreeTask(executor, unit, listener).invoke();
+				synchronized (this) {
+					unitsDone++;
+				}
+			}
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Returns the number of units searched by the last call to {@link #start()}, including the units that were split
+	 * @return the number of units
+	 */
+	public synchronized long getUnitsDone() {
+		return unitsDone;
+	}
+}
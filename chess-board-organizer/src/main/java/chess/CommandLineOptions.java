@@ -0,0 +1,87 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.math.NumberUtils;
+
+/**
+ * Splits the parameters of an execution in positional parameters and options. An option is a parameter
+ * starting with <code>--</code> followed by its value, for instance <code>--checkpoint /tmp/run.chk</code>;
+ * every other parameter is a positional parameter.
+ * @author Willie
+ *
+ */
+public class CommandLineOptions {
+
+	private static final String OPTION_PREFIX="--";
+
+	private List<String> parameters=new ArrayList<String>();
+
+	private Map<String,String> options=new HashMap<String, String>();
+
+	/**
+	 * Parses the parameters of an execution
+	 * @param args the array of parameters
+	 * @throws RuntimeException in case an option does not have a value
+	 */
+	public CommandLineOptions(String args[])
+	{
+		for(int i=0; i<args.length; i++)
+		{
+			if(args[i].startsWith(OPTION_PREFIX))
+			{
+				if(i+1>=args.length)
+				{
+					throw new RuntimeException("Missing value of the option " + args[i]);
+				}
+				options.put(args[i].substring(OPTION_PREFIX.length()), args[i+1]);
+				i++;
+			}else{
+				parameters.add(args[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the positional parameters
+	 * @return the parameters in the order they were provided
+	 */
+	public String[] getParameters()
+	{
+		return parameters.toArray(new String[parameters.size()]);
+	}
+
+	/**
+	 * Returns the value of an option
+	 * @param name the name of the option without the <code>--</code> prefix
+	 * @return the value of the option, null if the option was not provided
+	 */
+	public String getOption(String name)
+	{
+		return options.get(name);
+	}
+
+	/**
+	 * Returns the value of a numeric option
+	 * @param name the name of the option without the <code>--</code> prefix
+	 * @param defaultValue the value returned when the option was not provided
+	 * @return the value of the option
+	 * @throws RuntimeException in case the value of the option is not a number
+	 */
+	public int getIntOption(String name, int defaultValue)
+	{
+		String value=options.get(name);
+		if(value==null)
+		{
+			return defaultValue;
+		}
+		if(!NumberUtils.isDigits(value))
+		{
+			throw new RuntimeException("Incorrect value of the option --" + name + ": " + value);
+		}
+		return Integer.parseInt(value);
+	}
+}
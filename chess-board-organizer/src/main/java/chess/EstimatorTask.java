@@ -0,0 +1,123 @@
+package chess;
+
+import java.util.List;
+import java.util.Random;
+
+import chess.board.Board;
+import chess.board.BoardGeometry;
+import chess.piece.Piece;
+
+/**
+ * Runs a share of the probes of a {@link TreeSizeEstimator}: every probe goes down the placement tree from the empty board
+ * choosing one of the candidate squares of every piece at random, and the product of the numbers of candidates met on the way
+ * is an unbiased estimate of the number of nodes of the level reached (Knuth's estimator). The probe estimates as many
+ * combinations as nodes of the last level when every piece could be placed, none otherwise.<br/>
+ * Every task has its own board and random generator and keeps the sums of its estimates, which the estimator adds up at the end.
+ * @author Willie
+ *
+ */
+public class EstimatorTask implements Runnable {
+
+	private TreeSizeEstimator estimator;
+
+	private long probes;
+
+	private Random random;
+
+	private double nodesSum;
+
+	private double nodesSquaresSum;
+
+	private double solutionsSum;
+
+	private double solutionsSquaresSum;
+
+	/**
+	 * Number of pieces placed by all the probes
+	 */
+	private long placements;
+
+	/**
+	 * Creates a task
+	 * @param estimator the estimator which holds the problem
+	 * @param probes the number of probes of this task
+	 * @param seed the seed of the random generator of this task
+	 */
+	public EstimatorTask(TreeSizeEstimator estimator, long probes, long seed)
+	{
+		this.estimator=estimator;
+		this.probes=probes;
+		this.random=new Random(seed);
+	}
+
+	@Override
+	public void run() {
+		PlacementRules rules=estimator.getRules();
+		List<Piece> pool=rules.getPool();
+		Board board=new Board(BoardGeometry.getInstance(estimator.getBoardSize()));
+		int[] safeSquares;
+		int first;
+		int candidates;
+		double weight;
+		double nodes;
+		Piece piece;
+		for(long probe=1; probe<=probes; probe++)
+		{
+			board.clear();
+			weight=1;
+			nodes=0;
+			for(int depth=0; depth<pool.size(); depth++)
+			{
+				if(!rules.canFitRemainingPieces(board))
+				{
+					break;
+				}
+				piece=pool.get(depth);
+				safeSquares=board.getSafeSquares(piece.getType());
+				first=rules.getFirstCandidate(board, safeSquares);
+				candidates=safeSquares.length-first;
+				if(candidates==0)
+				{
+					break;
+				}
+				//every sibling of the placement is expected to have as many descendants as the placement
+				weight*=candidates;
+				nodes+=weight;
+				board.addPiece(piece, safeSquares[first+random.nextInt(candidates)]);
+				placements++;
+			}
+			nodesSum+=nodes;
+			nodesSquaresSum+=nodes*nodes;
+			//an empty pool has no combinations, as for the exhaustive search
+			if(!pool.isEmpty() && board.getNumberOfPieces()==pool.size())
+			{
+				solutionsSum+=weight;
+				solutionsSquaresSum+=weight*weight;
+			}
+		}
+	}
+
+	public long getProbes() {
+		return probes;
+	}
+
+	public double getNodesSum() {
+		return nodesSum;
+	}
+
+	public double getNodesSquaresSum() {
+		return nodesSquaresSum;
+	}
+
+	public double getSolutionsSum() {
+		return solutionsSum;
+	}
+
+	public double getSolutionsSquaresSum() {
+		return solutionsSquaresSum;
+	}
+
+	public long getPlacements() {
+		return placements;
+	}
+}
@@ -1,14 +1,29 @@
 package chess;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import chess.board.Board;
+import chess.board.BoardSignature;
+import chess.io.ExecutionFile;
+import chess.io.ExecutionFileReader;
+import chess.piece.Coordinate;
 import chess.piece.Piece;
 
 /**
  * This class stores a list of boards and a pool of pieces. Its main purpose
- * is to be used to serialize the information about a given execution.
+ * is to be used to serialize the information about a given execution.<br/>
+ * Executions are now written combination by combination in an execution data file (see {@link ExecutionFile}), in that
+ * case the execution holds the signatures of the combinations instead of the boards. Executions serialized by
+ * previous versions can be converted with the {@link chess.io.ExecutionConverter}.
  * @author williez
  *
  */
@@ -29,6 +44,18 @@ public class Execution implements Serializable {
 	 */
 	private List<Board> boards;
 
+	/**
+	 * The size of the chess board, null for executions stored as a list of boards
+	 */
+	private Coordinate boardSize;
+
+	/**
+	 * The signatures of the combinations, null for executions stored as a list of boards
+	 */
+	private List<BoardSignature> solutions;
+
+	private static final Logger log= LoggerFactory.getLogger(Execution.class);
+
 	public List<Piece> getPool() {
 		return pool;
 	}
@@ -37,9 +64,95 @@ public class Execution implements Serializable {
 		return boards;
 	}
 
+	/**
+	 * Returns the size of the chess board
+	 * @return the size of the board, null if it is not known (an execution stored as an empty list of boards)
+	 */
+	public Coordinate getBoardSize() {
+		if(boardSize==null && boards!=null && !boards.isEmpty())
+		{
+			return boards.get(0).getSize();
+		}
+		return boardSize;
+	}
+
+	/**
+	 * Returns the signatures of the combinations of the execution
+	 * @return the list of signatures
+	 */
+	public List<BoardSignature> getSolutions() {
+		if(solutions==null)
+		{
+			List<BoardSignature> list=new ArrayList<BoardSignature>();
+			for(Board board: boards)
+			{
+				list.add(board.getSignature());
+			}
+			return list;
+		}
+		return solutions;
+	}
+
 	public Execution(List<Piece> pool, List<Board> boards) {
 		super();
 		this.pool = pool;
 		this.boards = boards;
 	}
+
+	public Execution(Coordinate boardSize, List<Piece> pool, List<BoardSignature> solutions) {
+		super();
+		this.boardSize = boardSize;
+		this.pool = pool;
+		this.solutions = solutions;
+	}
+
+	/**
+	 * Retrieves the information from a previous execution stored on the provided path, the file may be
+	 * an execution data file (see {@link ExecutionFile}) or a file written with java serialization by previous versions
+	 * @param path the path including filename where the execution data is stored 
+	 * @return the execution data
+	 * @throws RuntimeException in case the file cannot be read
+	 */
+	public static Execution read(String path)
+	{
+		try
+		{
+			log.info("Reading execution data from " + path); 
+			Execution executionData;
+			if(ExecutionFile.isExecutionFile(path))
+			{
+				executionData = ExecutionFileReader.read(path);
+			}else{
+				executionData = readSerialized(path);
+			}
+			log.info("Execution data sucessfully read"); 
+			return executionData;
+		}catch(IOException c)
+		{
+			log.error("Error reading execution file " + path,c);
+			throw new RuntimeException(c);
+		}
+	}
+
+	/**
+	 * Retrieves the information from a serialized Execution
+	 * @param path the path including filename where the execution data is stored 
+	 * @return the execution data
+	 * @throws IOException in case the file cannot be read
+	 */
+	private static Execution readSerialized(String path) throws IOException
+	{
+		try
+		{
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(path)));
+			try {
+				return (Execution) in.readObject();
+			} finally {
+				in.close();
+			}
+		}catch(ClassNotFoundException c)
+		{
+			throw new IOException(c);
+		}
+	}
 }
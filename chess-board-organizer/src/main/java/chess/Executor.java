@@ -1,21 +1,13 @@
 package chess;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Random;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
@@ -23,14 +15,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import chess.board.Board;
-import chess.board.Slot;
-import chess.piece.Bishop;
+import chess.board.BoardGeometry;
+import chess.board.BoardSignature;
+import chess.board.PlacementTrie;
+import chess.board.Symmetry;
+import chess.io.ExecutionConverter;
+import chess.io.ExecutionMerger;
+import chess.io.ExecutionSorter;
+import chess.io.SignatureSet;
+import chess.metrics.Gauge;
+import chess.metrics.MetricsReporter;
+import chess.metrics.SolverMetrics;
 import chess.piece.Coordinate;
-import chess.piece.King;
-import chess.piece.Knight;
 import chess.piece.Piece;
-import chess.piece.Queen;
-import chess.piece.Rook;
+import chess.sink.CountingSolutionSink;
+import chess.sink.FileSolutionSink;
+import chess.sink.SolutionSink;
 
 /**
  * This class is the executor of the main application logic which is allocating
@@ -51,9 +51,9 @@ public class Executor{
 	private List<Piece> pool;
 	
 	/**
-	 * To store the boards configuration per execution
+	 * Receives every board combination as soon as it is found
 	 */
-	private List<Board> boards;
+	private SolutionSink sink;
 	
 	/**
 	 * The size of the chess board
@@ -63,30 +63,38 @@ public class Executor{
 	private Logger log= LoggerFactory.getLogger(Executor.class);
 	
 	/**
-	 * the maximum number of parallel executors to be used to check for previously used combinations
+	 * The signatures of the boards found, to check in constant time if a combination has already been found
 	 */
-	private int maxNumberOfParallelCheckers;
+	private SignatureSet signatures;
 	
 	/**
-	 * Execution parameters
+	 * The placements tried by the retries and the combinations found, see {@link PlacementTrie}
 	 */
-	private String args[];
+	private PlacementTrie trie;
 
 	/**
-	 * Parallel executor
+	 * The tables of the pool used by the retries, see {@link PlacementRules}
 	 */
-	private ExecutorService es;
+	private PlacementRules rules;
+
 	/**
-	 * For the alternate boards calculation to displace the pieces on their X axis
+	 * Execution parameters
 	 */
-	private final short DIRECTION_X=0;
+	private String args[];
+
 	/**
-	 * For the alternate boards calculation to displace the pieces on their Y axis
+	 * The metrics of the running execution
 	 */
-	private final short DIRECTION_Y=1;
-	
+	private SolverMetrics metrics=new SolverMetrics();
+
 	/**
-	 * A flag to allow alternate boards calculation  
+	 * Chooses the order in which the safe slots are tried
+	 */
+	private Random random=new Random();
+
+	/**
+	 * A flag to allow alternate boards calculation: the rotations and reflections of every board found
+	 * are added as new combinations
 	 */
 	private boolean calculateAlternateBoards=true;
 	
@@ -106,6 +114,46 @@ public class Executor{
 	private String executionSavePath;
 	
 	private String previousStoredExecutionPath;
+
+	/**
+	 * First parameter of the main method to run the {@link ExhaustiveExecutor}
+	 */
+	public static final String MODE_EXHAUSTIVE="exhaustive";
+
+	/**
+	 * First parameter of the main method to run the {@link ExecutionConverter}
+	 */
+	public static final String MODE_CONVERT="convert";
+
+	/**
+	 * First parameter of the main method to run the {@link ExecutionMerger}
+	 */
+	public static final String MODE_MERGE="merge";
+
+	/**
+	 * First parameter of the main method to run the {@link ExecutionSorter}
+	 */
+	public static final String MODE_SORT="sort";
+
+	/**
+	 * First parameter of the main method to run the {@link RandomSampler}
+	 */
+	public static final String MODE_SAMPLE="sample";
+
+	/**
+	 * First parameter of the main method to run the {@link TreeSizeEstimator}
+	 */
+	public static final String MODE_ESTIMATE="estimate";
+
+	/**
+	 * First parameter of the main method to run the {@link ClusterCoordinator}
+	 */
+	public static final String MODE_COORDINATOR="coordinator";
+
+	/**
+	 * First parameter of the main method to run a {@link ClusterWorker}
+	 */
+	public static final String MODE_WORKER="worker";
 	/**
 	 * Default constructor
 	 */
@@ -132,25 +180,29 @@ public class Executor{
 	 * <li>The path including the file name containing a previous execution data. <b>note: </b>Provide a quoted empty string when there is not a previous execution data file 
 	 * <li>The path including the filename where this execution's data will be saved (optional parameter)
 	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--memory-budget &lt;megabytes&gt;</code> the memory taken by the combinations found, the combinations that
+	 * do not fit are written to disk, see {@link SignatureSet}. By default every combination is kept in memory
+	 * <li><code>--spill-directory &lt;path&gt;</code> the directory of the combinations written to disk, the temporary directory by default
+	 * </ul>
 	 * @param args the array of strings containing the parameters defined above
 	 * @throws RuntimeException in case the parameters are incorrect or missing
 	 */
 	public Executor(String args[])
 	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
 		if(args.length<7 || args.length>11)
 		{
 			throw new RuntimeException("Incorrect number of parameters");
 		}
 		this.args=args;
-		boards=new ArrayList<Board>();
-		boardSize= new Coordinate(args[0]+";"+args[1]);
-		pool = new ArrayList<Piece>();
+		signatures=SignatureSet.create(options);
+		Problem problem=new Problem(args, 0);
+		boardSize= problem.getBoardSize();
+		pool = problem.getPool();
 		try {
-			fillPool(Integer.parseInt(args[2]), King.class.getCanonicalName());
-			fillPool(Integer.parseInt(args[3]), Queen.class.getCanonicalName());
-			fillPool(Integer.parseInt(args[4]), Bishop.class.getCanonicalName());
-			fillPool(Integer.parseInt(args[5]), Knight.class.getCanonicalName());
-			fillPool(Integer.parseInt(args[6]), Rook.class.getCanonicalName());
 			if(NumberUtils.isNumber((args[7])))
 			{
 				maxNumberOfRetries=Integer.parseInt(args[7]);
@@ -171,36 +223,13 @@ public class Executor{
 				executionSavePath=args[10];
 				saveExecution=true;
 			}
-			//Parallel execution parameters
-			es = Executors.newFixedThreadPool(4);
-			maxNumberOfParallelCheckers=4;
-		} catch (NumberFormatException | InstantiationException
-				| IllegalAccessException | ClassNotFoundException e) {
+		} catch (NumberFormatException e) {
 			log.error("Error creating the Executor",e);
 			throw new RuntimeException("Error creating the executor",e);
 		}
 		
 	}
 
-	/**
-	 * Creates the number of instances defined in className and adds them to the Pieces pool
-	 * @param quantity the number of instances to create
-	 * @param className the qualified name of the class to be instantiated 
-	 * @throws InstantiationException in case there is an error instantiating the class
-	 * @throws IllegalAccessException in case there is an error instantiating the class
-	 * @throws ClassNotFoundException in case there is an error instantiating the class
-	 */
-	private void fillPool(int quantity, String className) throws InstantiationException, IllegalAccessException, ClassNotFoundException
-	{
-		if(pool==null){
-			pool= new ArrayList<Piece>();
-		}
-		for(int i=0; i<quantity;i++)
-		{
-			pool.add((Piece) Class.forName(className).newInstance());
-		}
-		
-	}
 	/**
 	 * This method searches for all the piece combinations of piece positions possible on a chess board
 	 * based on 3 parameters:
@@ -213,203 +242,171 @@ public class Executor{
 	public void start()
 	{
 		int successCount=0;
+		int symmetryClassesCount=0;
+		List<BoardSignature> previousSolutions=null;
 		if(continueStoredExecution)
 		{
-			Execution previousExecution=readExecution(previousStoredExecutionPath);
+			Execution previousExecution=Execution.read(previousStoredExecutionPath);
 			if(previousExecution!=null)
 			{
-				boards=previousExecution.getBoards();
+				previousSolutions=previousExecution.getSolutions();
 				pool=previousExecution.getPool();
-				successCount=boards.size();
+				successCount=previousSolutions.size();
+				Set<BoardSignature> symmetryClasses=new HashSet<BoardSignature>();
+				for(BoardSignature previousSolution: previousSolutions)
+				{
+					signatures.add(previousSolution);
+					symmetryClasses.add(Symmetry.getCanonical(previousSolution, boardSize));
+				}
+				symmetryClassesCount=symmetryClasses.size();
 				log.info("Success boards combinations found in file " + successCount);
 			}
 		}
+		if(saveExecution)
+		{
+			sink=new FileSolutionSink(executionSavePath, boardSize, pool);
+		}else{
+			sink=new CountingSolutionSink();
+		}
+		if(previousSolutions!=null)
+		{
+			//the combinations of the previous execution are kept in the new execution data file
+			for(BoardSignature previousSolution: previousSolutions)
+			{
+				sink.accept(previousSolution);
+			}
+		}
+		//the placements tried, a retry skips the placements all of whose completions have been found at any depth
+		rules=new PlacementRules(boardSize, pool);
+		trie=new PlacementTrie();
+		//the same board is used by every retry, the pieces of the previous retry are removed from it
+		RetryRoutine routine=new RetryRoutine(rules, trie, new Board(BoardGeometry.getInstance(boardSize)), random);
+		if(previousSolutions!=null)
+		{
+			for(BoardSignature previousSolution: previousSolutions)
+			{
+				routine.add(previousSolution);
+			}
+			previousSolutions=null;
+		}
 		long startRunningTime=Calendar.getInstance().getTimeInMillis();
 		printExecutionParameters();
-		Map<String, Slot> occupiedSlots;
-		List<String> availableSlots;
-		Board board;
-		int occupiedSlotsSize=0;
-		long accumulatedTimeInMillis=0;
-		List<Board> list;
+		metrics=new SolverMetrics();
+		metrics.setStoredSolutionBytes(new Gauge() {
+			@Override
+			public long getValue() {
+				return signatures.getSizeInMemory()*SolverMetrics.estimateSignatureBytes(pool.size());
+			}
+		});
+		MetricsReporter reporter=new MetricsReporter(Executor.class.getSimpleName(), metrics, MetricsReporter.DEFAULT_INTERVAL);
+		Board board=routine.getBoard();
+		List<BoardSignature> orbit;
+		Board alternateBoard;
+		boolean found;
 		for(int retry=1; retry<=maxNumberOfRetries; retry++)
 		{
-
-			board = new Board(boardSize.getX(),boardSize.getY());
-			occupiedSlots = board.getOccupiedSlots();
-			availableSlots = board.getAvailableCoordinatesList();
-			for(Piece piece: pool)
-			{
-				occupiedSlots=board.getOccupiedSlots();
-				occupiedSlotsSize=occupiedSlots.size();	
-				Collections.shuffle(availableSlots);
-				for(String coordinate: availableSlots)
-				{
-					Coordinate proposedPosition = new Coordinate(coordinate);
-					//if the available coordinate has been occupied before by the same type of piece
-					//for example, on a previous execution then ignore that coordinate
-					long initMillis= Calendar.getInstance().getTimeInMillis();
-					if(!checkNewPieceOnBoard(piece, proposedPosition, board))
-					{
-						continue;
-					}
-					if(!(occupiedSlotsSize+1==pool.size() && matchPreviousCombinationOfCoordinates(
-							piece.getClass().getName(), 
-							occupiedSlots,
-							coordinate,boards)))
-					{
-						accumulatedTimeInMillis+=Calendar.getInstance().getTimeInMillis() - initMillis;
-						board.addPiece(piece, proposedPosition);
-						break;
-					}
-					accumulatedTimeInMillis+=Calendar.getInstance().getTimeInMillis() - initMillis;
-				}
-			}
-			if(board.getOccupiedSlots().size()==pool.size())
+			found=routine.run();
+			//the work of a retry is added to the metrics once the retry is over
+			routine.reportMetrics(metrics);
+			if(found)
 			{
 				log.info("*************Retry " + retry);
 				successCount++;
+				metrics.addSolutionsFound(1);
 				board.print();
-				boards.add(board);
+				signatures.add(board.getSignature());
+				sink.accept(board.getSignature());
 				log.info("Success combinations " + successCount);
+				//the first element of the orbit is the board itself
+				orbit=Symmetry.getOrbit(board.getSignature(), boardSize);
+				orbit=orbit.subList(1, orbit.size());
+				if(!matchAnyPreviousCombination(orbit))
+				{
+					symmetryClassesCount++;
+				}
 				if(calculateAlternateBoards)
 				{
-					list = getAlternateBoards(board);
-					for(Board bo: list)
+					for(BoardSignature image: orbit)
 					{
-						log.info("-------");
-						bo.print();
-						successCount++;
-						log.info("Success combinations " + successCount);
+						if(signatures.add(image))
+						{
+							routine.add(image);
+							alternateBoard=image.toBoard(boardSize);
+							log.info("-------");
+							alternateBoard.print();
+							sink.accept(image);
+							successCount++;
+							metrics.addSolutionsFound(1);
+							log.info("Success combinations " + successCount);
+						}
 					}
-					boards.addAll(list);
 				}
 			}//else no combination has been found
 		}
-		es.shutdown();
+		reporter.report();
+		reporter.close();
 		printExecutionParameters();
 		DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance();
 		df.applyPattern("#####0.00##");
 		log.info("Total Success combinations found: " + successCount);
+		log.info("Symmetry classes found: " + symmetryClassesCount);
 		log.info("Number of calculations: " + maxNumberOfRetries);
-		log.info("Accumulated time in seconds " + df.format(accumulatedTimeInMillis/1000d));
-		log.info("Accumulated time in minutes " + df.format(accumulatedTimeInMillis/(1000d*60)));
+		//the time of the checks is estimated from the sample of checks timed
+		double duplicateCheckNanos=routine.getEstimatedDuplicateCheckNanos();
+		log.info("Estimated duplicate check time in seconds " + df.format(duplicateCheckNanos/1000000000d));
+		log.info("Estimated duplicate check time in minutes " + df.format(duplicateCheckNanos/(1000000000d*60)));
 		long totalRunningTime=Calendar.getInstance().getTimeInMillis()-startRunningTime;
 		log.info("Total running time in seconds " + df.format(totalRunningTime/1000d));
 		log.info("Total running time in minutes " + df.format(totalRunningTime/(1000d*60)));
-		if(saveExecution)
-		{
-			storeExecution(executionSavePath);
+		try {
+			sink.close();
+		} catch (IOException e) {
+			log.error("Error closing the execution data file " + executionSavePath, e);
 		}
+		signatures.close();
 	}
 
 
 	/**
-	 * Checks whether the current arrangement of positions (in coordinates) matches any of the arrangements of previous boards<br/>
-	 * To achieve this every position  on the current arrangements is looked up in the previous boards arrangements to make sure the position exists in previous boards
-	 * and that the type of piece in the same in the current and previous boards
-	 * @param pieceType the type of the new piece that will be added to the board
-	 * @param currentCombination the arrangement of pieces in the current board
-	 * @param newPosition the last position being added to the current positions the coordinate where the new piece will be added
-	 * @param boardsList the list of boards whose combinations will be checked to ensure the currentCombination is not duplicated 
-	 * @return true if the arrangement matches any of the previous boards arrangements (the same position and the same piece type), false otherwise
+	 * Checks whether the combination of pieces matches any of the combinations of previous boards<br/>
+	 * The signatures of the boards found are kept in a {@link SignatureSet} so the check takes the same time no matter
+	 * how many boards have been found
+	 * @param signature the signature of the combination, including the new piece that will be added to the board
+	 * @return true if the combination matches any of the previous boards combinations (the same position and the same piece type), false otherwise
 	 */
-	private boolean matchPreviousCombinationOfCoordinates(String pieceType, Map<String,Slot> currentCombination, String newPosition, List<Board> boardsList)
+	private boolean matchPreviousCombination(BoardSignature signature)
 	{
-		if(boardsList.size()==0)
-		{
-			return false;
-		}
-		List<CheckerThread> list=new ArrayList<CheckerThread>();
-		List<Future<Boolean>> results=null;
-		//Divide the list of boards by the number of checkers configured
-		//this will produce several list fragments which will be analyzed by the CheckerThreads
-		//This division needs not be exact
-		int boardSize=boardsList.size();
-		int maxNumberOfCheckers=getNumberOfCheckers(boardSize);
-		int section=boardSize/maxNumberOfCheckers;
-		int previousPosition=0, currentPosition=0;
-		for (int i=0; i<maxNumberOfCheckers;i++)
-		{
-			currentPosition+=section;
-			if(currentPosition>boardSize)
-			{
-				currentPosition=boardSize;
-			}
-			list.add(new CheckerThread(pieceType, currentCombination, newPosition, boardsList.subList(previousPosition,currentPosition)));
-			previousPosition=currentPosition;
-		}
-		try {
-			results = es.invokeAll(list);
-			for (Future<Boolean> result: results)
-			{
-				if(result.get())
-				{
-					return true;
-				}
-			}
-		} catch (InterruptedException e) {
-			log.error("Error executing parallel process" ,e);
-		} catch (ExecutionException e) {
-			log.error("Error executing parallel process" ,e);
-		}
-		return false;
+		long initNanos=System.nanoTime();
+		boolean found=signatures.contains(signature);
+		metrics.addTimedDuplicateCheck(found, System.nanoTime()-initNanos);
+		return found;
 	}
 	
 	/**
-	 * Return a number of parallel checkers dependent on the size of the list to be processed
-	 * @param size the size of the list to be processed
-	 * @return the number of parallel checkers
+	 * Checks whether any of the combinations matches the combinations of previous boards
+	 * @param signatures the signatures of the combinations
+	 * @return true if any of the combinations has already been found, false otherwise
 	 */
-	private int getNumberOfCheckers(int size) {
-		if(size<10)
-		{
-			return 1;
-		}
-		if(size<5000)
-		{
-			return 2;
-		}
-		if(size<20000)
+	private boolean matchAnyPreviousCombination(List<BoardSignature> signatures)
+	{
+		for(BoardSignature signature: signatures)
 		{
-			return 3;
-//		}
-//		if(size<50000)
-//		{
-//			return 6;
-		}else{
-			return maxNumberOfParallelCheckers;
+			if(matchPreviousCombination(signature))
+			{
+				return true;
+			}
 		}
+		return false;
 	}
+	
 	/**
-	 * Checks two conditions:<br>
-	 * <ol>
-	 * <li>That the already placed pieces are not contained in the capture slot coordinates of the new piece.
-	 * <li>that the new piece coordinate is not contained in the capture slots coordinates of the pieces 
-	 * already placed in the board
-	 * @param piece the new piece to be added
-	 * @param proposedPosition the new piece coordinates
-	 * @param board the board
-	 * @return true if the above conditions are met, false otherwise
+	 * Returns the metrics of the running execution, or of the last execution when it is not running
+	 * @return the metrics
 	 */
-	private boolean checkNewPieceOnBoard(Piece piece, Coordinate proposedPosition, Board board)
-	{
-		 Map<String,Slot> occupiedSlots=board.getOccupiedSlots();
-		 Collection<Slot> slots=occupiedSlots.values();
-		 List<Coordinate> capturedSlotsNewPiece = piece.getCaptureSlotsPositions(proposedPosition, board.getSize());
-		 for(Slot slot: slots)
-		 {
-			 //Check if the new piece captured slots coordinates contains the occupied slot coordinate
-			 //and check that the occupied piece capture slot coordinate does not contain the new position
-			 if(capturedSlotsNewPiece.contains(slot.getCoordinate()) || 
-					 slot.getPiece().getCaptureSlotsPositions(slot.getCoordinate(), board.getSize()).contains(proposedPosition))
-			 {
-				 return false;
-			 }
-		 }
-		 return true;
+	public SolverMetrics getMetrics() {
+		return metrics;
 	}
-	
+
 	/**
 	 * prints in the logs the execution parameters sent to the Executor
 	 */
@@ -427,150 +424,6 @@ public class Executor{
 		log.info("Currente execution data file saved in: " + (saveExecution?executionSavePath:"Current execution not saved to a file"));
 	}
 	
-	/**
-	 * Returns all the possible boards combinations for a given board
-	 * @param board the board that will be used as a base to calculate the new configurations
-	 * @return the list of board configurations, an empty list if no configurations are found
-	 */
-	private List<Board> getAlternateBoards(Board board)
-	{
-		List<Board> list= new ArrayList<Board>();
-		
-		getAlternateBoards(board, DIRECTION_X, list);
-		getAlternateBoards(board, DIRECTION_Y,list);
-		return list;
-	}
-	
-	/**
-	 * Return the list of board combinations generated by moving each piece vertical
-	 * or horizontal position, this way new combinations can be found.
-	 * Every combination found is checked to determine whether is a valid combination
-	 * (the pieces do not threaten each other) and that the combination has not
-	 * already been found 
-	 * @param board the starting board to calculate the alternate positions
-	 * @param direction the direction on which the pieces will be moved (vertical/horizontal)
-	 * @param alternateBoards alternate boards found previously for the starting board(to avoid repeating combinations)
-	 */
-	private void getAlternateBoards(Board board, short direction, List<Board> alternateBoards)
-	{
-		Board alternateBoard=null;
-		Board previousBoard=null;
-		Map<String, Slot> occupiedSlots = board.getOccupiedSlots();
-		Collection<Slot> values = occupiedSlots.values();
-		boolean matchesPositions=false,	isValidBoard=true;
-		int newCoordinate=0, boardSize=0, count=1;
-		Coordinate coordinate;
-		int occupiedPositions=values.size();
-		Piece piece=null;
-		if(direction==DIRECTION_X)
-		{
-			boardSize=board.getSize().getX();
-		}else{
-			boardSize=board.getSize().getY();
-		}
-		for(int i=1;i<boardSize;i++)
-		{
-			if(previousBoard!=null)
-			{
-				values=previousBoard.getOccupiedSlots().values();
-				occupiedPositions=values.size();
-				count=1;
-			}
-			alternateBoard= new Board(board.getSize().getX(),board.getSize().getY());
-			for(Slot slot:values)
-			{
-				if(direction==DIRECTION_X)
-				{
-					newCoordinate=slot.getCoordinate().getX()+1;
-				}else{
-					newCoordinate=slot.getCoordinate().getY()+1;
-				}
-				if(newCoordinate>boardSize)
-				{
-					newCoordinate=1;
-				}
-				try {
-					piece=slot.getPiece().getClass().newInstance();
-					if(direction==DIRECTION_X)
-					{
-						coordinate=new Coordinate(newCoordinate,slot.getCoordinate().getY());
-					}else{
-						coordinate=new Coordinate(slot.getCoordinate().getX(),newCoordinate);
-					}
-					if(isValidBoard)
-					{
-						isValidBoard=checkNewPieceOnBoard(piece, coordinate, alternateBoard);
-					}
-					//only if it is valid board (no piece threatens another piece) and all pieces have been assigned but one, check if
-					//it matches a previously found combination
-					if(isValidBoard && count==occupiedPositions)
-					{
-						matchesPositions=matchPreviousCombinationOfCoordinates(piece.getClass().getName(), alternateBoard.getOccupiedSlots(), coordinate.toString(),alternateBoards)
-								|| matchPreviousCombinationOfCoordinates(piece.getClass().getName(), alternateBoard.getOccupiedSlots(), coordinate.toString(), boards);
-					}
-					alternateBoard.addPiece(piece, coordinate);
-					count++;
-				} catch (InstantiationException | IllegalAccessException e) {
-					log.error("Error checking for alternate boards",e);
-				}
-			}
-			if(!matchesPositions && isValidBoard)
-			{
-				alternateBoards.add(alternateBoard);
-			}
-			previousBoard = alternateBoard;
-		}
-	}
-	
-	/**
-	 * Retrieves the information from a previous execution stored on the provided path 
-	 * @param path the path including filename where the execution data is stored 
-	 * @return the execution data
-	 * @See {@link Execution} 
-	 */
-	private Execution readExecution(String path)
-	{
-		try
-		{
-			log.info("Reading execution data from " + path); 
-			FileInputStream fileIn = new FileInputStream(path);
-			ObjectInputStream in = new ObjectInputStream(fileIn);
-			Execution executionData = (Execution) in.readObject();
-			in.close();
-			fileIn.close();
-			log.info("Execution data sucessfully read"); 
-			return executionData;
-		}catch(IOException | ClassNotFoundException c)
-		{
-			log.error("Error reading execution file " + path,c);
-			throw new RuntimeException(c);
-		}
-	}
-	
-	/**
-	 * Stores the execution data (list of boards and pool) on the provided path
-	 * @param path the path including the filename where the execution data will be stored for instance: D:/save/execution.ser
-	 */
-	private void storeExecution(String path)
-	{
-		try
-		{
-			log.info("Saving execution data to " + path); 
-			Execution executionData = new Execution(pool,boards);
-			FileOutputStream fileOut =
-			new FileOutputStream(path);
-			ObjectOutputStream out = new ObjectOutputStream(fileOut);
-			out.writeObject(executionData);
-			out.close();
-			fileOut.close();
-			log.info("Execution data successfully saved");
-		}catch(IOException e)
-		{
-		    log.error("Error storing the execution data on file " + path, e);
-		}
-		
-	}
-	
 	/**
 	 * Main method which is the entry point to execute the routine to calculate the number of position combinations
 	 * on a chess board without threatening each other. This method takes as parameter an array of strings which <b>must</b> contain
@@ -587,11 +440,53 @@ public class Executor{
 	 * <li>Calculate alternate boards: true/false to indicate whether alternate boards should be calculated for each board combination obtained
 	 * <li>The path including the file name containing a previous execution data. <b>note: </b>Provide a quoted empty string when there is not a previous execution data file 
 	 * <li>The path including the filename where this execution's data will be saved (optional parameter)
+	 * </ol>
+	 * The first parameter may also be a mode, in which case the rest of the parameters are passed to:
+	 * <ul>
+	 * <li><code>exhaustive</code>: the {@link ExhaustiveExecutor} which finds every combination instead of retrying random positions.
+	 * <li><code>sample</code>: the {@link RandomSampler} which runs the random retries on several threads.
+	 * <li><code>estimate</code>: the {@link TreeSizeEstimator} which estimates the number of combinations of the boards too big to be searched.
+	 * <li><code>convert</code>: the {@link ExecutionConverter} which converts the execution data files written by previous versions.
+	 * <li><code>merge</code>: the {@link ExecutionMerger} which combines the execution data files written by the shards of a search.
+	 * <li><code>sort</code>: the {@link ExecutionSorter} which sorts and removes the duplicates of execution data files of any size.
+	 * <li><code>coordinator</code>: the {@link ClusterCoordinator} which hands the exhaustive search to workers connected over TCP.
+	 * <li><code>worker</code>: a {@link ClusterWorker} which searches the units handed by a coordinator.
+	 * </ul>
 	 * @param args the array of parameters
 	 */
 	public static void main(String args[])
 	{
-		new Executor(args).start();
+		String mode=args.length>0 ? args[0].toLowerCase() : "";
+		String[] modeArgs=args.length>0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+		switch(mode)
+		{
+		case MODE_EXHAUSTIVE:
+			new ExhaustiveExecutor(modeArgs).start();
+			break;
+		case MODE_SAMPLE:
+			new RandomSampler(modeArgs).start();
+			break;
+		case MODE_ESTIMATE:
+			new TreeSizeEstimator(modeArgs).start();
+			break;
+		case MODE_CONVERT:
+			ExecutionConverter.main(modeArgs);
+			break;
+		case MODE_MERGE:
+			ExecutionMerger.main(modeArgs);
+			break;
+		case MODE_SORT:
+			ExecutionSorter.main(modeArgs);
+			break;
+		case MODE_COORDINATOR:
+			new ClusterCoordinator(modeArgs).start();
+			break;
+		case MODE_WORKER:
+			new ClusterWorker(modeArgs).start();
+			break;
+		default:
+			new Executor(args).start();
+		}
 //		new Executor().start();
 	}
 	
@@ -0,0 +1,827 @@
+package chess;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.board.BoardGeometry;
+import chess.board.BoardSignature;
+import chess.metrics.Gauge;
+import chess.metrics.MetricsReporter;
+import chess.metrics.SolverMetrics;
+import chess.piece.AttackTable;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.piece.PieceType;
+import chess.sink.CountingSolutionSink;
+import chess.sink.FileSolutionSink;
+import chess.sink.MemorySolutionSink;
+import chess.sink.SolutionSink;
+
+/**
+ * This class is an alternative to the {@link Executor}: instead of trying random positions a fixed
+ * number of times, it walks the whole tree of possible placements depth first (one level per piece of the pool)
+ * so every combination of pieces that do not threaten each other is found exactly once and the
+ * reported total is the exact number of combinations.<br/>
+ * The tree is split in subtrees by the square of the first piece and the subtrees are searched in parallel
+ * by a ForkJoinPool with one worker per processor, see {@link SubtreeTask}.<br/>
+ * When a checkpoint file is provided the state of the search is written to it periodically, so an execution that is
+ * killed can be resumed from the last checkpoint by running it again with the same parameters, see {@link SearchCheckpoint}.<br/>
+ * The search can also be split in shards run by independent processes, for instance on several machines: every shard searches
+ * the subtrees of its share of the squares of the first piece and writes its own execution data file, and the files of all the
+ * shards are combined by the {@link chess.io.ExecutionMerger}.
+ * @author Willie
+ *
+ */
+public class ExhaustiveExecutor {
+
+	/**
+	 * Option with the path including the filename of the checkpoint
+	 */
+	public static final String OPTION_CHECKPOINT="checkpoint";
+
+	/**
+	 * Option with the number of seconds between two checkpoints
+	 */
+	public static final String OPTION_CHECKPOINT_INTERVAL="checkpoint-interval";
+
+	public static final int DEFAULT_CHECKPOINT_INTERVAL=60;
+
+	/**
+	 * Option with the name of the ordering strategy, see {@link SearchOrdering}
+	 */
+	public static final String OPTION_ORDERING="ordering";
+
+	/**
+	 * Option with the number of seconds between two log lines of the metrics
+	 */
+	public static final String OPTION_METRICS_INTERVAL="metrics-interval";
+
+	/**
+	 * Option with the shard of the search run by this execution, written as <code>i/N</code>
+	 */
+	public static final String OPTION_SHARD="shard";
+
+	/**
+	 * The pieces of the problem in the order of the parameters
+	 */
+	private List<Piece> problemPool;
+
+	/**
+	 * The container of pieces to be placed in the board, in the order decided by the ordering strategy
+	 */
+	private List<Piece> pool;
+
+	/**
+	 * Decides the order of the pieces of the pool and of the squares tried by every piece
+	 */
+	private OrderingStrategy orderingStrategy=SearchOrdering.NATURAL;
+
+	/**
+	 * Receives every combination as soon as it is found, by default the combinations are only counted
+	 * or written to the execution data file when the execution must be saved
+	 */
+	private SolutionSink sink;
+
+	/**
+	 * The size of the chess board
+	 */
+	private Coordinate boardSize;
+
+	private Logger log= LoggerFactory.getLogger(ExhaustiveExecutor.class);
+
+	/**
+	 * Execution parameters
+	 */
+	private String args[];
+
+	/**
+	 * The attack table of every piece of the pool, <code>attackTables[i]</code> for the piece <code>i</code> of the pool
+	 */
+	private AttackTable[] attackTables;
+
+	/**
+	 * The type of every piece of the pool, the pieces of the same type are consecutive
+	 */
+	private PieceType[] types;
+
+	/**
+	 * The order in which every piece of the pool tries the squares, <code>squareOrders[i][k]</code> is the
+	 * square tried in the <code>k</code> position by the piece <code>i</code> of the pool
+	 */
+	private int[][] squareOrders;
+
+	/**
+	 * The inverse of {@link #squareOrders}, <code>squareRanks[i][square]</code> is the position of the square in the order
+	 */
+	private int[][] squareRanks;
+
+	/**
+	 * true for the pieces of the pool that try the squares in the natural order
+	 */
+	private boolean[] naturalSquareOrders;
+
+	/**
+	 * The distinct types of the pool, the safe squares of every one are kept by the boards of the search
+	 */
+	private PieceType[] distinctTypes;
+
+	/**
+	 * The position in {@link #distinctTypes} of the type of every piece of the pool
+	 */
+	private int[] typeIndexes;
+
+	/**
+	 * The squares threatened from every square by every distinct type, <code>squareMasks[square][t]</code>
+	 */
+	private long[][][] squareMasks;
+
+	/**
+	 * The tables of the pool shared with the other searches, see {@link PlacementRules}
+	 */
+	private PlacementRules rules;
+
+	/**
+	 * The number of pieces of every distinct type that remain to be placed once the first <code>depth</code> pieces of
+	 * the pool are placed, <code>remainingPieces[depth][t]</code>
+	 */
+	private int[][] remainingPieces;
+
+	/**
+	 * The distinct types that threaten whole lines of the board (rooks and queens)
+	 */
+	private int[] lineTypes;
+
+	/**
+	 * The counters of the last search, merged from the counters of every subtree
+	 */
+	private SearchCounters counters;
+
+	/**
+	 * Guards the state of the search shared with the checkpoints: the subtrees completed, their counters,
+	 * the progress of the subtrees being searched and the combinations pushed to the sink
+	 */
+	private final Object checkpointLock=new Object();
+
+	/**
+	 * The subtrees already searched, <code>completed[i]</code> for the subtree where the first piece is on the square <code>i</code>
+	 */
+	private boolean[] completed;
+
+	/**
+	 * The counters of the subtrees already searched
+	 */
+	private SearchCounters completedCounters;
+
+	/**
+	 * The last progress published by every subtree being searched, by square of the first piece
+	 */
+	private Map<Integer, SubtreeProgress> progress=new HashMap<Integer, SubtreeProgress>();
+
+	/**
+	 * The path including the filename of the checkpoint, null if no checkpoint is taken
+	 */
+	private String checkpointPath;
+
+	/**
+	 * Number of seconds between two checkpoints
+	 */
+	private int checkpointInterval=DEFAULT_CHECKPOINT_INTERVAL;
+
+	/**
+	 * Number of threads used to search the subtrees in parallel
+	 */
+	private int parallelism;
+
+	/**
+	 * The metrics of the running search, updated by the subtree tasks every time they publish their progress
+	 */
+	private SolverMetrics metrics=new SolverMetrics();
+
+	/**
+	 * Number of seconds between two log lines of the metrics
+	 */
+	private int metricsInterval;
+
+	/**
+	 * The pool running the search, null when the search is not running
+	 */
+	private volatile ForkJoinPool forkJoinPool;
+
+	/**
+	 * The shard of the search run by this execution, from 1 to {@link #shardCount}
+	 */
+	private int shardIndex=1;
+
+	/**
+	 * The number of shards the search is split in, 1 when the whole search is run by this execution
+	 */
+	private int shardCount=1;
+
+	/**
+	 * A flag to indicate if the execution should be serialized
+	 */
+	private boolean saveExecution=false;
+
+	/**
+	 * default path to save the execution data
+	 */
+	private String executionSavePath;
+
+	/**
+	 * Constructor of the ExhaustiveExecutor class which takes as parameter an array of strings which <b>must</b> contain
+	 * the following parameters in the indicated order:
+	 * <ol>
+	 * <li>M size of the board
+	 * <li>N size of the board
+	 * <li>Number of Kings
+	 * <li>Number of Queens
+	 * <li>Number of Bishop
+	 * <li>Number of Knights
+	 * <li>Number of Rooks (may be 0)
+	 * <li>The path including the filename where this execution's data will be saved (optional parameter)
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--checkpoint &lt;path&gt;</code> the path including the filename of the checkpoint, if the file exists the
+	 * execution is resumed from it. The file is deleted when the search finishes
+	 * <li><code>--checkpoint-interval &lt;seconds&gt;</code> the number of seconds between two checkpoints, {@value #DEFAULT_CHECKPOINT_INTERVAL} by default
+	 * <li><code>--ordering &lt;name&gt;</code> the strategy that decides the order of the pieces and squares, see {@link SearchOrdering}
+	 * <li><code>--metrics-interval &lt;seconds&gt;</code> the number of seconds between two log lines of the metrics,
+	 * {@value chess.metrics.MetricsReporter#DEFAULT_INTERVAL} by default
+	 * <li><code>--shard &lt;i/N&gt;</code> searches only the shard <code>i</code> of <code>N</code>: the squares of the first piece are
+	 * dealt in turns to the shards in the order they are tried, so every combination is found by exactly one shard as long as
+	 * every shard is run with the same parameters and ordering strategy
+	 * </ul>
+	 * @param args the array of strings containing the parameters defined above
+	 * @throws RuntimeException in case the parameters are incorrect or missing
+	 */
+	public ExhaustiveExecutor(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length<Problem.NUMBER_OF_PARAMETERS || args.length>Problem.NUMBER_OF_PARAMETERS+1)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		this.args=args;
+		checkpointPath=options.getOption(OPTION_CHECKPOINT);
+		checkpointInterval=options.getIntOption(OPTION_CHECKPOINT_INTERVAL, DEFAULT_CHECKPOINT_INTERVAL);
+		if(checkpointInterval<=0)
+		{
+			throw new RuntimeException("Incorrect checkpoint interval " + checkpointInterval);
+		}
+		metricsInterval=options.getIntOption(OPTION_METRICS_INTERVAL, MetricsReporter.DEFAULT_INTERVAL);
+		if(metricsInterval<=0)
+		{
+			throw new RuntimeException("Incorrect metrics interval " + metricsInterval);
+		}
+		if(options.getOption(OPTION_ORDERING)!=null)
+		{
+			orderingStrategy=SearchOrdering.fromName(options.getOption(OPTION_ORDERING));
+		}
+		if(options.getOption(OPTION_SHARD)!=null)
+		{
+			setShard(options.getOption(OPTION_SHARD));
+		}
+		Problem problem=new Problem(args, 0);
+		boardSize=problem.getBoardSize();
+		problemPool=problem.getPool();
+		if(args.length==Problem.NUMBER_OF_PARAMETERS+1 && !StringUtils.isBlank(args[Problem.NUMBER_OF_PARAMETERS]))
+		{
+			executionSavePath=args[Problem.NUMBER_OF_PARAMETERS];
+			saveExecution=true;
+		}
+		counters=new SearchCounters();
+		parallelism=Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Parses the shard of the search run by this execution
+	 * @param shard the shard written as <code>i/N</code>, with <code>1 &lt;= i &lt;= N</code>
+	 * @throws RuntimeException in case the shard is not correct
+	 */
+	private void setShard(String shard)
+	{
+		String[] parts=shard.split("/");
+		if(parts.length!=2 || !NumberUtils.isDigits(parts[0]) || !NumberUtils.isDigits(parts[1]))
+		{
+			throw new RuntimeException("Incorrect shard " + shard + ", expected i/N");
+		}
+		shardIndex=Integer.parseInt(parts[0]);
+		shardCount=Integer.parseInt(parts[1]);
+		if(shardCount<1 || shardIndex<1 || shardIndex>shardCount)
+		{
+			throw new RuntimeException("Incorrect shard " + shard + ", expected i/N with 1<=i<=N");
+		}
+	}
+
+	/**
+	 * Orders the pool and the squares with the ordering strategy and prepares the attack tables of the pieces
+	 * @throws RuntimeException in case the strategy does not keep the pieces of the same type together
+	 */
+	void prepareSearch()
+	{
+		pool=orderingStrategy.orderPool(problemPool, boardSize);
+		attackTables=new AttackTable[pool.size()];
+		types=new PieceType[pool.size()];
+		squareOrders=new int[pool.size()][];
+		squareRanks=new int[pool.size()][];
+		typeIndexes=new int[pool.size()];
+		naturalSquareOrders=new boolean[pool.size()];
+		List<PieceType> distinct=new ArrayList<PieceType>();
+		Set<PieceType> typesPlaced=EnumSet.noneOf(PieceType.class);
+		for(int i=0; i<pool.size(); i++)
+		{
+			types[i]=pool.get(i).getType();
+			attackTables[i]=AttackTable.getInstance(types[i], boardSize);
+			if(i>0 && types[i]!=types[i-1] && !typesPlaced.add(types[i]))
+			{
+				throw new RuntimeException("The ordering strategy " + orderingStrategy.getName() + " does not keep the pieces of the same type together");
+			}
+			typesPlaced.add(types[i]);
+			if(!distinct.contains(types[i]))
+			{
+				distinct.add(types[i]);
+			}
+			typeIndexes[i]=distinct.indexOf(types[i]);
+			if(i>0 && types[i]==types[i-1])
+			{
+				//pieces of the same type must share the order of the squares
+				squareOrders[i]=squareOrders[i-1];
+				squareRanks[i]=squareRanks[i-1];
+			}else{
+				squareOrders[i]=orderingStrategy.orderSquares(attackTables[i], boardSize);
+				squareRanks[i]=new int[squareOrders[i].length];
+				for(int rank=0; rank<squareOrders[i].length; rank++)
+				{
+					squareRanks[i][squareOrders[i][rank]]=rank;
+				}
+			}
+		}
+		for(int i=0; i<pool.size(); i++)
+		{
+			naturalSquareOrders[i]=isNaturalOrder(squareOrders[i]);
+		}
+		prepareForwardChecking(distinct);
+	}
+
+	/**
+	 * Prepares the masks and counts used to keep the safe squares of every type of the pool and to
+	 * abandon the branches where the remaining pieces cannot fit
+	 * @param distinct the distinct types of the pool
+	 */
+	private void prepareForwardChecking(List<PieceType> distinct)
+	{
+		BoardGeometry geometry=BoardGeometry.getInstance(boardSize);
+		distinctTypes=distinct.toArray(new PieceType[distinct.size()]);
+		squareMasks=new long[geometry.getNumberOfSquares()][distinctTypes.length][];
+		for(int square=0; square<squareMasks.length; square++)
+		{
+			for(int t=0; t<distinctTypes.length; t++)
+			{
+				squareMasks[square][t]=geometry.getMasks(square)[distinctTypes[t].ordinal()];
+			}
+		}
+		rules=new PlacementRules(boardSize, pool);
+		remainingPieces=new int[pool.size()+1][distinctTypes.length];
+		for(int depth=0; depth<=pool.size(); depth++)
+		{
+			for(int t=0; t<distinctTypes.length; t++)
+			{
+				remainingPieces[depth][t]=rules.getRemainingPieces(depth)[distinctTypes[t].ordinal()];
+			}
+		}
+		List<Integer> lines=new ArrayList<Integer>();
+		for(int t=0; t<distinctTypes.length; t++)
+		{
+			if(PlacementRules.isLinePiece(distinctTypes[t]))
+			{
+				lines.add(t);
+			}
+		}
+		lineTypes=new int[lines.size()];
+		for(int i=0; i<lineTypes.length; i++)
+		{
+			lineTypes[i]=lines.get(i);
+		}
+	}
+
+	/**
+	 * Searches all the combinations of the pieces in the pool on the board and logs the total
+	 * number of combinations found. When the checkpoint file exists the search is resumed from it
+	 */
+	public void start()
+	{
+		long startRunningTime=Calendar.getInstance().getTimeInMillis();
+		prepareSearch();
+		printExecutionParameters();
+		completed=new boolean[getNumberOfSquares()];
+		completedCounters=new SearchCounters();
+		progress.clear();
+		SearchCheckpoint checkpoint=null;
+		if(checkpointPath!=null && new File(checkpointPath).exists())
+		{
+			checkpoint=readCheckpoint();
+		}
+		if(sink==null)
+		{
+			sink=createSink(checkpoint);
+		}
+		ScheduledExecutorService checkpointer=null;
+		if(checkpointPath!=null)
+		{
+			checkpointer=Executors.newSingleThreadScheduledExecutor();
+			checkpointer.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					writeCheckpoint();
+				}
+			}, checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+		}
+		metrics=new SolverMetrics();
+		if(sink instanceof MemorySolutionSink)
+		{
+			metrics.setStoredSolutionBytes(new Gauge() {
+				@Override
+				public long getValue() {
+					return sink.getCount()*SolverMetrics.estimateSignatureBytes(types.length);
+				}
+			});
+		}
+		metrics.setQueueDepth(new Gauge() {
+			@Override
+			public long getValue() {
+				ForkJoinPool pool=forkJoinPool;
+				return pool==null?0:pool.getQueuedTaskCount()+pool.getQueuedSubmissionCount();
+			}
+		});
+		MetricsReporter reporter=new MetricsReporter(ExhaustiveExecutor.class.getSimpleName(), metrics, metricsInterval);
+		forkJoinPool=new ForkJoinPool(parallelism);
+		try {
+			forkJoinPool.invoke(new SubtreeTask(this, SubtreeTask.ROOT));
+		} finally {
+			forkJoinPool.shutdown();
+			forkJoinPool=null;
+			reporter.report();
+			reporter.close();
+			stopCheckpointer(checkpointer);
+			try {
+				sink.close();
+			} catch (IOException e) {
+				log.error("Error closing the solution sink", e);
+			}
+		}
+		if(checkpointPath!=null && new File(checkpointPath).exists() && !new File(checkpointPath).delete())
+		{
+			log.warn("The checkpoint " + checkpointPath + " could not be deleted");
+		}
+		counters=completedCounters;
+		DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance();
+		df.applyPattern("#####0.00##");
+		log.info("Total Success combinations found: " + counters.getSuccessCount());
+		log.info("Symmetry classes found: " + counters.getSymmetryClassesCount());
+		log.info("Number of positions tried: " + counters.getVisitedNodes());
+		long totalRunningTime=Calendar.getInstance().getTimeInMillis()-startRunningTime;
+		log.info("Total running time in seconds " + df.format(totalRunningTime/1000d));
+		log.info("Total running time in minutes " + df.format(totalRunningTime/(1000d*60)));
+	}
+
+	/**
+	 * Creates the default sink, when the execution is resumed the execution data file is truncated to its length at the
+	 * moment of the checkpoint and the new combinations are appended to it
+	 * @param checkpoint the checkpoint the execution is resumed from, null if the execution is not resumed
+	 * @return the sink
+	 * @throws RuntimeException in case the execution data file cannot be created or opened
+	 */
+	private SolutionSink createSink(SearchCheckpoint checkpoint)
+	{
+		if(!saveExecution)
+		{
+			return new CountingSolutionSink();
+		}
+		if(checkpoint==null)
+		{
+			return new FileSolutionSink(executionSavePath, boardSize, pool);
+		}
+		if(checkpoint.getOutputLength()<0)
+		{
+			throw new RuntimeException("The checkpoint " + checkpointPath + " was taken without saving the execution data");
+		}
+		long count=completedCounters.getSuccessCount();
+		for(SubtreeProgress subtree: progress.values())
+		{
+			count+=subtree.getCounters().getSuccessCount();
+		}
+		return new FileSolutionSink(executionSavePath, boardSize, pool, checkpoint.getOutputLength(), count);
+	}
+
+	/**
+	 * Reads the checkpoint and restores the state of the search
+	 * @return the checkpoint
+	 * @throws RuntimeException in case the checkpoint cannot be read or it was taken for another problem
+	 */
+	private SearchCheckpoint readCheckpoint()
+	{
+		SearchCheckpoint checkpoint;
+		try {
+			checkpoint=SearchCheckpoint.read(checkpointPath);
+		} catch (IOException e) {
+			log.error("Error reading the checkpoint " + checkpointPath, e);
+			throw new RuntimeException(e);
+		}
+		if(!checkpoint.getProblem().equals(getProblemDescription()) || checkpoint.getCompleted().length!=completed.length)
+		{
+			throw new RuntimeException("The checkpoint " + checkpointPath + " was taken for another problem: " + checkpoint.getProblem());
+		}
+		completed=checkpoint.getCompleted();
+		completedCounters=checkpoint.getCompletedCounters();
+		for(SubtreeProgress subtree: checkpoint.getProgress())
+		{
+			progress.put(subtree.getFirstSquare(), subtree);
+		}
+		log.info("Resuming the execution from the checkpoint " + checkpointPath + ", " + completedCounters.getSuccessCount()
+				+ " combinations found in the subtrees completed");
+		return checkpoint;
+	}
+
+	/**
+	 * Writes the state of the search to the checkpoint file. The sink is flushed first, so every combination counted
+	 * by the checkpoint is stored before the checkpoint is written
+	 */
+	void writeCheckpoint()
+	{
+		SearchCheckpoint checkpoint;
+		try {
+			synchronized (checkpointLock) {
+				sink.flush();
+				long outputLength=sink instanceof FileSolutionSink ? ((FileSolutionSink)sink).getLength() : -1;
+				checkpoint=new SearchCheckpoint(getProblemDescription(), outputLength, completed.clone(),
+						new SearchCounters(completedCounters), new ArrayList<SubtreeProgress>(progress.values()));
+			}
+			checkpoint.write(checkpointPath);
+			log.debug("Checkpoint written to " + checkpointPath);
+		} catch (IOException e) {
+			log.error("Error writing the checkpoint " + checkpointPath, e);
+		}
+	}
+
+	private void stopCheckpointer(ScheduledExecutorService checkpointer)
+	{
+		if(checkpointer==null)
+		{
+			return;
+		}
+		checkpointer.shutdownNow();
+		try {
+			checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the parameters that define the problem, used to check that a checkpoint belongs to this execution
+	 * @return the size of the board and the number of pieces of every type
+	 */
+	private String getProblemDescription()
+	{
+		return StringUtils.join(args, ' ', 0, Problem.NUMBER_OF_PARAMETERS) + " " + orderingStrategy.getName()
+				+ (shardCount>1 ? " shard " + shardIndex + "/" + shardCount : "");
+	}
+
+	/**
+	 * Registers the progress of a subtree and pushes the combinations it found since its last publication to the sink.
+	 * This method is called concurrently by the subtree tasks
+	 * @param subtree the progress of the subtree
+	 * @param solutions the combinations found since the last publication
+	 */
+	void publishProgress(SubtreeProgress subtree, List<BoardSignature> solutions)
+	{
+		synchronized (checkpointLock) {
+			for(BoardSignature solution: solutions)
+			{
+				sink.accept(solution);
+			}
+			progress.put(subtree.getFirstSquare(), subtree);
+		}
+	}
+
+	/**
+	 * Registers a subtree as completed and pushes the last combinations it found to the sink.
+	 * This method is called concurrently by the subtree tasks
+	 * @param firstSquare the square of the first piece of the subtree
+	 * @param subtreeCounters the counters of the whole subtree
+	 * @param solutions the combinations found since the last publication
+	 */
+	void completeSubtree(int firstSquare, SearchCounters subtreeCounters, List<BoardSignature> solutions)
+	{
+		synchronized (checkpointLock) {
+			for(BoardSignature solution: solutions)
+			{
+				sink.accept(solution);
+			}
+			progress.remove(firstSquare);
+			completed[firstSquare]=true;
+			completedCounters.add(subtreeCounters);
+		}
+	}
+
+	/**
+	 * prints in the logs the execution parameters sent to the ExhaustiveExecutor
+	 */
+	private void printExecutionParameters()
+	{
+		log.info("Execution parameters:");
+		log.info("Board size: " + args[0]+"x"+args[1]);
+		log.info("#Kings: " + args[2]);
+		log.info("#Queens: " + args[3]);
+		log.info("#Bishops: " + args[4]);
+		log.info("#Knights: " + args[5]);
+		log.info("#Rooks: " + args[6]);
+		log.info("Parallel workers: " + parallelism);
+		log.info("Ordering strategy: " + orderingStrategy.getName());
+		log.info("Shard: " + shardIndex + "/" + shardCount);
+		log.info("Currente execution data file saved in: " + (saveExecution?executionSavePath:"Current execution not saved to a file"));
+		log.info("Checkpoint: " + (checkpointPath!=null?checkpointPath + " every " + checkpointInterval + " seconds":"No checkpoint"));
+	}
+
+	/**
+	 * Returns the number of distinct combinations found by the last call to {@link #start()}
+	 * @return the number of combinations
+	 */
+	public long getSuccessCount() {
+		return counters.getSuccessCount();
+	}
+
+	/**
+	 * Returns the number of symmetry classes of the combinations found by the last call to {@link #start()}
+	 * @return the number of combinations that are not a rotation or reflection of each other
+	 */
+	public long getSymmetryClassesCount() {
+		return counters.getSymmetryClassesCount();
+	}
+
+	/**
+	 * Returns the number of positions tried by the last call to {@link #start()}
+	 * @return the number of positions tried
+	 */
+	public long getVisitedNodes() {
+		return counters.getVisitedNodes();
+	}
+
+	/**
+	 * Returns the metrics of the running search, or of the last search when it is not running.
+	 * The metrics are also published as a JMX MBean while the search is running
+	 * @return the metrics
+	 */
+	public SolverMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the sink that receives every combination found, it is closed at the end of {@link #start()}.
+	 * By default the combinations are only counted, or written to a file when the execution data path is provided.<br/>
+	 * When the execution is resumed from a checkpoint the combinations found before the checkpoint are not pushed again to this sink
+	 * @param sink the sink
+	 */
+	public void setSink(SolutionSink sink) {
+		this.sink = sink;
+	}
+
+	/**
+	 * Sets the strategy that decides the order of the pieces and of the squares, {@link SearchOrdering#NATURAL} by default.
+	 * Comparing the positions tried by every strategy on the same problem shows which one prunes the search the most
+	 * @param orderingStrategy the strategy
+	 */
+	public void setOrderingStrategy(OrderingStrategy orderingStrategy) {
+		this.orderingStrategy = orderingStrategy;
+	}
+
+	/**
+	 * Sets the number of threads used to search the subtrees, by default the number of processors of the machine
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	Coordinate getBoardSize() {
+		return boardSize;
+	}
+
+	int getNumberOfSquares() {
+		return boardSize.getX()*boardSize.getY();
+	}
+
+	int getNumberOfPieces() {
+		return types.length;
+	}
+
+	PieceType getType(int index) {
+		return types[index];
+	}
+
+	PieceType[] getTypes() {
+		return types;
+	}
+
+	/**
+	 * Checks whether the subtree where the first piece is on the square belongs to the shard run by this execution
+	 * @param firstSquare the square of the first piece
+	 * @return true if the subtree must be searched by this execution
+	 */
+	boolean isInShard(int firstSquare) {
+		return squareRanks[0][firstSquare]%shardCount==shardIndex-1;
+	}
+
+	boolean isSubtreeCompleted(int firstSquare) {
+		return completed[firstSquare];
+	}
+
+	SubtreeProgress getSubtreeProgress(int firstSquare) {
+		return progress.get(firstSquare);
+	}
+
+	AttackTable getAttackTable(int index) {
+		return attackTables[index];
+	}
+
+	int getNumberOfTypes() {
+		return distinctTypes.length;
+	}
+
+	int getTypeIndex(int index) {
+		return typeIndexes[index];
+	}
+
+	long[][] getSquareMasks(int square) {
+		return squareMasks[square];
+	}
+
+	int[] getRemainingPieces(int depth) {
+		return remainingPieces[depth];
+	}
+
+	int getRemainingLinePieces(int depth) {
+		return rules.getRemainingLinePieces(depth);
+	}
+
+	int[] getLineTypes() {
+		return lineTypes;
+	}
+
+	long[][] getRows() {
+		return rules.getRows();
+	}
+
+	long[][] getColumns() {
+		return rules.getColumns();
+	}
+
+	/**
+	 * Checks whether the piece of the pool tries the squares in the natural order, so the search can jump from one safe square
+	 * to the next one without checking the squares in between
+	 * @param index the position of the piece in the pool
+	 * @return true if the order of the squares is the natural order
+	 */
+	boolean isNaturalSquareOrder(int index) {
+		return naturalSquareOrders[index];
+	}
+
+	private static boolean isNaturalOrder(int[] order)
+	{
+		for(int i=0; i<order.length; i++)
+		{
+			if(order[i]!=i)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int[] getSquareOrder(int index) {
+		return squareOrders[index];
+	}
+
+	int getSquareRank(int index, int square) {
+		return squareRanks[index][square];
+	}
+}
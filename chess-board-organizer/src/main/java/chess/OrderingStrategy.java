@@ -0,0 +1,39 @@
+package chess;
+
+import java.util.List;
+
+import chess.piece.AttackTable;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * Decides the order in which the {@link ExhaustiveExecutor} places the pieces of the pool and the order in which
+ * every piece tries the squares of the board. The order does not change the combinations found, only the number of
+ * positions tried to find them, see {@link SearchOrdering} for the strategies available.
+ * @author Willie
+ *
+ */
+public interface OrderingStrategy {
+
+	/**
+	 * Returns the pieces of the pool in the order they are placed, the pieces of the same type <b>must</b> be consecutive
+	 * @param pool the pieces of the problem
+	 * @param boardSize the size of the chess board
+	 * @return a new list with the same pieces
+	 */
+	List<Piece> orderPool(List<Piece> pool, Coordinate boardSize);
+
+	/**
+	 * Returns the order in which a piece tries the squares of the board
+	 * @param attackTable the attack table of the piece on the board
+	 * @param boardSize the size of the chess board
+	 * @return every square of the board exactly once
+	 */
+	int[] orderSquares(AttackTable attackTable, Coordinate boardSize);
+
+	/**
+	 * Returns the name of the strategy, a checkpoint can only be resumed with the strategy it was taken with
+	 * @return the name
+	 */
+	String getName();
+}
@@ -0,0 +1,220 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import chess.board.BitBoard;
+import chess.board.Board;
+import chess.board.BoardGeometry;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.piece.PieceType;
+
+/**
+ * The rules shared by every search that places the pieces of a pool in order on a {@link Board}: the pieces of the same type
+ * are consecutive in the pool and are placed on increasing squares, so every combination is built once and in a single order,
+ * and a branch is abandoned as soon as the remaining pieces cannot fit on the board.<br/>
+ * The remaining pieces fit when every type has at least as many safe squares as pieces left, and the rooks and queens left
+ * find a different horizontal and vertical line each with a safe square for them, since no two of them can share a line.
+ * The same pruning is done on the {@link BitBoard} of the {@link SubtreeTask} with {@link #countLines(BitBoard, int[], long[][])},
+ * so the random retries, the estimates and the exhaustive search explore the same tree.<br/>
+ * Instances of this class are immutable.
+ * @author Willie
+ *
+ */
+class PlacementRules {
+
+	private List<Piece> pool;
+
+	/**
+	 * The number of pieces of every type that remain to be placed once the first <code>depth</code> pieces of
+	 * the pool are placed, <code>remainingPieces[depth][type.ordinal()]</code>
+	 */
+	private int[][] remainingPieces;
+
+	/**
+	 * The number of rooks and queens that remain to be placed once the first <code>depth</code> pieces of the pool are placed
+	 */
+	private int[] remainingLinePieces;
+
+	/**
+	 * The position in the pool of the previous piece of the same type of every piece, -1 for the first piece of a type
+	 */
+	private int[] previousOfType;
+
+	/**
+	 * The ordinal of the types of the pool that threaten whole lines of the board (rooks and queens)
+	 */
+	private int[] lineTypes;
+
+	/**
+	 * The squares of every horizontal line and every vertical line of the board
+	 */
+	private long[][] rows;
+
+	private long[][] columns;
+
+	/**
+	 * Prepares the rules of a problem
+	 * @param boardSize the size of the chess board
+	 * @param pool the pieces in the order they are placed
+	 */
+	PlacementRules(Coordinate boardSize, List<Piece> pool)
+	{
+		this.pool=pool;
+		int types=PieceType.values().length;
+		remainingPieces=new int[pool.size()+1][types];
+		remainingLinePieces=new int[pool.size()+1];
+		for(int depth=pool.size()-1; depth>=0; depth--)
+		{
+			System.arraycopy(remainingPieces[depth+1], 0, remainingPieces[depth], 0, types);
+			remainingPieces[depth][pool.get(depth).getType().ordinal()]++;
+			remainingLinePieces[depth]=remainingLinePieces[depth+1]+(isLinePiece(pool.get(depth).getType())?1:0);
+		}
+		previousOfType=new int[pool.size()];
+		int[] last=new int[types];
+		Arrays.fill(last, -1);
+		for(int i=0; i<pool.size(); i++)
+		{
+			previousOfType[i]=last[pool.get(i).getType().ordinal()];
+			last[pool.get(i).getType().ordinal()]=i;
+		}
+		List<Integer> lines=new ArrayList<Integer>();
+		for(PieceType type: PieceType.values())
+		{
+			if(isLinePiece(type) && remainingPieces[0][type.ordinal()]>0)
+			{
+				lines.add(type.ordinal());
+			}
+		}
+		lineTypes=new int[lines.size()];
+		for(int i=0; i<lineTypes.length; i++)
+		{
+			lineTypes[i]=lines.get(i);
+		}
+		BoardGeometry geometry=BoardGeometry.getInstance(boardSize);
+		rows=new long[boardSize.getX()][];
+		for(int row=0; row<rows.length; row++)
+		{
+			rows[row]=geometry.getRow(row);
+		}
+		columns=new long[boardSize.getY()][];
+		for(int column=0; column<columns.length; column++)
+		{
+			columns[column]=geometry.getColumn(column);
+		}
+	}
+
+	/**
+	 * Checks whether the pieces of a type threaten whole lines of the board, so no two of them can share a line
+	 * @param type the type of piece
+	 * @return true for the rooks and queens
+	 */
+	static boolean isLinePiece(PieceType type)
+	{
+		return type==PieceType.ROOK || type==PieceType.QUEEN;
+	}
+
+	/**
+	 * Counts the lines with a safe square for a rook or a queen
+	 * @param bitBoard the state of the board
+	 * @param lineTypes the indexes in the bit board of the types that threaten whole lines
+	 * @param lines the squares of every line
+	 * @return the number of lines
+	 */
+	static int countLines(BitBoard bitBoard, int[] lineTypes, long[][] lines)
+	{
+		int count=0;
+		for(long[] line: lines)
+		{
+			for(int type: lineTypes)
+			{
+				if(bitBoard.hasSafeSquare(type, line))
+				{
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the position in the safe squares of the next piece of the pool of the first square where it can be placed:
+	 * a piece goes on a square after the square of the previous piece of its type
+	 * @param board the board with the first pieces of the pool
+	 * @param safeSquares the safe squares for the next piece in increasing order
+	 * @return the index of the first candidate square in <code>safeSquares</code>
+	 */
+	int getFirstCandidate(Board board, int[] safeSquares)
+	{
+		int previous=previousOfType[board.getNumberOfPieces()];
+		if(previous<0)
+		{
+			return 0;
+		}
+		int index=Arrays.binarySearch(safeSquares, board.getOccupiedSquare(previous)+1);
+		return index>=0 ? index : -index-1;
+	}
+
+	/**
+	 * Returns the squares where the next piece of the pool can be placed: its safe squares after the square of the
+	 * previous piece of its type
+	 * @param board the board with the first pieces of the pool
+	 * @return the squares in increasing order
+	 */
+	int[] getCandidates(Board board)
+	{
+		int[] safeSquares=board.getSafeSquares(pool.get(board.getNumberOfPieces()).getType());
+		int first=getFirstCandidate(board, safeSquares);
+		return first==0 ? safeSquares : Arrays.copyOfRange(safeSquares, first, safeSquares.length);
+	}
+
+	/**
+	 * Checks whether the pieces of the pool that have not been placed yet may fit on the board: every type
+	 * must have at least as many safe slots as pieces left, and the rooks and queens left need a different
+	 * horizontal and vertical line each with a safe square for them
+	 * @param board the board with the first pieces of the pool
+	 * @return false if the remaining pieces cannot be placed
+	 */
+	boolean canFitRemainingPieces(Board board)
+	{
+		int depth=board.getNumberOfPieces();
+		int[] remaining=remainingPieces[depth];
+		for(PieceType type: PieceType.values())
+		{
+			if(remaining[type.ordinal()]>0 && board.countSafeSlots(type)<remaining[type.ordinal()])
+			{
+				return false;
+			}
+		}
+		int linePieces=remainingLinePieces[depth];
+		return linePieces<2 || (countLines(board.getBitBoard(), lineTypes, rows)>=linePieces
+				&& countLines(board.getBitBoard(), lineTypes, columns)>=linePieces);
+	}
+
+	List<Piece> getPool() {
+		return pool;
+	}
+
+	int[] getRemainingPieces(int depth) {
+		return remainingPieces[depth];
+	}
+
+	int getRemainingLinePieces(int depth) {
+		return remainingLinePieces[depth];
+	}
+
+	int getPreviousOfType(int depth) {
+		return previousOfType[depth];
+	}
+
+	long[][] getRows() {
+		return rows;
+	}
+
+	long[][] getColumns() {
+		return columns;
+	}
+}
@@ -0,0 +1,100 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.piece.Bishop;
+import chess.piece.Coordinate;
+import chess.piece.King;
+import chess.piece.Knight;
+import chess.piece.Piece;
+import chess.piece.Queen;
+import chess.piece.Rook;
+
+/**
+ * Describes a problem to be solved: the size of the chess board and the pieces
+ * that must be placed on it without threatening each other.
+ * @author Willie
+ *
+ */
+public class Problem {
+
+	/**
+	 * Number of parameters needed to define a problem
+	 */
+	public static final int NUMBER_OF_PARAMETERS=7;
+
+	/**
+	 * The size of the chess board
+	 */
+	private Coordinate boardSize;
+
+	/**
+	 * The container of pieces to be placed in the board
+	 */
+	private List<Piece> pool;
+
+	/**
+	 * Builds a problem from an array of strings which <b>must</b> contain
+	 * the following parameters in the indicated order starting at the position <code>offset</code>:
+	 * <ol>
+	 * <li>M size of the board
+	 * <li>N size of the board
+	 * <li>Number of Kings
+	 * <li>Number of Queens
+	 * <li>Number of Bishop
+	 * <li>Number of Knights
+	 * <li>Number of Rooks (may be 0)
+	 * </ol>
+	 * @param args the array of strings containing the parameters defined above
+	 * @param offset the position of the M size of the board in the array
+	 * @throws RuntimeException in case the parameters are incorrect or missing
+	 */
+	public Problem(String args[], int offset)
+	{
+		if(args.length<offset+NUMBER_OF_PARAMETERS)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		try {
+			boardSize= new Coordinate(Integer.parseInt(args[offset]), Integer.parseInt(args[offset+1]));
+			pool = new ArrayList<Piece>();
+			fillPool(Integer.parseInt(args[offset+2]), King.class.getCanonicalName());
+			fillPool(Integer.parseInt(args[offset+3]), Queen.class.getCanonicalName());
+			fillPool(Integer.parseInt(args[offset+4]), Bishop.class.getCanonicalName());
+			fillPool(Integer.parseInt(args[offset+5]), Knight.class.getCanonicalName());
+			fillPool(Integer.parseInt(args[offset+6]), Rook.class.getCanonicalName());
+		} catch (NumberFormatException | InstantiationException
+				| IllegalAccessException | ClassNotFoundException e) {
+			throw new RuntimeException("Error creating the problem",e);
+		}
+		if(boardSize.getX()<1 || boardSize.getY()<1)
+		{
+			throw new RuntimeException("Incorrect board size");
+		}
+	}
+
+	/**
+	 * Creates the number of instances defined in className and adds them to the Pieces pool
+	 * @param quantity the number of instances to create
+	 * @param className the qualified name of the class to be instantiated 
+	 * @throws InstantiationException in case there is an error instantiating the class
+	 * @throws IllegalAccessException in case there is an error instantiating the class
+	 * @throws ClassNotFoundException in case there is an error instantiating the class
+	 */
+	private void fillPool(int quantity, String className) throws InstantiationException, IllegalAccessException, ClassNotFoundException
+	{
+		for(int i=0; i<quantity;i++)
+		{
+			pool.add((Piece) Class.forName(className).newInstance());
+		}
+	}
+
+	public Coordinate getBoardSize() {
+		return boardSize;
+	}
+
+	public List<Piece> getPool() {
+		return pool;
+	}
+}
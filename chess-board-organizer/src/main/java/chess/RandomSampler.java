@@ -0,0 +1,351 @@
+package chess;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.board.BoardSignature;
+import chess.board.PlacementTrie;
+import chess.io.SignatureSet;
+import chess.metrics.Gauge;
+import chess.metrics.MetricsReporter;
+import chess.metrics.SolverMetrics;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.sink.CountingSolutionSink;
+import chess.sink.FileSolutionSink;
+import chess.sink.SolutionSink;
+
+/**
+ * This class is the parallel version of the random retries of the {@link Executor}, for when some combinations are needed fast
+ * and not all of them: the retries are shared among a number of threads and every thread runs its retries with its own board
+ * and its own random generator, see {@link SamplerTask}.<br/>
+ * The combinations found are published to a {@link SignatureSet}, which is the only state shared by the threads with
+ * the {@link PlacementTrie} of the placements tried. The trie does not take any lock, and without a memory budget neither does
+ * the set, so the threads never wait for each other and the number of retries per second grows with the number of processors.
+ * @author Willie
+ *
+ */
+public class RandomSampler {
+
+	/**
+	 * Option with the number of threads running the retries
+	 */
+	public static final String OPTION_THREADS="threads";
+
+	/**
+	 * Option with the seed of the random generators, so an execution can be repeated
+	 */
+	public static final String OPTION_SEED="seed";
+
+	private Logger log= LoggerFactory.getLogger(RandomSampler.class);
+
+	/**
+	 * Execution parameters
+	 */
+	private String args[];
+
+	/**
+	 * The size of the chess board
+	 */
+	private Coordinate boardSize;
+
+	/**
+	 * The container of pieces to be placed in the board
+	 */
+	private List<Piece> pool;
+
+	/**
+	 * The tables of the pool shared by the threads, see {@link PlacementRules}
+	 */
+	private PlacementRules rules;
+
+	/**
+	 * The number of retries shared by all the threads
+	 */
+	private long maxNumberOfRetries;
+
+	/**
+	 * Number of threads running the retries
+	 */
+	private int threads;
+
+	/**
+	 * The seed of the random generator of every thread is taken from this generator
+	 */
+	private Random seeds;
+
+	/**
+	 * The signatures of the combinations found
+	 */
+	private SignatureSet signatures;
+
+	/**
+	 * The placements tried by the threads, which lets them skip the placements all of whose completions have been found
+	 */
+	private PlacementTrie trie;
+
+	/**
+	 * Receives every combination as soon as it is found
+	 */
+	private SolutionSink sink;
+
+	private SolverMetrics metrics=new SolverMetrics();
+
+	/**
+	 * Number of seconds between two log lines of the metrics
+	 */
+	private int metricsInterval;
+
+	/**
+	 * A flag to indicate if the execution should be serialized
+	 */
+	private boolean saveExecution=false;
+
+	/**
+	 * default path to save the execution data
+	 */
+	private String executionSavePath;
+
+	/**
+	 * Number of distinct combinations found by the last call to {@link #start()}
+	 */
+	private long successCount;
+
+	/**
+	 * Number of complete combinations found by the last call to {@link #start()} that had already been found by another thread
+	 */
+	private long duplicatesCount;
+
+	/**
+	 * Constructor of the RandomSampler class which takes as parameter an array of strings which <b>must</b> contain
+	 * the following parameters in the indicated order:
+	 * <ol>
+	 * <li>M size of the board
+	 * <li>N size of the board
+	 * <li>Number of Kings
+	 * <li>Number of Queens
+	 * <li>Number of Bishop
+	 * <li>Number of Knights
+	 * <li>Number of Rooks (may be 0)
+	 * <li>Number of retries: the number of times, shared among all the threads, the pieces are placed on random slots
+	 * <li>The path including the filename where this execution's data will be saved (optional parameter)
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--threads &lt;number&gt;</code> the number of threads running the retries, by default the number of processors
+	 * <li><code>--seed &lt;number&gt;</code> the seed of the random generators, by default a different seed on every execution
+	 * <li><code>--metrics-interval &lt;seconds&gt;</code> the number of seconds between two log lines of the metrics,
+	 * {@value chess.metrics.MetricsReporter#DEFAULT_INTERVAL} by default
+	 * <li><code>--memory-budget &lt;megabytes&gt;</code> the memory taken by the combinations found, the combinations that
+	 * do not fit are written to disk, see {@link SignatureSet}. By default every combination is kept in memory
+	 * <li><code>--spill-directory &lt;path&gt;</code> the directory of the combinations written to disk, the temporary directory by default
+	 * </ul>
+	 * @param args the array of strings containing the parameters defined above
+	 * @throws RuntimeException in case the parameters are incorrect or missing
+	 */
+	public RandomSampler(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length<Problem.NUMBER_OF_PARAMETERS+1 || args.length>Problem.NUMBER_OF_PARAMETERS+2)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		this.args=args;
+		Problem problem=new Problem(args, 0);
+		boardSize=problem.getBoardSize();
+		pool=problem.getPool();
+		if(!NumberUtils.isDigits(args[Problem.NUMBER_OF_PARAMETERS]))
+		{
+			throw new RuntimeException("Incorrect number of maximum retries");
+		}
+		maxNumberOfRetries=Long.parseLong(args[Problem.NUMBER_OF_PARAMETERS]);
+		if(args.length==Problem.NUMBER_OF_PARAMETERS+2 && !StringUtils.isBlank(args[Problem.NUMBER_OF_PARAMETERS+1]))
+		{
+			executionSavePath=args[Problem.NUMBER_OF_PARAMETERS+1];
+			saveExecution=true;
+		}
+		threads=options.getIntOption(OPTION_THREADS, Runtime.getRuntime().availableProcessors());
+		if(threads<=0)
+		{
+			throw new RuntimeException("Incorrect number of threads " + threads);
+		}
+		String seed=options.getOption(OPTION_SEED);
+		try {
+			seeds=seed!=null ? new Random(Long.parseLong(seed)) : new Random();
+		} catch (NumberFormatException e) {
+			throw new RuntimeException("Incorrect seed " + seed, e);
+		}
+		signatures=SignatureSet.create(options);
+		metricsInterval=options.getIntOption(ExhaustiveExecutor.OPTION_METRICS_INTERVAL, MetricsReporter.DEFAULT_INTERVAL);
+		if(metricsInterval<=0)
+		{
+			throw new RuntimeException("Incorrect metrics interval " + metricsInterval);
+		}
+		rules=new PlacementRules(boardSize, pool);
+	}
+
+	/**
+	 * Runs the retries on all the threads and logs the number of combinations found
+	 * @throws RuntimeException in case any of the threads fails
+	 */
+	public void start()
+	{
+		long startRunningTime=Calendar.getInstance().getTimeInMillis();
+		printExecutionParameters();
+		trie=new PlacementTrie();
+		if(sink==null)
+		{
+			sink=saveExecution ? new FileSolutionSink(executionSavePath, boardSize, pool) : new CountingSolutionSink();
+		}
+		metrics=new SolverMetrics();
+		metrics.setStoredSolutionBytes(new Gauge() {
+			@Override
+			public long getValue() {
+				return signatures.getSizeInMemory()*SolverMetrics.estimateSignatureBytes(pool.size());
+			}
+		});
+		MetricsReporter reporter=new MetricsReporter(RandomSampler.class.getSimpleName(), metrics, metricsInterval);
+		List<SamplerTask> tasks=new ArrayList<SamplerTask>();
+		for(int i=0; i<threads; i++)
+		{
+			//the retries left by the division are run by the first threads
+			tasks.add(new SamplerTask(this, maxNumberOfRetries/threads+(i<maxNumberOfRetries%threads?1:0), seeds.nextLong()));
+		}
+		ExecutorService executor=Executors.newFixedThreadPool(threads);
+		successCount=0;
+		duplicatesCount=0;
+		try {
+			List<Future<?>> futures=new ArrayList<Future<?>>();
+			for(SamplerTask task: tasks)
+			{
+				futures.add(executor.submit(task));
+			}
+			for(Future<?> future: futures)
+			{
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			log.error("Error running the retries", e.getCause());
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+			reporter.report();
+			reporter.close();
+			try {
+				sink.close();
+			} catch (IOException e) {
+				log.error("Error closing the solution sink", e);
+			}
+			signatures.close();
+		}
+		for(SamplerTask task: tasks)
+		{
+			successCount+=task.getSuccessCount();
+			duplicatesCount+=task.getDuplicatesCount();
+		}
+		DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance();
+		df.applyPattern("#####0.00##");
+		log.info("Total Success combinations found: " + successCount);
+		log.info("Duplicate combinations found: " + duplicatesCount);
+		log.info("Number of calculations: " + maxNumberOfRetries);
+		long totalRunningTime=Calendar.getInstance().getTimeInMillis()-startRunningTime;
+		log.info("Total running time in seconds " + df.format(totalRunningTime/1000d));
+		log.info("Total running time in minutes " + df.format(totalRunningTime/(1000d*60)));
+	}
+
+	/**
+	 * Publishes a combination found by one of the threads, the combination is pushed to the sink the first time it is found.
+	 * This method is called concurrently by the threads
+	 * @param signature the combination
+	 * @return true if the combination had not been found before
+	 */
+	boolean publish(BoardSignature signature)
+	{
+		if(signatures.add(signature))
+		{
+			sink.accept(signature);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * prints in the logs the execution parameters sent to the RandomSampler
+	 */
+	private void printExecutionParameters()
+	{
+		log.info("Execution parameters:");
+		log.info("Board size: " + args[0]+"x"+args[1]);
+		log.info("#Kings: " + args[2]);
+		log.info("#Queens: " + args[3]);
+		log.info("#Bishops: " + args[4]);
+		log.info("#Knights: " + args[5]);
+		log.info("#Rooks: " + args[6]);
+		log.info("Number of retries: " + maxNumberOfRetries);
+		log.info("Threads: " + threads);
+		log.info("Currente execution data file saved in: " + (saveExecution?executionSavePath:"Current execution not saved to a file"));
+	}
+
+	/**
+	 * Sets the sink that receives every combination found, it is closed at the end of {@link #start()}.
+	 * By default the combinations are only counted, or written to a file when the execution data path is provided
+	 * @param sink the sink
+	 */
+	public void setSink(SolutionSink sink) {
+		this.sink = sink;
+	}
+
+	/**
+	 * Returns the number of distinct combinations found by the last call to {@link #start()}
+	 * @return the number of combinations
+	 */
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	/**
+	 * Returns the number of complete combinations found by the last call to {@link #start()} that had already been found
+	 * by another thread
+	 * @return the number of combinations
+	 */
+	public long getDuplicatesCount() {
+		return duplicatesCount;
+	}
+
+	/**
+	 * Returns the metrics of the running execution, or of the last execution when it is not running
+	 * @return the metrics
+	 */
+	public SolverMetrics getMetrics() {
+		return metrics;
+	}
+
+	Coordinate getBoardSize() {
+		return boardSize;
+	}
+
+	PlacementTrie getTrie() {
+		return trie;
+	}
+
+	PlacementRules getRules() {
+		return rules;
+	}
+}
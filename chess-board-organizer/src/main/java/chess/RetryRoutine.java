@@ -0,0 +1,269 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import chess.board.Board;
+import chess.board.BoardSignature;
+import chess.board.PlacementTrie;
+import chess.metrics.SolverMetrics;
+import chess.piece.Piece;
+
+/**
+ * A random retry of the {@link Executor} and of the {@link SamplerTask}s of the {@link RandomSampler}: the pieces of the pool
+ * are placed one after another on a random slot that is still safe for the piece, until every piece is placed or a piece
+ * has no slot left.<br/>
+ * The pieces placed are followed on a {@link PlacementTrie}, so a retry skips the placements all of whose completions have
+ * already been found at any depth instead of building the whole combination to find out it is a duplicate. The trie may be
+ * shared by several routines.<br/>
+ * The work done is counted by the routine and added to the metrics by {@link #reportMetrics(SolverMetrics)}, and only one
+ * duplicate check out of {@value #DUPLICATE_CHECK_SAMPLE} is timed, so the metrics do not slow down the retries.<br/>
+ * This class is not thread safe, every thread runs its own routine.
+ * @author Willie
+ *
+ */
+class RetryRoutine {
+
+	/**
+	 * Only one duplicate check out of this number is timed, so reading the clock does not slow down the retries
+	 */
+	static final int DUPLICATE_CHECK_SAMPLE=256;
+
+	private PlacementRules rules;
+
+	private PlacementTrie trie;
+
+	private Random random;
+
+	/**
+	 * The board of the running retry, it is cleared at the beginning of every retry
+	 */
+	private Board board;
+
+	/**
+	 * The nodes of the trie of the pieces placed by the running retry
+	 */
+	private PlacementTrie.Node[] path;
+
+	/**
+	 * Number of duplicate checks done by the routine
+	 */
+	private long checks;
+
+	/**
+	 * Number of duplicate checks timed by the routine and their total time
+	 */
+	private long totalTimedChecks;
+
+	private long totalTimedNanos;
+
+	private long nodesVisited;
+
+	private long placementsPruned;
+
+	private long duplicateHits;
+
+	private long duplicateMisses;
+
+	private long timedChecks;
+
+	private long timedNanos;
+
+	/**
+	 * Creates a routine
+	 * @param rules the pool tables of the problem
+	 * @param trie the placements tried and the combinations found
+	 * @param board an empty board of the size of the problem
+	 * @param random chooses the order in which the safe slots are tried
+	 */
+	RetryRoutine(PlacementRules rules, PlacementTrie trie, Board board, Random random)
+	{
+		this.rules=rules;
+		this.trie=trie;
+		this.board=board;
+		this.random=random;
+		path=new PlacementTrie.Node[rules.getPool().size()+1];
+	}
+
+	/**
+	 * Checks whether every combination has been found, so no retry can succeed any more
+	 * @return true if the root of the trie is exhausted
+	 */
+	boolean isExhausted()
+	{
+		return trie.getRoot().isExhausted();
+	}
+
+	/**
+	 * Runs a retry, the combination is left on the board when every piece could be placed and its node of the trie is
+	 * then exhausted, so it is never built again
+	 * @return true if every piece of the pool was placed
+	 */
+	boolean run()
+	{
+		List<Piece> pool=rules.getPool();
+		PlacementTrie.Node child;
+		boolean duplicate;
+		int[] safeSquares;
+		int first;
+		int square;
+		long initNanos;
+		Piece piece;
+		board.clear();
+		path[0]=trie.getRoot();
+		for(int depth=0; depth<pool.size(); depth++)
+		{
+			if(path[depth].isExhausted())
+			{
+				//every completion of the pieces placed has already been found, maybe by another routine in the meantime
+				return false;
+			}
+			if(!rules.canFitRemainingPieces(board))
+			{
+				//the retry can not succeed, the pieces left do not fit in the safe slots
+				placementsPruned++;
+				trie.exhaust(path, depth);
+				return false;
+			}
+			piece=pool.get(depth);
+			//only the slots that are still safe for the piece are tried, in random order
+			safeSquares=board.getSafeSquares(piece.getType());
+			first=rules.getFirstCandidate(board, safeSquares);
+			trie.setCandidates(path, depth, safeSquares.length-first);
+			for(int i=safeSquares.length; i>first; i--)
+			{
+				square=swap(safeSquares, i-1, first+random.nextInt(i-first));
+				nodesVisited++;
+				if(++checks%DUPLICATE_CHECK_SAMPLE==0)
+				{
+					initNanos=System.nanoTime();
+					child=path[depth].getChild(square);
+					duplicate=child!=null && child.isExhausted();
+					timedNanos+=System.nanoTime()-initNanos;
+					timedChecks++;
+				}else{
+					child=path[depth].getChild(square);
+					duplicate=child!=null && child.isExhausted();
+				}
+				if(duplicate)
+				{
+					//every completion of this placement has already been found
+					duplicateHits++;
+				}else{
+					duplicateMisses++;
+					path[depth+1]=path[depth].child(square);
+					board.addPiece(piece, square);
+					break;
+				}
+			}
+			if(board.getNumberOfPieces()==depth)
+			{
+				//no slot left for the piece
+				trie.exhaust(path, depth);
+				return false;
+			}
+		}
+		trie.exhaust(path, pool.size());
+		return true;
+	}
+
+	/**
+	 * Adds to the trie a combination found by other means than the retries, so the retries do not build it again.
+	 * The pieces of the pool take the squares of their type in the signature one after another, since they are placed
+	 * on increasing squares, and the path of the combination is replayed on the board of the routine to set the candidates
+	 * of its nodes
+	 * @param signature the combination, with the pieces of the pool
+	 * @throws RuntimeException in case the combination does not have the pieces of the pool or they are not safe
+	 */
+	void add(BoardSignature signature)
+	{
+		List<Piece> pool=rules.getPool();
+		//the position in the signature after the square taken by every piece of the pool
+		int[] next=new int[pool.size()];
+		int index;
+		int previous;
+		int[] candidates;
+		board.clear();
+		path[0]=trie.getRoot();
+		for(int depth=0; depth<pool.size(); depth++)
+		{
+			previous=rules.getPreviousOfType(depth);
+			index=previous<0 ? 0 : next[previous];
+			while(index<signature.getNumberOfPieces() && signature.getType(index)!=pool.get(depth).getType())
+			{
+				index++;
+			}
+			if(index==signature.getNumberOfPieces())
+			{
+				throw new RuntimeException("The combination " + signature + " does not have the pieces of the pool");
+			}
+			next[depth]=index+1;
+			candidates=rules.getCandidates(board);
+			if(Arrays.binarySearch(candidates, signature.getSquare(index))<0)
+			{
+				throw new RuntimeException("The combination " + signature + " is not a combination of the pool");
+			}
+			trie.setCandidates(path, depth, candidates.length);
+			path[depth+1]=path[depth].child(signature.getSquare(index));
+			board.addPiece(pool.get(depth), signature.getSquare(index));
+		}
+		trie.exhaust(path, pool.size());
+	}
+
+	/**
+	 * Adds the work done since the last report to the metrics
+	 * @param metrics the metrics of the execution
+	 */
+	void reportMetrics(SolverMetrics metrics)
+	{
+		metrics.addNodesVisited(nodesVisited);
+		metrics.addPlacementsPruned(placementsPruned);
+		metrics.addDuplicateChecks(duplicateHits, duplicateMisses);
+		if(timedChecks>0)
+		{
+			metrics.addDuplicateCheckTime(timedChecks, timedNanos);
+			totalTimedChecks+=timedChecks;
+			totalTimedNanos+=timedNanos;
+		}
+		nodesVisited=0;
+		placementsPruned=0;
+		duplicateHits=0;
+		duplicateMisses=0;
+		timedChecks=0;
+		timedNanos=0;
+	}
+
+	/**
+	 * Returns the time taken by all the duplicate checks of the routine reported to the metrics, estimated from the checks timed
+	 * @return the number of nanoseconds
+	 */
+	double getEstimatedDuplicateCheckNanos()
+	{
+		return totalTimedChecks==0 ? 0 : totalTimedNanos*(checks/(double)totalTimedChecks);
+	}
+
+	/**
+	 * Returns the board of the last retry, with the combination found when the retry succeeded
+	 * @return the board
+	 */
+	Board getBoard()
+	{
+		return board;
+	}
+
+	/**
+	 * Swaps two elements of an array
+	 * @param squares the array
+	 * @param i the index of the first element
+	 * @param j the index of the second element
+	 * @return the element moved to the index <code>i</code>
+	 */
+	private static int swap(int[] squares, int i, int j)
+	{
+		int square=squares[j];
+		squares[j]=squares[i];
+		squares[i]=square;
+		return square;
+	}
+}
@@ -0,0 +1,92 @@
+package chess;
+
+import java.util.Random;
+
+import chess.board.Board;
+import chess.board.BoardGeometry;
+import chess.board.PlacementTrie;
+
+/**
+ * Runs a share of the retries of a {@link RandomSampler} with a {@link RetryRoutine}, the same routine as the retries of the
+ * {@link Executor}, and publishes the combination to the sampler when every piece could be placed.<br/>
+ * The routines of all the tasks share the {@link PlacementTrie} of the sampler, so the retries stop when every combination
+ * has been found.<br/>
+ * Every task has its own board, which is cleared between retries, and its own random generator, so the tasks only share
+ * the combinations found and the trie.
+ * @author Willie
+ *
+ */
+public class SamplerTask implements Runnable {
+
+	/**
+	 * Number of retries between two updates of the metrics
+	 */
+	static final int REPORT_INTERVAL=1024;
+
+	private RandomSampler sampler;
+
+	private long retries;
+
+	private Random random;
+
+	/**
+	 * Number of distinct combinations found by this task
+	 */
+	private long successCount;
+
+	/**
+	 * Number of complete combinations found by this task that had already been found
+	 */
+	private long duplicatesCount;
+
+	/**
+	 * Creates a task
+	 * @param sampler the sampler which holds the problem and the combinations found
+	 * @param retries the number of retries of this task
+	 * @param seed the seed of the random generator of this task
+	 */
+	public SamplerTask(RandomSampler sampler, long retries, long seed)
+	{
+		this.sampler=sampler;
+		this.retries=retries;
+		this.random=new Random(seed);
+	}
+
+	@Override
+	public void run() {
+		RetryRoutine routine=new RetryRoutine(sampler.getRules(), sampler.getTrie(),
+				new Board(BoardGeometry.getInstance(sampler.getBoardSize())), random);
+		for(long retry=1; retry<=retries; retry++)
+		{
+			if(routine.isExhausted())
+			{
+				//every combination has been found
+				break;
+			}
+			if(routine.run())
+			{
+				if(sampler.publish(routine.getBoard().getSignature()))
+				{
+					successCount++;
+					sampler.getMetrics().addSolutionsFound(1);
+				}else{
+					//another task found the combination in the meantime
+					duplicatesCount++;
+				}
+			}
+			if(retry%REPORT_INTERVAL==0)
+			{
+				routine.reportMetrics(sampler.getMetrics());
+			}
+		}
+		routine.reportMetrics(sampler.getMetrics());
+	}
+
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	public long getDuplicatesCount() {
+		return duplicatesCount;
+	}
+}
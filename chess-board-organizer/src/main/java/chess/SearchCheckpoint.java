@@ -0,0 +1,183 @@
+package chess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of an exhaustive search at a given moment: the subtrees already searched, the progress of the
+ * subtrees being searched and the counters, plus the length of the execution data file at that moment.
+ * The checkpoint is small (it does not hold any combination) and it is written to a temporary file which is
+ * then renamed, so the checkpoint file is never left half written if the execution is killed.
+ * @author Willie
+ *
+ */
+public class SearchCheckpoint {
+
+	private static final int MAGIC=0x43424F43;
+
+	private static final short VERSION=1;
+
+	/**
+	 * Description of the problem, to make sure the checkpoint is resumed with the same parameters
+	 */
+	private String problem;
+
+	/**
+	 * The length of the execution data file, -1 if the execution is not being saved
+	 */
+	private long outputLength;
+
+	/**
+	 * The subtrees (identified by the square of the first piece) already searched
+	 */
+	private boolean[] completed;
+
+	/**
+	 * The counters of the subtrees already searched
+	 */
+	private SearchCounters completedCounters;
+
+	/**
+	 * The progress of the subtrees being searched
+	 */
+	private List<SubtreeProgress> progress;
+
+	public SearchCheckpoint(String problem, long outputLength, boolean[] completed, SearchCounters completedCounters,
+			List<SubtreeProgress> progress)
+	{
+		this.problem=problem;
+		this.outputLength=outputLength;
+		this.completed=completed;
+		this.completedCounters=completedCounters;
+		this.progress=progress;
+	}
+
+	public String getProblem() {
+		return problem;
+	}
+
+	public long getOutputLength() {
+		return outputLength;
+	}
+
+	public boolean[] getCompleted() {
+		return completed;
+	}
+
+	public SearchCounters getCompletedCounters() {
+		return completedCounters;
+	}
+
+	public List<SubtreeProgress> getProgress() {
+		return Collections.unmodifiableList(progress);
+	}
+
+	/**
+	 * Writes the checkpoint to a temporary file in the same directory and renames it to the path passed as parameter.
+	 * The temporary file is forced to the disk before the rename, so a crash of the system never leaves the new name
+	 * on a file whose contents were not stored
+	 * @param path the path including the filename of the checkpoint
+	 * @throws IOException in case the checkpoint cannot be written
+	 */
+	public void write(String path) throws IOException
+	{
+		File target=new File(path).getAbsoluteFile();
+		File temporary=new File(target.getParentFile(), target.getName() + ".tmp");
+		FileOutputStream file=new FileOutputStream(temporary);
+		DataOutputStream out=new DataOutputStream(new BufferedOutputStream(file));
+		try {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeUTF(problem);
+			out.writeLong(outputLength);
+			out.writeInt(completed.length);
+			for(boolean value: completed)
+			{
+				out.writeBoolean(value);
+			}
+			writeCounters(out, completedCounters);
+			out.writeInt(progress.size());
+			for(SubtreeProgress subtree: progress)
+			{
+				out.writeInt(subtree.getFirstSquare());
+				out.writeInt(subtree.getDepth());
+				for(int depth=0; depth<=subtree.getDepth(); depth++)
+				{
+					out.writeInt(subtree.getSquare(depth));
+				}
+				writeCounters(out, subtree.getCounters());
+			}
+			out.flush();
+			file.getChannel().force(true);
+		} finally {
+			out.close();
+		}
+		Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint
+	 * @param path the path including the filename of the checkpoint
+	 * @return the checkpoint
+	 * @throws IOException in case the checkpoint cannot be read
+	 */
+	public static SearchCheckpoint read(String path) throws IOException
+	{
+		DataInputStream in=new DataInputStream(new BufferedInputStream(new FileInputStream(path)));
+		try {
+			if(in.readInt()!=MAGIC || in.readShort()!=VERSION)
+			{
+				throw new IOException(path + " is not a checkpoint file");
+			}
+			String problem=in.readUTF();
+			long outputLength=in.readLong();
+			boolean[] completed=new boolean[in.readInt()];
+			for(int i=0; i<completed.length; i++)
+			{
+				completed[i]=in.readBoolean();
+			}
+			SearchCounters completedCounters=readCounters(in);
+			int size=in.readInt();
+			List<SubtreeProgress> progress=new ArrayList<SubtreeProgress>();
+			int firstSquare, depth;
+			int[] positions;
+			for(int i=0; i<size; i++)
+			{
+				firstSquare=in.readInt();
+				depth=in.readInt();
+				positions=new int[depth+1];
+				for(int j=0; j<=depth; j++)
+				{
+					positions[j]=in.readInt();
+				}
+				progress.add(new SubtreeProgress(firstSquare, positions, depth, positions[depth], readCounters(in)));
+			}
+			return new SearchCheckpoint(problem, outputLength, completed, completedCounters, progress);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void writeCounters(DataOutputStream out, SearchCounters counters) throws IOException
+	{
+		out.writeLong(counters.getSuccessCount());
+		out.writeLong(counters.getSymmetryClassesCount());
+		out.writeLong(counters.getVisitedNodes());
+	}
+
+	private static SearchCounters readCounters(DataInputStream in) throws IOException
+	{
+		return new SearchCounters(in.readLong(), in.readLong(), in.readLong());
+	}
+}
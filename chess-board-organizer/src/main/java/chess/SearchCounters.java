@@ -0,0 +1,81 @@
+package chess;
+
+/**
+ * The counters of a search over a subtree of placements. Every worker keeps its own counters
+ * and they are added together when the subtrees are joined, so the search does not share
+ * any counter between threads.
+ * @author Willie
+ *
+ */
+public class SearchCounters {
+
+	/**
+	 * Number of distinct combinations found
+	 */
+	private long successCount;
+
+	/**
+	 * Number of combinations found that are the representative of their symmetry class
+	 */
+	private long symmetryClassesCount;
+
+	/**
+	 * Number of positions tried
+	 */
+	private long visitedNodes;
+
+	public SearchCounters()
+	{
+	}
+
+	public SearchCounters(long successCount, long symmetryClassesCount, long visitedNodes)
+	{
+		this.successCount=successCount;
+		this.symmetryClassesCount=symmetryClassesCount;
+		this.visitedNodes=visitedNodes;
+	}
+
+	/**
+	 * Creates a copy of the counters
+	 * @param counters the counters to be copied
+	 */
+	public SearchCounters(SearchCounters counters)
+	{
+		this(counters.successCount, counters.symmetryClassesCount, counters.visitedNodes);
+	}
+
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	public long getSymmetryClassesCount() {
+		return symmetryClassesCount;
+	}
+
+	public long getVisitedNodes() {
+		return visitedNodes;
+	}
+
+	public void incrementSuccessCount() {
+		successCount++;
+	}
+
+	public void incrementSymmetryClassesCount() {
+		symmetryClassesCount++;
+	}
+
+	public void incrementVisitedNodes() {
+		visitedNodes++;
+	}
+
+	/**
+	 * Adds the counters of another search to these counters
+	 * @param counters the counters to be added
+	 */
+	public void add(SearchCounters counters)
+	{
+		successCount+=counters.successCount;
+		symmetryClassesCount+=counters.symmetryClassesCount;
+		visitedNodes+=counters.visitedNodes;
+	}
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import chess.piece.AttackTable;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.piece.PieceType;
+
+/**
+ * The ordering strategies available from the command line:
+ * <ul>
+ * <li><code>natural</code>: the pieces in the order of the parameters (kings, queens, bishops, knights, rooks) and the
+ * squares from the slot <code>(1,1)</code> to the slot <code>(m,n)</code>
+ * <li><code>footprint</code>: the pieces that threaten the largest number of slots on average first, so the branches
+ * that cannot be completed are abandoned closer to the root; the squares in natural order
+ * <li><code>least-constraining</code>: the pieces as <code>footprint</code> and every piece tries first the squares where it
+ * threatens the fewest slots, which are the choices that leave the most safe squares to the rest of the pieces
+ * </ul>
+ * The square order is calculated once per piece type on the empty board, so trying the squares in that order
+ * costs the same as the natural order.
+ * @author Willie
+ *
+ */
+public enum SearchOrdering implements OrderingStrategy {
+
+	NATURAL("natural"),
+	FOOTPRINT("footprint"),
+	LEAST_CONSTRAINING("least-constraining");
+
+	private String name;
+
+	private SearchOrdering(String name)
+	{
+		this.name=name;
+	}
+
+	/**
+	 * Returns the strategy with the name passed as parameter
+	 * @param name the name of the strategy as accepted in the command line
+	 * @return the strategy
+	 * @throws RuntimeException in case there is no strategy with that name
+	 */
+	public static SearchOrdering fromName(String name)
+	{
+		for(SearchOrdering ordering: values())
+		{
+			if(ordering.name.equalsIgnoreCase(name))
+			{
+				return ordering;
+			}
+		}
+		throw new RuntimeException("Unknown ordering strategy " + name);
+	}
+
+	@Override
+	public List<Piece> orderPool(List<Piece> pool, final Coordinate boardSize)
+	{
+		List<Piece> ordered=new ArrayList<Piece>(pool);
+		if(this==NATURAL)
+		{
+			return ordered;
+		}
+		//a stable sort by type keeps the pieces of the same type together
+		Collections.sort(ordered, new Comparator<Piece>() {
+			@Override
+			public int compare(Piece first, Piece second) {
+				int footprint=Long.compare(getFootprint(second.getType(), boardSize), getFootprint(first.getType(), boardSize));
+				return footprint!=0?footprint:first.getType().compareTo(second.getType());
+			}
+		});
+		return ordered;
+	}
+
+	@Override
+	public int[] orderSquares(final AttackTable attackTable, Coordinate boardSize)
+	{
+		int squares=boardSize.getX()*boardSize.getY();
+		Integer[] order=new Integer[squares];
+		for(int square=0; square<squares; square++)
+		{
+			order[square]=square;
+		}
+		if(this==LEAST_CONSTRAINING)
+		{
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer first, Integer second) {
+					int attacked=Integer.compare(attackTable.getAttackCount(first), attackTable.getAttackCount(second));
+					return attacked!=0?attacked:first.compareTo(second);
+				}
+			});
+		}
+		int[] result=new int[squares];
+		for(int i=0; i<squares; i++)
+		{
+			result[i]=order[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of slots threatened by a piece from every square of the board
+	 * @param type the type of piece
+	 * @param boardSize the size of the chess board
+	 * @return the sum of the slots threatened from every square
+	 */
+	private static long getFootprint(PieceType type, Coordinate boardSize)
+	{
+		AttackTable attackTable=AttackTable.getInstance(type, boardSize);
+		long footprint=0;
+		for(int square=0; square<boardSize.getX()*boardSize.getY(); square++)
+		{
+			footprint+=attackTable.getAttackCount(square);
+		}
+		return footprint;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+}
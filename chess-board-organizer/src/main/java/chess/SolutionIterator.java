@@ -0,0 +1,191 @@
+package chess;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import chess.board.Board;
+import chess.board.BoardSignature;
+
+/**
+ * Searches the combinations of {@link Solutions} one at a time: the iterator keeps the pieces placed on a board and the
+ * squares left to try for every piece, and every call to {@link #next()} goes on with the search from where the previous
+ * call stopped until the next combination.<br/>
+ * This class is not thread safe.
+ * @author Willie
+ *
+ */
+public class SolutionIterator implements Iterator<BoardSignature> {
+
+	private Solutions solutions;
+
+	private PlacementRules rules;
+
+	private Board board;
+
+	/**
+	 * The squares to try for every piece placed or being placed
+	 */
+	private int[][] candidates;
+
+	/**
+	 * The position in <code>candidates</code> of the next square to try for every piece
+	 */
+	private int[] next;
+
+	/**
+	 * The combination found by {@link #hasNext()} and not returned yet
+	 */
+	private BoardSignature pending;
+
+	/**
+	 * Number of combinations that can still be returned
+	 */
+	private long remaining;
+
+	private boolean finished;
+
+	/**
+	 * Creates an iterator positioned before the first combination
+	 * @param solutions the combinations
+	 * @param board an empty board of the size of the problem
+	 */
+	SolutionIterator(Solutions solutions, Board board)
+	{
+		this.solutions=solutions;
+		this.rules=solutions.getRules();
+		this.board=board;
+		this.remaining=Long.MAX_VALUE;
+		int pieces=solutions.getPool().size();
+		candidates=new int[pieces+1][];
+		next=new int[pieces+1];
+		if(pieces==0 || !rules.canFitRemainingPieces(board))
+		{
+			//an empty pool has no combinations, as for the exhaustive search
+			candidates[0]=new int[0];
+			finished=true;
+		}else{
+			candidates[0]=rules.getCandidates(board);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(pending==null && remaining>0 && !finished)
+		{
+			pending=advance();
+		}
+		return pending!=null;
+	}
+
+	@Override
+	public BoardSignature next() {
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		BoardSignature solution=pending;
+		pending=null;
+		remaining--;
+		return solution;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("The combinations can not be removed");
+	}
+
+	/**
+	 * Skips combinations without building them, the branches whose whole number of combinations can be skipped are not searched
+	 * when their count is known, see {@link Solutions}
+	 * @param n the number of combinations to skip
+	 * @return the number of combinations skipped, lower than <code>n</code> when there were not enough combinations
+	 */
+	public long skip(long n)
+	{
+		long skipped=0;
+		if(pending!=null && n>0)
+		{
+			pending=null;
+			skipped++;
+		}
+		int pieces=solutions.getPool().size();
+		int depth;
+		long count;
+		while(skipped<n && !finished)
+		{
+			depth=board.getNumberOfPieces();
+			if(depth==pieces)
+			{
+				//the last combination returned
+				board.removeLastPiece();
+			}else if(next[depth]<candidates[depth].length)
+			{
+				board.addPiece(solutions.getPool().get(depth), candidates[depth][next[depth]++]);
+				count=solutions.count(board);
+				if(skipped+count<=n)
+				{
+					skipped+=count;
+					board.removeLastPiece();
+				}else{
+					//the combination to stop at is in this branch, which has more than one combination
+					candidates[depth+1]=rules.getCandidates(board);
+					next[depth+1]=0;
+				}
+			}else if(depth==0)
+			{
+				finished=true;
+			}else{
+				board.removeLastPiece();
+			}
+		}
+		remaining=Math.max(0, remaining-skipped);
+		return skipped;
+	}
+
+	/**
+	 * Sets the number of combinations that can still be returned
+	 * @param remaining the number of combinations
+	 */
+	void setRemaining(long remaining) {
+		this.remaining = remaining;
+	}
+
+	/**
+	 * Goes on with the search until the next combination
+	 * @return the combination, null when there are no more combinations
+	 */
+	private BoardSignature advance()
+	{
+		int pieces=solutions.getPool().size();
+		int depth;
+		while(true)
+		{
+			depth=board.getNumberOfPieces();
+			if(depth==pieces)
+			{
+				//the last combination returned
+				board.removeLastPiece();
+			}else if(next[depth]<candidates[depth].length)
+			{
+				board.addPiece(solutions.getPool().get(depth), candidates[depth][next[depth]++]);
+				if(depth+1==pieces)
+				{
+					return board.getSignature();
+				}
+				if(rules.canFitRemainingPieces(board))
+				{
+					candidates[depth+1]=rules.getCandidates(board);
+					next[depth+1]=0;
+				}else{
+					board.removeLastPiece();
+				}
+			}else if(depth==0)
+			{
+				finished=true;
+				return null;
+			}else{
+				board.removeLastPiece();
+			}
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package chess;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import chess.board.Board;
+import chess.board.BoardGeometry;
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * The combinations of a problem as a lazy {@link Iterable}, for the services that embed the solver and need a page of
+ * combinations instead of a whole execution: nothing is searched until a combination is requested, and every call to
+ * {@link Iterator#next()} searches only up to the next combination. Nothing is logged and only the path to the current
+ * combination is kept in memory.<br/>
+ * The combinations are returned in a fixed order: the pieces of the pool are placed in order on their safe squares,
+ * the pieces of the same type on increasing squares, so every combination is returned once. As for the {@link ExhaustiveExecutor}
+ * an empty pool has no combinations.<br/>
+ * {@link #skip(long)} and {@link #limit(long)} return views of the combinations, so a page is
+ * <code>solutions.skip(page*size).limit(size)</code>. Skipping does not build the combinations skipped, and the number of
+ * combinations below the placements of the first {@value #COUNTED_DEPTH} pieces is counted once and shared by every view and
+ * iterator, so the later pages skip whole branches at once.<br/>
+ * The views can be used by several threads, every iterator must be used by a single thread.
+ * @author Willie
+ *
+ */
+public class Solutions implements Iterable<BoardSignature> {
+
+	/**
+	 * Number of pieces placed of the branches whose number of combinations is kept
+	 */
+	static final int COUNTED_DEPTH=2;
+
+	private BoardGeometry geometry;
+
+	private List<Piece> pool;
+
+	/**
+	 * The tables of the pool shared by every view, see {@link PlacementRules}
+	 */
+	private PlacementRules rules;
+
+	/**
+	 * The number of combinations of the branches counted, keyed by the pieces placed, which identify the branch
+	 * since the pieces of a type are placed on increasing squares
+	 */
+	private ConcurrentMap<BoardSignature, Long> counts;
+
+	/**
+	 * Number of combinations skipped by this view
+	 */
+	private long skip;
+
+	/**
+	 * Maximum number of combinations of this view
+	 */
+	private long limit=Long.MAX_VALUE;
+
+	/**
+	 * Creates the combinations of a problem
+	 * @param problem the board size and pieces
+	 */
+	public Solutions(Problem problem)
+	{
+		this(problem.getBoardSize(), problem.getPool());
+	}
+
+	/**
+	 * Creates the combinations of a problem
+	 * @param boardSize the size of the chess board <code>(m x n-->(m,n))</code>
+	 * @param pool the pieces to be placed on the board
+	 */
+	public Solutions(Coordinate boardSize, List<Piece> pool)
+	{
+		geometry=BoardGeometry.getInstance(boardSize);
+		this.pool=pool;
+		rules=new PlacementRules(boardSize, pool);
+		counts=new ConcurrentHashMap<BoardSignature, Long>();
+	}
+
+	/**
+	 * Creates a view of the same combinations
+	 * @param solutions the combinations
+	 * @param skip the number of combinations skipped by the view
+	 * @param limit the maximum number of combinations of the view
+	 */
+	private Solutions(Solutions solutions, long skip, long limit)
+	{
+		geometry=solutions.geometry;
+		pool=solutions.pool;
+		rules=solutions.rules;
+		counts=solutions.counts;
+		this.skip=skip;
+		this.limit=limit;
+	}
+
+	/**
+	 * Returns a view without the first combinations of this one
+	 * @param n the number of combinations to skip
+	 * @return the view
+	 */
+	public Solutions skip(long n)
+	{
+		if(n<0)
+		{
+			throw new RuntimeException("Incorrect number of combinations to skip " + n);
+		}
+		//the sum is bounded so a big skip does not overflow
+		return new Solutions(this, n>Long.MAX_VALUE-skip ? Long.MAX_VALUE : skip+n, Math.max(0, limit-n));
+	}
+
+	/**
+	 * Returns a view with the first combinations of this one
+	 * @param n the maximum number of combinations
+	 * @return the view
+	 */
+	public Solutions limit(long n)
+	{
+		if(n<0)
+		{
+			throw new RuntimeException("Incorrect limit " + n);
+		}
+		return new Solutions(this, skip, Math.min(limit, n));
+	}
+
+	/**
+	 * Returns an iterator that searches the combinations of this view as they are requested
+	 */
+	@Override
+	public SolutionIterator iterator() {
+		SolutionIterator iterator=new SolutionIterator(this, new Board(geometry));
+		iterator.skip(skip);
+		//the limit of the view counts from the first combination not skipped
+		iterator.setRemaining(limit);
+		return iterator;
+	}
+
+	/**
+	 * Counts the combinations of this view, without building them
+	 * @return the number of combinations
+	 */
+	public long count()
+	{
+		long total=pool.isEmpty() ? 0 : count(new Board(geometry));
+		return Math.min(limit, Math.max(0, total-skip));
+	}
+
+	/**
+	 * Counts the combinations of the branch of the pieces placed on a board, the count of the branches of up to
+	 * {@value #COUNTED_DEPTH} pieces is kept
+	 * @param board the board with the first pieces of the pool, it is restored before returning
+	 * @return the number of combinations
+	 */
+	long count(Board board)
+	{
+		int depth=board.getNumberOfPieces();
+		if(depth==pool.size())
+		{
+			return 1;
+		}
+		BoardSignature key=null;
+		if(depth<=COUNTED_DEPTH)
+		{
+			key=board.getSignature();
+			Long count=counts.get(key);
+			if(count!=null)
+			{
+				return count;
+			}
+		}
+		long count=0;
+		if(rules.canFitRemainingPieces(board))
+		{
+			int[] candidates=rules.getCandidates(board);
+			for(int square: candidates)
+			{
+				board.addPiece(pool.get(depth), square);
+				count+=count(board);
+				board.removeLastPiece();
+			}
+		}
+		if(key!=null)
+		{
+			counts.put(key, count);
+		}
+		return count;
+	}
+
+	PlacementRules getRules() {
+		return rules;
+	}
+
+	List<Piece> getPool() {
+		return pool;
+	}
+}
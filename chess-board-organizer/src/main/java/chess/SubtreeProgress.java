@@ -0,0 +1,72 @@
+package chess;
+
+/**
+ * The progress of the search of a subtree: every placement that comes before the resume path
+ * (in the order the search visits them) has already been searched and its combinations counted in the counters.
+ * Instances of this class are immutable.
+ * @author Willie
+ *
+ */
+public class SubtreeProgress {
+
+	/**
+	 * The square of the first piece of the pool, which identifies the subtree
+	 */
+	private final int firstSquare;
+
+	/**
+	 * The squares of the pieces of the pool in the branch being searched, the last value is the position
+	 * in the square order (see {@link OrderingStrategy}) of the next square to be tried for the piece at
+	 * position <code>path.length-1</code> of the pool
+	 */
+	private final int[] path;
+
+	private final SearchCounters counters;
+
+	/**
+	 * Creates the progress of a subtree
+	 * @param firstSquare the square of the first piece of the pool
+	 * @param positions the squares of the pieces of the pool, only the first <code>depth</code> are used
+	 * @param depth the position in the pool of the piece being placed
+	 * @param nextSquare the position in the square order of the next square to be tried for that piece
+	 * @param counters the counters of the subtree up to this point, they are copied
+	 */
+	public SubtreeProgress(int firstSquare, int[] positions, int depth, int nextSquare, SearchCounters counters)
+	{
+		this.firstSquare=firstSquare;
+		this.path=new int[depth+1];
+		System.arraycopy(positions, 0, path, 0, depth);
+		this.path[depth]=nextSquare;
+		this.counters=new SearchCounters(counters);
+	}
+
+	public int getFirstSquare() {
+		return firstSquare;
+	}
+
+	/**
+	 * Returns the position in the pool of the piece being placed
+	 * @return the depth of the search
+	 */
+	public int getDepth() {
+		return path.length-1;
+	}
+
+	/**
+	 * Returns the square of a piece of the branch, or the position in the square order of the next square to be tried
+	 * for the piece at {@link #getDepth()}
+	 * @param depth the position of the piece in the pool
+	 * @return the square
+	 */
+	public int getSquare(int depth) {
+		return path[depth];
+	}
+
+	/**
+	 * Returns a copy of the counters
+	 * @return the counters of the subtree up to the resume path
+	 */
+	public SearchCounters getCounters() {
+		return new SearchCounters(counters);
+	}
+}
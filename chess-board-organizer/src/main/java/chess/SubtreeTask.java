@@ -0,0 +1,497 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import chess.board.BitBoard;
+import chess.board.BoardGeometry;
+import chess.board.BoardSignature;
+import chess.board.Symmetry;
+import chess.board.Zobrist;
+import chess.metrics.SolverMetrics;
+
+/**
+ * Searches the combinations of a subtree of placements: the subtree where the first piece of the pool is placed
+ * on a given square. The root task forks one task per square of the board so the subtrees are run in parallel
+ * by the workers of a ForkJoinPool.<br/>
+ * Every task holds its own board state and counters and buffers the combinations it finds. From time to time
+ * the task publishes its progress to the {@link ExhaustiveExecutor} together with the buffered combinations, so
+ * a checkpoint of the search can be taken at any moment and the task can be resumed from its last
+ * {@link SubtreeProgress}.<br/>
+ * Pieces of the same type are consecutive in the pool and they are interchangeable, so a piece is only tried on the squares
+ * after the square of the previous piece of the same type: every combination is generated exactly once, in a single order,
+ * without checking it against the combinations already found and without sharing any state between tasks.<br/>
+ * A task may also search a {@link WorkUnit} handed by the {@link ClusterCoordinator}, in which case the progress is notified
+ * to a {@link WorkUnitListener} instead of the executor and the task can give away part of its remaining work, see {@link #split()}.
+ * @author Willie
+ *
+ */
+public class SubtreeTask extends RecursiveTask<SearchCounters> {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 3386521574328640275L;
+
+	/**
+	 * Used to indicate that the task is the root of the search tree
+	 */
+	public static final int ROOT=-1;
+
+	/**
+	 * Number of positions tried between two publications of the progress of the task
+	 */
+	public static final int PUBLISH_INTERVAL=1<<16;
+
+	/**
+	 * Maximum number of combinations buffered by the task before publishing its progress
+	 */
+	static final int BUFFER_SIZE=1024;
+
+	private ExhaustiveExecutor executor;
+
+	/**
+	 * The square of the first piece of the pool or {@link #ROOT}
+	 */
+	private int firstSquare;
+
+	/**
+	 * The progress to resume the task from, null if the task starts from the beginning of the subtree
+	 */
+	private SubtreeProgress resumeFrom;
+
+	/**
+	 * The unit searched by the task, null if the task searches the subtree of {@link #firstSquare}
+	 */
+	private WorkUnit unit;
+
+	/**
+	 * Receives the progress of the unit searched by the task
+	 */
+	private WorkUnitListener listener;
+
+	/**
+	 * The square of every piece of the pool in the branch being explored
+	 */
+	private int[] positions;
+
+	/**
+	 * The position of every square of {@link #positions} in the order the piece tries the squares
+	 */
+	private int[] ranks;
+
+	/**
+	 * The position in the square order after the last square to be tried by every piece of the pool, lowered when the task is split
+	 */
+	private int[] limits;
+
+	/**
+	 * The position in the pool of the piece being placed and the position in its square order of the square being tried
+	 * at the last publication, the task can only be split while it notifies its progress
+	 */
+	private int publishedDepth;
+
+	private int publishedRank;
+
+	/**
+	 * The state of the board in the branch being explored: a piece is placed before exploring its subtree
+	 * and removed from the undo stack of the board afterwards, so the task never copies the board
+	 */
+	private BitBoard bitBoard;
+
+	/**
+	 * The Zobrist hash of the combination at every level of the search
+	 */
+	private long[] hashes;
+
+	/**
+	 * The geometry of the board, to check the symmetries of the combinations found
+	 */
+	private BoardGeometry geometry;
+
+	private SearchCounters counters;
+
+	/**
+	 * The combinations found since the last publication of the progress
+	 */
+	private List<BoardSignature> solutions;
+
+	/**
+	 * Number of positions to be tried before the next publication of the progress
+	 */
+	private int publishCountdown;
+
+	/**
+	 * Placements discarded since the last publication because the piece would be threatened or would threaten another piece
+	 */
+	private long placementsPruned;
+
+	/**
+	 * The counters reported to the metrics at the last publication
+	 */
+	private SearchCounters reportedCounters;
+
+	/**
+	 * Creates the task to search the subtree where the first piece of the pool is placed on a square 
+	 * @param executor the executor which holds the problem and the combinations found
+	 * @param firstSquare the square of the first piece or {@link #ROOT} to search the whole tree
+	 */
+	public SubtreeTask(ExhaustiveExecutor executor, int firstSquare)
+	{
+		this.executor=executor;
+		this.firstSquare=firstSquare;
+	}
+
+	/**
+	 * Creates the task to search the rest of a subtree
+	 * @param executor the executor which holds the problem and the combinations found
+	 * @param resumeFrom the progress of the subtree taken from a checkpoint
+	 */
+	public SubtreeTask(ExhaustiveExecutor executor, SubtreeProgress resumeFrom)
+	{
+		this(executor, resumeFrom.getFirstSquare());
+		this.resumeFrom=resumeFrom;
+	}
+
+	/**
+	 * Creates the task to search a work unit
+	 * @param executor the executor which holds the problem, its search is prepared but not started
+	 * @param unit the unit to be searched
+	 * @param listener receives the combinations found and the counters of the unit
+	 */
+	public SubtreeTask(ExhaustiveExecutor executor, WorkUnit unit, WorkUnitListener listener)
+	{
+		this(executor, unit.getDepth()>0 ? unit.getSquare(0) : ROOT);
+		this.unit=unit;
+		this.listener=listener;
+	}
+
+	@Override
+	protected SearchCounters compute() {
+		counters=new SearchCounters();
+		if(executor.getNumberOfPieces()==0)
+		{
+			return counters;
+		}
+		if(unit==null && firstSquare==ROOT)
+		{
+			List<SubtreeTask> tasks=new ArrayList<SubtreeTask>();
+			SubtreeProgress progress;
+			for(int square: executor.getSquareOrder(0))
+			{
+				if(executor.isSubtreeCompleted(square) || !executor.isInShard(square))
+				{
+					continue;
+				}
+				progress=executor.getSubtreeProgress(square);
+				tasks.add(progress==null?new SubtreeTask(executor, square):new SubtreeTask(executor, progress));
+			}
+			for(SubtreeTask task: invokeAll(tasks))
+			{
+				counters.add(task.getRawResult());
+			}
+			return counters;
+		}
+		int pieces=executor.getNumberOfPieces();
+		positions=new int[pieces];
+		ranks=new int[pieces];
+		bitBoard=new BitBoard(executor.getBoardSize().getX(), executor.getBoardSize().getY(), executor.getNumberOfTypes());
+		hashes=new long[pieces+1];
+		geometry=BoardGeometry.getInstance(executor.getBoardSize());
+		solutions=new ArrayList<BoardSignature>();
+		publishCountdown=PUBLISH_INTERVAL;
+		limits=new int[pieces];
+		Arrays.fill(limits, executor.getNumberOfSquares());
+		if(unit!=null)
+		{
+			searchUnit();
+			return counters;
+		}
+		place(0, firstSquare, executor.getSquareRank(0, firstSquare));
+		if(resumeFrom==null)
+		{
+			reportedCounters=new SearchCounters();
+			//the first piece is always placed on an empty board
+			counters.incrementVisitedNodes();
+			if(canComplete(1))
+			{
+				search(1, getFirstCandidate(1));
+			}else{
+				placementsPruned++;
+			}
+		}else{
+			//rebuild the branch of the checkpoint and finish every level from the deepest one
+			counters=resumeFrom.getCounters();
+			reportedCounters=resumeFrom.getCounters();
+			int depth=resumeFrom.getDepth();
+			int square;
+			for(int i=1; i<depth; i++)
+			{
+				square=resumeFrom.getSquare(i);
+				place(i, square, executor.getSquareRank(i, square));
+			}
+			search(depth, resumeFrom.getSquare(depth));
+			for(int i=depth-1; i>0; i--)
+			{
+				bitBoard.pop();
+				search(i, ranks[i]+1);
+			}
+		}
+		reportMetrics();
+		executor.completeSubtree(firstSquare, counters, solutions);
+		return counters;
+	}
+
+	/**
+	 * Places the pieces of the prefix of the unit and tries the range of squares of the unit for the next piece.
+	 * The pieces of the prefix were counted by the search that created the unit
+	 */
+	private void searchUnit()
+	{
+		reportedCounters=new SearchCounters();
+		int depth=unit.getDepth();
+		int square;
+		for(int i=0; i<depth; i++)
+		{
+			square=unit.getSquare(i);
+			place(i, square, executor.getSquareRank(i, square));
+		}
+		limits[depth]=unit.getTo();
+		search(depth, unit.getFrom());
+		reportMetrics();
+		listener.complete(this, counters, solutions);
+	}
+
+	/**
+	 * Gives away part of the work left to the task: the last half of the squares left to the piece closest to the root of
+	 * the unit that still has squares to be tried. The shallowest level is chosen because its subtrees are the largest.<br/>
+	 * This method can only be called by the {@link WorkUnitListener} while it is notified of the progress of the task
+	 * @return the unit with the work given away, which is no longer searched by this task, null if there is nothing left to give away
+	 */
+	public WorkUnit split()
+	{
+		int next;
+		WorkUnit part;
+		for(int depth=unit.getDepth(); depth<=publishedDepth; depth++)
+		{
+			//the square being tried at every level is searched by this task
+			next=(depth==publishedDepth ? publishedRank : ranks[depth])+1;
+			if(next<limits[depth])
+			{
+				part=new WorkUnit(Arrays.copyOf(positions, depth), next+(limits[depth]-next)/2, limits[depth]);
+				limits[depth]=part.getFrom();
+				return part;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the work left to the task at its last notification, after the splits: for every level of the branch from the
+	 * piece being placed up to the first piece of the unit, the squares after the square being tried at that level. The
+	 * combinations and counters published so far cover exactly the rest of the unit, so a unit whose search stops can be
+	 * completed by searching these units.<br/>
+	 * This method can only be called by the {@link WorkUnitListener} while it is notified of the progress of the task
+	 * @return the units left, without the empty ones
+	 */
+	public List<WorkUnit> getRemainingUnits()
+	{
+		List<WorkUnit> remaining=new ArrayList<WorkUnit>();
+		int from;
+		for(int depth=publishedDepth; depth>=unit.getDepth(); depth--)
+		{
+			//the square of the notification has not been tried yet
+			from=depth==publishedDepth ? publishedRank : ranks[depth]+1;
+			if(from<limits[depth])
+			{
+				remaining.add(new WorkUnit(Arrays.copyOf(positions, depth), from, limits[depth]));
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * Returns the counters of the task so far
+	 * @return a copy of the counters
+	 */
+	public SearchCounters getCounters()
+	{
+		return new SearchCounters(counters);
+	}
+
+	/**
+	 * Returns the position in the square order of the first square where the piece of the pool at position <code>depth</code>
+	 * may be placed: the square after the previous piece when both pieces are of the same type (they share the same order),
+	 * so the same pieces are never placed in a different order
+	 * @param depth the position in the pool of the piece to be placed
+	 * @return the position of the first square to be tried
+	 */
+	private int getFirstCandidate(int depth)
+	{
+		if(depth<positions.length && executor.getType(depth)==executor.getType(depth-1))
+		{
+			return ranks[depth-1]+1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Places the piece of the pool at position <code>depth</code> on every square that is still safe for its type, and
+	 * continues with the next piece of the pool unless the remaining pieces cannot fit on the board
+	 * @param depth the position in the pool of the piece to be placed
+	 * @param from the position in the square order of the first square to be tried
+	 */
+	private void search(int depth, int from)
+	{
+		if(depth==positions.length)
+		{
+			addCombination();
+			return;
+		}
+		int type=executor.getTypeIndex(depth);
+		if(executor.isNaturalSquareOrder(depth))
+		{
+			//the position of a square in the natural order is the square itself
+			long[] safe=bitBoard.getSafeSquares(type);
+			for(int square=BitBoard.nextSetBit(safe, from); square>=0 && square<limits[depth]; square=BitBoard.nextSetBit(safe, square+1))
+			{
+				if(--publishCountdown<=0)
+				{
+					publish(depth, square);
+				}
+				tryPlacement(depth, square, square);
+			}
+		}else{
+			int[] order=executor.getSquareOrder(depth);
+			for(int rank=from; rank<limits[depth]; rank++)
+			{
+				if(--publishCountdown<=0)
+				{
+					publish(depth, rank);
+				}
+				if(bitBoard.isSafe(order[rank], type))
+				{
+					tryPlacement(depth, order[rank], rank);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Places the piece of the pool at position <code>depth</code> on a safe square and continues with the next piece
+	 * @param depth the position in the pool of the piece to be placed
+	 * @param square the square of the piece
+	 * @param rank the position of the square in the order the piece tries the squares
+	 */
+	private void tryPlacement(int depth, int square, int rank)
+	{
+		counters.incrementVisitedNodes();
+		place(depth, square, rank);
+		if(canComplete(depth+1))
+		{
+			if(depth+1<limits.length)
+			{
+				limits[depth+1]=executor.getNumberOfSquares();
+			}
+			search(depth+1, getFirstCandidate(depth+1));
+		}else{
+			placementsPruned++;
+		}
+		bitBoard.pop();
+	}
+
+	/**
+	 * Checks whether the remaining pieces may still fit on the board once the first <code>depth</code> pieces are placed:
+	 * every type must have at least as many safe squares as pieces left, and the rooks and queens left need a different
+	 * horizontal and vertical line each with a safe square for them
+	 * @param depth the number of pieces placed
+	 * @return false if the branch cannot lead to any combination
+	 */
+	private boolean canComplete(int depth)
+	{
+		if(depth==positions.length)
+		{
+			return true;
+		}
+		int[] remaining=executor.getRemainingPieces(depth);
+		for(int type=0; type<remaining.length; type++)
+		{
+			if(remaining[type]>0 && bitBoard.countSafeSquares(type)<remaining[type])
+			{
+				return false;
+			}
+		}
+		int linePieces=executor.getRemainingLinePieces(depth);
+		return linePieces<2 || (PlacementRules.countLines(bitBoard, executor.getLineTypes(), executor.getRows())>=linePieces
+				&& PlacementRules.countLines(bitBoard, executor.getLineTypes(), executor.getColumns())>=linePieces);
+	}
+
+	/**
+	 * Places the piece of the pool at position <code>depth</code> on the square, the placement is undone
+	 * with {@link BitBoard#pop()} once its subtree has been explored
+	 * @param depth the position in the pool of the piece to be placed
+	 * @param square the square of the piece
+	 * @param rank the position of the square in the order the piece tries the squares
+	 */
+	private void place(int depth, int square, int rank)
+	{
+		positions[depth]=square;
+		ranks[depth]=rank;
+		bitBoard.push(square, executor.getTypeIndex(depth), executor.getSquareMasks(square));
+		hashes[depth+1]=hashes[depth] ^ Zobrist.getKey(executor.getType(depth), square);
+	}
+
+	/**
+	 * Publishes the progress of the task and the combinations found since the last publication
+	 * @param depth the position in the pool of the piece being placed
+	 * @param rank the position in the square order of the next square to be tried for that piece
+	 */
+	private void publish(int depth, int rank)
+	{
+		reportMetrics();
+		if(unit!=null)
+		{
+			publishedDepth=depth;
+			publishedRank=rank;
+			listener.publish(this, solutions);
+		}else{
+			executor.publishProgress(new SubtreeProgress(firstSquare, positions, depth, rank, counters), solutions);
+		}
+		solutions.clear();
+		publishCountdown=PUBLISH_INTERVAL;
+	}
+
+	/**
+	 * Adds the work done since the last publication to the metrics of the executor
+	 */
+	private void reportMetrics()
+	{
+		SolverMetrics metrics=executor.getMetrics();
+		long solutionsFound=counters.getSuccessCount()-reportedCounters.getSuccessCount();
+		metrics.addNodesVisited(counters.getVisitedNodes()-reportedCounters.getVisitedNodes());
+		metrics.addPlacementsPruned(placementsPruned);
+		metrics.addSolutionsFound(solutionsFound);
+		reportedCounters=new SearchCounters(counters);
+		placementsPruned=0;
+	}
+
+	/**
+	 * Registers the combination defined by the current positions and updates the counters
+	 */
+	private void addCombination()
+	{
+		BoardSignature signature=new BoardSignature(positions, executor.getTypes(), positions.length, hashes[positions.length]);
+		solutions.add(signature);
+		if(solutions.size()>=BUFFER_SIZE)
+		{
+			publishCountdown=0;
+		}
+		counters.incrementSuccessCount();
+		if(Symmetry.isCanonical(signature, geometry))
+		{
+			counters.incrementSymmetryClassesCount();
+		}
+	}
+}
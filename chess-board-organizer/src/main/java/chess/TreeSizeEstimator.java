@@ -0,0 +1,285 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * Estimates the number of combinations of a problem and the size of its placement tree without enumerating them, for the
+ * boards where neither the random retries nor the {@link ExhaustiveExecutor} would finish. The placement tree places the pieces
+ * of the pool in order on their safe squares, the pieces of the same type on increasing squares, and a branch ends when the
+ * remaining pieces do not fit on the board, with the same pruning as the exhaustive search (see {@link PlacementRules}), so the
+ * estimated nodes are the nodes the exact run would visit.<br/>
+ * The probes of Knuth's estimator are shared among a number of threads, see {@link EstimatorTask}, and the estimates are
+ * reported with the half width of their 95% confidence interval. The estimates are doubles since the size of the tree of a
+ * big board does not fit in a long.<br/>
+ * The time taken by an exact run is estimated from the number of placements per second of the probes, which place their pieces
+ * the same way the search does.
+ * @author Willie
+ *
+ */
+public class TreeSizeEstimator {
+
+	/**
+	 * Option with the number of threads running the probes
+	 */
+	public static final String OPTION_THREADS="threads";
+
+	/**
+	 * Option with the seed of the random generators, so an estimate can be repeated
+	 */
+	public static final String OPTION_SEED="seed";
+
+	/**
+	 * Option with the number of hours above which an exact run is not considered feasible
+	 */
+	public static final String OPTION_MAX_HOURS="max-hours";
+
+	/**
+	 * Default number of hours of a feasible exact run
+	 */
+	public static final int DEFAULT_MAX_HOURS=24;
+
+	/**
+	 * The quantile of the normal distribution of a 95% confidence interval
+	 */
+	private static final double CONFIDENCE_QUANTILE=1.96;
+
+	private Logger log= LoggerFactory.getLogger(TreeSizeEstimator.class);
+
+	/**
+	 * Execution parameters
+	 */
+	private String args[];
+
+	private Coordinate boardSize;
+
+	private List<Piece> pool;
+
+	/**
+	 * The tables of the pool shared by the threads, see {@link PlacementRules}
+	 */
+	private PlacementRules rules;
+
+	private long probes;
+
+	private int threads;
+
+	private Random seeds;
+
+	private int maxHours;
+
+	private double estimatedNodes;
+
+	private double nodesError;
+
+	private double estimatedSolutions;
+
+	private double solutionsError;
+
+	/**
+	 * Number of pieces placed per second by all the threads
+	 */
+	private double placementsPerSecond;
+
+	/**
+	 * Constructor of the TreeSizeEstimator class which takes as parameter an array of strings which <b>must</b> contain
+	 * the following parameters in the indicated order:
+	 * <ol>
+	 * <li>M size of the board
+	 * <li>N size of the board
+	 * <li>Number of Kings
+	 * <li>Number of Queens
+	 * <li>Number of Bishop
+	 * <li>Number of Knights
+	 * <li>Number of Rooks (may be 0)
+	 * <li>Number of probes: the number of random paths down the placement tree, shared among all the threads
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--threads &lt;number&gt;</code> the number of threads running the probes, by default the number of processors
+	 * <li><code>--seed &lt;number&gt;</code> the seed of the random generators, by default a different seed on every execution
+	 * <li><code>--max-hours &lt;number&gt;</code> the number of hours above which an exact run is not feasible,
+	 * {@value #DEFAULT_MAX_HOURS} by default
+	 * </ul>
+	 * @param args the array of strings containing the parameters defined above
+	 * @throws RuntimeException in case the parameters are incorrect or missing
+	 */
+	public TreeSizeEstimator(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length!=Problem.NUMBER_OF_PARAMETERS+1)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		this.args=args;
+		Problem problem=new Problem(args, 0);
+		boardSize=problem.getBoardSize();
+		pool=problem.getPool();
+		if(!NumberUtils.isDigits(args[Problem.NUMBER_OF_PARAMETERS]) || Long.parseLong(args[Problem.NUMBER_OF_PARAMETERS])<2)
+		{
+			throw new RuntimeException("Incorrect number of probes");
+		}
+		probes=Long.parseLong(args[Problem.NUMBER_OF_PARAMETERS]);
+		threads=options.getIntOption(OPTION_THREADS, Runtime.getRuntime().availableProcessors());
+		if(threads<=0)
+		{
+			throw new RuntimeException("Incorrect number of threads " + threads);
+		}
+		String seed=options.getOption(OPTION_SEED);
+		try {
+			seeds=seed!=null ? new Random(Long.parseLong(seed)) : new Random();
+		} catch (NumberFormatException e) {
+			throw new RuntimeException("Incorrect seed " + seed, e);
+		}
+		maxHours=options.getIntOption(OPTION_MAX_HOURS, DEFAULT_MAX_HOURS);
+		if(maxHours<=0)
+		{
+			throw new RuntimeException("Incorrect number of hours " + maxHours);
+		}
+		rules=new PlacementRules(boardSize, pool);
+	}
+
+	/**
+	 * Runs the probes on all the threads and logs the estimates
+	 * @throws RuntimeException in case any of the threads fails
+	 */
+	public void start()
+	{
+		log.info("Estimating the size of the " + args[0] + "x" + args[1] + " board with " + args[2] + " kings, " + args[3]
+				+ " queens, " + args[4] + " bishops, " + args[5] + " knights and " + args[6] + " rooks with " + probes
+				+ " probes on " + threads + " threads");
+		List<EstimatorTask> tasks=new ArrayList<EstimatorTask>();
+		for(int i=0; i<threads; i++)
+		{
+			//the probes left by the division are run by the first threads
+			tasks.add(new EstimatorTask(this, probes/threads+(i<probes%threads?1:0), seeds.nextLong()));
+		}
+		long startTime=System.nanoTime();
+		ExecutorService executor=Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures=new ArrayList<Future<?>>();
+			for(EstimatorTask task: tasks)
+			{
+				futures.add(executor.submit(task));
+			}
+			for(Future<?> future: futures)
+			{
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			log.error("Error running the probes", e.getCause());
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		long elapsedNanos=Math.max(1, System.nanoTime()-startTime);
+		double nodesSum=0;
+		double nodesSquaresSum=0;
+		double solutionsSum=0;
+		double solutionsSquaresSum=0;
+		long placements=0;
+		for(EstimatorTask task: tasks)
+		{
+			nodesSum+=task.getNodesSum();
+			nodesSquaresSum+=task.getNodesSquaresSum();
+			solutionsSum+=task.getSolutionsSum();
+			solutionsSquaresSum+=task.getSolutionsSquaresSum();
+			placements+=task.getPlacements();
+		}
+		estimatedNodes=nodesSum/probes;
+		nodesError=getError(nodesSum, nodesSquaresSum);
+		estimatedSolutions=solutionsSum/probes;
+		solutionsError=getError(solutionsSum, solutionsSquaresSum);
+		placementsPerSecond=placements/(elapsedNanos/1e9d);
+		log.info(String.format("Estimated combinations: %.4g +/- %.2g", estimatedSolutions, solutionsError));
+		log.info(String.format("Estimated nodes of the placement tree: %.4g +/- %.2g", estimatedNodes, nodesError));
+		log.info(String.format("Placements per second: %.4g", placementsPerSecond));
+		log.info(String.format("An exact run should take about %.3g hours on %d threads, it is %s", getEstimatedSeconds()/3600,
+				threads, isExactRunFeasible() ? "feasible" : "not feasible in " + maxHours + " hours"));
+	}
+
+	/**
+	 * Returns the half width of the 95% confidence interval of the mean of the estimates of the probes
+	 * @param sum the sum of the estimates
+	 * @param squaresSum the sum of the squares of the estimates
+	 * @return the half width of the interval
+	 */
+	private double getError(double sum, double squaresSum)
+	{
+		double variance=Math.max(0, (squaresSum-sum*sum/probes)/(probes-1));
+		return CONFIDENCE_QUANTILE*Math.sqrt(variance/probes);
+	}
+
+	/**
+	 * Returns the estimated number of combinations of the problem, once {@link #start()} has been called
+	 * @return the number of combinations
+	 */
+	public double getEstimatedSolutions() {
+		return estimatedSolutions;
+	}
+
+	/**
+	 * Returns the half width of the 95% confidence interval of the estimated number of combinations
+	 * @return the error of the estimate
+	 */
+	public double getSolutionsError() {
+		return solutionsError;
+	}
+
+	/**
+	 * Returns the estimated number of nodes of the placement tree, the empty board is not counted
+	 * @return the number of nodes
+	 */
+	public double getEstimatedNodes() {
+		return estimatedNodes;
+	}
+
+	/**
+	 * Returns the half width of the 95% confidence interval of the estimated number of nodes
+	 * @return the error of the estimate
+	 */
+	public double getNodesError() {
+		return nodesError;
+	}
+
+	/**
+	 * Returns the number of seconds an exact run on the same number of threads would take at the rate of the probes
+	 * @return the number of seconds
+	 */
+	public double getEstimatedSeconds() {
+		return estimatedNodes/placementsPerSecond;
+	}
+
+	/**
+	 * Checks whether an exact run would take less than the maximum number of hours, the upper bound of the
+	 * estimated number of nodes is used
+	 * @return true if the exact run is feasible
+	 */
+	public boolean isExactRunFeasible() {
+		return (estimatedNodes+nodesError)/placementsPerSecond<=maxHours*3600d;
+	}
+
+	Coordinate getBoardSize() {
+		return boardSize;
+	}
+
+	PlacementRules getRules() {
+		return rules;
+	}
+}
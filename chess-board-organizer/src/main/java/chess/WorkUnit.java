@@ -0,0 +1,110 @@
+package chess;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A part of the search tree handed to a worker by the {@link ClusterCoordinator}: the first pieces of the pool are placed
+ * on the squares of the prefix and the next piece tries the squares whose position in its square order
+ * (see {@link OrderingStrategy}) is between <code>from</code>, included, and <code>to</code>, excluded.<br/>
+ * The units of a search never overlap: a unit being searched is split by moving the last part of the range of one
+ * of the levels of its branch to a new unit.<br/>
+ * Instances of this class are immutable.
+ * @author Willie
+ *
+ */
+public class WorkUnit {
+
+	/**
+	 * The squares of the first pieces of the pool
+	 */
+	private final int[] prefix;
+
+	/**
+	 * The position in the square order of the first square to be tried
+	 */
+	private final int from;
+
+	/**
+	 * The position in the square order after the last square to be tried
+	 */
+	private final int to;
+
+	/**
+	 * Creates a unit
+	 * @param prefix the squares of the first pieces of the pool, they are copied
+	 * @param from the position in the square order of the first square to be tried by the next piece
+	 * @param to the position in the square order after the last square to be tried by the next piece
+	 */
+	public WorkUnit(int[] prefix, int from, int to)
+	{
+		this.prefix=prefix.clone();
+		this.from=from;
+		this.to=to;
+	}
+
+	/**
+	 * Returns the number of pieces placed by the prefix, which is also the position in the pool of the piece
+	 * that tries the range of squares
+	 * @return the length of the prefix
+	 */
+	public int getDepth() {
+		return prefix.length;
+	}
+
+	/**
+	 * Returns the square of a piece of the prefix
+	 * @param depth the position of the piece in the pool
+	 * @return the square
+	 */
+	public int getSquare(int depth) {
+		return prefix[depth];
+	}
+
+	public int getFrom() {
+		return from;
+	}
+
+	public int getTo() {
+		return to;
+	}
+
+	/**
+	 * Writes the unit to a stream
+	 * @param out the stream
+	 * @throws IOException in case the unit cannot be written
+	 */
+	public void write(DataOutput out) throws IOException
+	{
+		out.writeInt(prefix.length);
+		for(int square: prefix)
+		{
+			out.writeInt(square);
+		}
+		out.writeInt(from);
+		out.writeInt(to);
+	}
+
+	/**
+	 * Reads a unit written by {@link #write(DataOutput)}
+	 * @param in the stream
+	 * @return the unit
+	 * @throws IOException in case the unit cannot be read
+	 */
+	public static WorkUnit read(DataInput in) throws IOException
+	{
+		int[] prefix=new int[in.readInt()];
+		for(int i=0; i<prefix.length; i++)
+		{
+			prefix[i]=in.readInt();
+		}
+		return new WorkUnit(prefix, in.readInt(), in.readInt());
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(prefix) + "[" + from + "," + to + ")";
+	}
+}
@@ -0,0 +1,32 @@
+package chess;
+
+import java.util.List;
+
+import chess.board.BoardSignature;
+
+/**
+ * Receives the progress of a {@link SubtreeTask} searching a {@link WorkUnit}. The methods are called by the thread running
+ * the task, so the listener may split the task (see {@link SubtreeTask#split()}) when it is notified of its progress.
+ * @author Willie
+ *
+ */
+public interface WorkUnitListener {
+
+	/**
+	 * Receives the combinations found since the last notification, called every {@link SubtreeTask#PUBLISH_INTERVAL}
+	 * positions tried or when the buffer of combinations is full. The notification is a checkpoint of the unit: the
+	 * combinations published so far and {@link SubtreeTask#getCounters()} cover the whole unit except
+	 * {@link SubtreeTask#getRemainingUnits()}
+	 * @param task the task searching the unit
+	 * @param solutions the combinations found, the list is cleared once the method returns
+	 */
+	void publish(SubtreeTask task, List<BoardSignature> solutions);
+
+	/**
+	 * Receives the last combinations and the counters of the unit once it has been searched
+	 * @param task the task which searched the unit
+	 * @param counters the counters of the unit
+	 * @param solutions the combinations found since the last notification
+	 */
+	void complete(SubtreeTask task, SearchCounters counters, List<BoardSignature> solutions);
+}
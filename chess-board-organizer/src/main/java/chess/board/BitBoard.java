@@ -0,0 +1,374 @@
+package chess.board;
+
+import java.io.Serializable;
+
+import chess.piece.Coordinate;
+
+/**
+ * Stores the state of a chess board as bit masks: one bit per slot for the occupied slots and
+ * one bit per slot for the slots threatened by any of the pieces placed.<br/>
+ * The slot <code>(x,y)</code> of a board of size <code>m x n</code> is the square <code>(x-1)*n+(y-1)</code>, so checking
+ * if a slot is safe or if a piece would threaten any of the placed pieces is done with a couple of
+ * bitwise operations and without creating any object.<br/>
+ * The board may also keep the squares that are still safe for every type of piece of the problem (forward checking):
+ * a square is safe for a type when it is free, it is not threatened and a piece of that type placed on it would not threaten
+ * any of the pieces placed. Every placement removes from those sets the squares it makes unsafe, so the search only
+ * tries squares that are known to be valid and can tell early when the remaining pieces do not fit.<br/>
+ * A placement done through {@link #push(int, int, long[][])} can be undone with {@link #pop()}: the state replaced by every
+ * placement is kept in an undo stack which is reused once allocated, so a single board can explore a whole search tree,
+ * placing and removing pieces, without creating any object.
+ * @author Willie
+ *
+ */
+public class BitBoard implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -2413960311373528212L;
+
+	/**
+	 * Number of horizontal lines
+	 */
+	private int m;
+
+	/**
+	 * Number of vertical lines
+	 */
+	private int n;
+
+	/**
+	 * One bit per occupied square
+	 */
+	private long[] occupied;
+
+	/**
+	 * One bit per square threatened by any of the pieces placed
+	 */
+	private long[] attacked;
+
+	/**
+	 * The squares safe for every type of piece, <code>safe[t]</code> for the type <code>t</code> as numbered by the owner of the board
+	 */
+	private long[][] safe;
+
+	/**
+	 * The state of the board before every placement that can be undone: the occupied, threatened and safe squares, in this order.
+	 * The entries are created the first time a depth is reached and reused afterwards
+	 */
+	private transient long[][] undoStack;
+
+	/**
+	 * The square of every placement that can be undone
+	 */
+	private transient int[] undoSquares;
+
+	/**
+	 * The number of placements that can be undone
+	 */
+	private transient int undoDepth;
+
+	/**
+	 * Initializes an empty board of size <code>m x n</code>
+	 * @param m number of horizontal lines
+	 * @param n number of vertical lines
+	 */
+	public BitBoard(int m, int n)
+	{
+		this(m, n, 0);
+	}
+
+	/**
+	 * Initializes an empty board of size <code>m x n</code> which keeps the safe squares of a number of types of pieces,
+	 * see {@link #place(int, int, long[][])}
+	 * @param m number of horizontal lines
+	 * @param n number of vertical lines
+	 * @param types the number of types of pieces
+	 */
+	public BitBoard(int m, int n, int types)
+	{
+		this.m=m;
+		this.n=n;
+		occupied=new long[getNumberOfWords(m*n)];
+		attacked=new long[occupied.length];
+		safe=new long[types][occupied.length];
+		for(long[] squares: safe)
+		{
+			for(int square=0; square<m*n; square++)
+			{
+				squares[square>>>6]|=1L<<square;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of longs needed to store one bit per square
+	 * @param squares the number of squares of the board
+	 * @return the number of longs
+	 */
+	public static int getNumberOfWords(int squares)
+	{
+		return (squares+63)>>>6;
+	}
+
+	/**
+	 * Returns the square of the coordinate passed as parameter
+	 * @param coordinate the coordinate <code>(x,y)</code> of the slot
+	 * @return the square <code>(x-1)*n+(y-1)</code>
+	 */
+	public int getSquare(Coordinate coordinate)
+	{
+		return (coordinate.getX()-1)*n+coordinate.getY()-1;
+	}
+
+	/**
+	 * Returns the number of squares of the board
+	 * @return <code>m x n</code>
+	 */
+	public int getNumberOfSquares()
+	{
+		return m*n;
+	}
+
+	/**
+	 * Checks whether the square is occupied
+	 * @param square the square to be checked
+	 * @return true if there is a piece on the square, false otherwise
+	 */
+	public boolean isOccupied(int square)
+	{
+		return (occupied[square>>>6] & (1L<<square))!=0;
+	}
+
+	/**
+	 * Checks whether a new piece may be placed on the square: the square must be free and
+	 * it must not be threatened by any of the pieces already placed
+	 * @param square the square to be checked
+	 * @return true if the square is free and not threatened, false otherwise
+	 */
+	public boolean isSafe(int square)
+	{
+		return ((occupied[square>>>6] | attacked[square>>>6]) & (1L<<square))==0;
+	}
+
+	/**
+	 * Checks whether any of the squares of the mask is occupied
+	 * @param mask the squares threatened by a piece
+	 * @return true if the piece would threaten any of the pieces already placed
+	 */
+	public boolean intersectsOccupied(long[] mask)
+	{
+		for(int i=0; i<occupied.length; i++)
+		{
+			if((occupied[i] & mask[i])!=0)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Marks the square as occupied and the squares of the mask as threatened
+	 * @param square the square where the piece is placed
+	 * @param mask the squares threatened by the piece
+	 */
+	public void place(int square, long[] mask)
+	{
+		occupied[square>>>6]|=1L<<square;
+		for(int i=0; i<attacked.length; i++)
+		{
+			attacked[i]|=mask[i];
+		}
+	}
+
+	/**
+	 * Marks the square as occupied by a piece of the type passed as parameter and updates the safe squares of every type.
+	 * Threats are symmetric (a piece on the square <code>a</code> threatens the square <code>b</code> if the same piece on
+	 * <code>b</code> threatens <code>a</code>), so the squares where a piece of the type <code>t</code> would threaten the new
+	 * piece are the squares threatened by a piece of that type placed on the square
+	 * @param square the square where the piece is placed
+	 * @param type the type of the piece placed
+	 * @param masks the squares threatened from the square by a piece of every type, <code>masks[t]</code> for the type <code>t</code>
+	 */
+	public void place(int square, int type, long[][] masks)
+	{
+		place(square, masks[type]);
+		int word=square>>>6;
+		long[] attack=masks[type];
+		long[] mask;
+		long[] squares;
+		for(int t=0; t<safe.length; t++)
+		{
+			squares=safe[t];
+			mask=masks[t];
+			for(int i=0; i<squares.length; i++)
+			{
+				squares[i]&=~(attack[i] | mask[i]);
+			}
+			squares[word]&=~(1L<<square);
+		}
+	}
+
+	/**
+	 * Places a piece as {@link #place(int, int, long[][])} does, keeping the state it replaces so the placement can be undone
+	 * with {@link #pop()}
+	 * @param square the square where the piece is placed
+	 * @param type the type of the piece placed
+	 * @param masks the squares threatened from the square by a piece of every type, <code>masks[t]</code> for the type <code>t</code>
+	 */
+	public void push(int square, int type, long[][] masks)
+	{
+		if(undoStack==null)
+		{
+			undoStack=new long[getNumberOfSquares()][];
+			undoSquares=new int[getNumberOfSquares()];
+		}
+		long[] saved=undoStack[undoDepth];
+		if(saved==null)
+		{
+			saved=new long[(2+safe.length)*occupied.length];
+			undoStack[undoDepth]=saved;
+		}
+		int words=occupied.length;
+		System.arraycopy(occupied, 0, saved, 0, words);
+		System.arraycopy(attacked, 0, saved, words, words);
+		for(int t=0; t<safe.length; t++)
+		{
+			System.arraycopy(safe[t], 0, saved, (2+t)*words, words);
+		}
+		undoSquares[undoDepth++]=square;
+		place(square, type, masks);
+	}
+
+	/**
+	 * Undoes the last placement done through {@link #push(int, int, long[][])}, restoring the occupied, threatened
+	 * and safe squares as they were before it
+	 * @return the square of the piece removed
+	 * @throws RuntimeException if there is no placement to be undone
+	 */
+	public int pop()
+	{
+		if(undoDepth==0)
+		{
+			throw new RuntimeException("There is no placement to be undone");
+		}
+		long[] saved=undoStack[--undoDepth];
+		int words=occupied.length;
+		System.arraycopy(saved, 0, occupied, 0, words);
+		System.arraycopy(saved, words, attacked, 0, words);
+		for(int t=0; t<safe.length; t++)
+		{
+			System.arraycopy(saved, (2+t)*words, safe[t], 0, words);
+		}
+		return undoSquares[undoDepth];
+	}
+
+	/**
+	 * Returns the number of placements that can be undone with {@link #pop()}
+	 * @return the depth of the undo stack
+	 */
+	public int getUndoDepth()
+	{
+		return undoDepth;
+	}
+
+	/**
+	 * Returns the squares safe for a type of piece. The returned array is the state of the board and <b>must not</b> be modified
+	 * @param type the type of piece
+	 * @return one bit per safe square
+	 */
+	public long[] getSafeSquares(int type)
+	{
+		return safe[type];
+	}
+
+	/**
+	 * Checks whether a square is safe for a type of piece
+	 * @param square the square to be checked
+	 * @param type the type of piece
+	 * @return true if a piece of the type can be placed on the square
+	 */
+	public boolean isSafe(int square, int type)
+	{
+		return (safe[type][square>>>6] & (1L<<square))!=0;
+	}
+
+	/**
+	 * Returns the number of squares safe for a type of piece
+	 * @param type the type of piece
+	 * @return the number of safe squares
+	 */
+	public int countSafeSquares(int type)
+	{
+		int count=0;
+		for(long word: safe[type])
+		{
+			count+=Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether any of the squares of the region is safe for a type of piece
+	 * @param type the type of piece
+	 * @param region the squares of the region, for instance a line of the board
+	 * @return true if a piece of the type can be placed in the region
+	 */
+	public boolean hasSafeSquare(int type, long[] region)
+	{
+		long[] squares=safe[type];
+		for(int i=0; i<squares.length; i++)
+		{
+			if((squares[i] & region[i])!=0)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the first square set in the bits passed as parameter starting from a square
+	 * @param bits one bit per square
+	 * @param from the first square to be checked
+	 * @return the square, -1 if there are no squares set from that square
+	 */
+	public static int nextSetBit(long[] bits, int from)
+	{
+		int word=from>>>6;
+		if(word>=bits.length)
+		{
+			return -1;
+		}
+		long remaining=bits[word] & (-1L<<from);
+		while(true)
+		{
+			if(remaining!=0)
+			{
+				return (word<<6)+Long.numberOfTrailingZeros(remaining);
+			}
+			if(++word==bits.length)
+			{
+				return -1;
+			}
+			remaining=bits[word];
+		}
+	}
+
+	/**
+	 * Copies the state of another board of the same size into this board. The placements of this board that could
+	 * be undone are discarded
+	 * @param board the board to be copied
+	 */
+	public void copyFrom(BitBoard board)
+	{
+		undoDepth=0;
+		System.arraycopy(board.occupied, 0, occupied, 0, occupied.length);
+		System.arraycopy(board.attacked, 0, attacked, 0, attacked.length);
+		for(int t=0; t<safe.length; t++)
+		{
+			System.arraycopy(board.safe[t], 0, safe[t], 0, safe[t].length);
+		}
+	}
+}
@@ -1,8 +1,9 @@
 package chess.board;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,48 +12,67 @@ import org.slf4j.LoggerFactory;
 
 import chess.piece.Coordinate;
 import chess.piece.Piece;
+import chess.piece.PieceType;
 
 /**
  * Represents the chess board. Its main function is to store the information of the
- * state of the board at any given time 
- * @author Willie   
+ * state of the board at any given time.<br/>
+ * The slot <code>(x,y)</code> of a board of size <code>m x n</code> is the square <code>(x-1)*n+(y-1)</code>: the pieces
+ * are stored in an array indexed by square, so placing a piece or checking a slot does not build, intern or parse any
+ * string key. The methods taking a {@link Coordinate} are kept for convenience and translate it to its square.<br/>
+ * Everything that only depends on the size of the board is kept by the {@link BoardGeometry} shared by all the boards
+ * of that size, the board itself only stores its occupancy.<br/>
+ * Pieces are removed in the reverse order they were added ({@link #removeLastPiece()}), which restores the threatened and
+ * safe slots kept by the {@link BitBoard} from its undo stack, so the same board can be reused for every attempt of a search
+ * @author Willie
  *
  */
 public class Board implements Serializable{
 
-	
+
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = 2300876777268760392L;
 
 	/**
-	 * Stores the occupied slots in the board <br>
-	 * The string part of the Map stores the concatenated coordinate x;y
-	 * 
+	 * The piece placed on every square, null if the square is free
 	 */
-	private Map<String,Slot> occupiedSlotsMap;
-	
+	private Piece[] pieces;
+
 	/**
-	 * All the board slots (available or not)<br/>
-	 * the String key is based on the concatenation of the coordinate m;n 
+	 * The occupied squares in the order the pieces were added, only the first <code>numberOfPieces</code> are used
 	 */
-	private Map<String,Slot> slots;
-	
-	private List<String> availableCoordinatesList;
-	
-	public List<String> getAvailableCoordinatesList() {
-		return availableCoordinatesList;
-	}
+	private int[] occupiedSquares;
+
+	private int numberOfPieces;
+
+	private static final Logger log = LoggerFactory.getLogger(Board.class);
 
-	private transient Logger log = LoggerFactory.getLogger(Board.class);
-	
 	private Coordinate size;
-	
+
+	/**
+	 * The coordinates, threats and lines of the boards of this size
+	 */
+	private transient BoardGeometry geometry;
+
+	/**
+	 * The occupied and threatened slots stored as bit masks
+	 */
+	private BitBoard bitBoard;
+
 	public Coordinate getSize() {
 		return size;
 	}
 
+	public BitBoard getBitBoard() {
+		return bitBoard;
+	}
+
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+
 	/**
 	 * Initializes a chess board as a matrix of size <code>m x n</code> passed in as parameters
 	 * @param m number of horizontal lines
@@ -60,24 +80,22 @@ public class Board implements Serializable{
 	 */
 	public Board(int m, int n)
 	{
-		size=new Coordinate(m, n);
-		Slot slot;
-		String key;
-		occupiedSlotsMap=new HashMap<String, Slot>();
-		slots=new HashMap<String, Slot>();
-		availableCoordinatesList = new ArrayList<String>();
-		for(int i=1; i<=m; i++)
-		{
-			for(int j=1; j<=n;j++)
-			{
-				slot=new Slot(new Coordinate(i, j),null);
-				key=String.valueOf(i) + ";" + String.valueOf(j);
-				slots.put(key.intern(),slot);
-				availableCoordinatesList.add(key.intern());
-			}
-		}
+		this(BoardGeometry.getInstance(Coordinate.valueOf(m, n)));
 	}
-	
+
+	/**
+	 * Initializes an empty chess board of the size of the geometry passed as parameter
+	 * @param geometry the geometry shared by the boards of that size
+	 */
+	public Board(BoardGeometry geometry)
+	{
+		this.geometry=geometry;
+		size=geometry.getSize();
+		pieces=new Piece[geometry.getNumberOfSquares()];
+		occupiedSquares=new int[pieces.length];
+		bitBoard=new BitBoard(size.getX(), size.getY(), PieceType.values().length);
+	}
+
 	/**
 	 * Adds a piece in the corresponding coordinate
 	 * @param piece
@@ -85,55 +103,262 @@ public class Board implements Serializable{
 	 */
 	public void addPiece(Piece piece, Coordinate coordinate)
 	{
-		Slot slot=slots.get(coordinate.toString());
-		if(slot.isAvailable())
+		addPiece(piece, getSquare(coordinate));
+	}
+
+	/**
+	 * Adds a piece on the square passed as parameter
+	 * @param piece the piece to be added
+	 * @param square the square <code>(x-1)*n+(y-1)</code> of the slot <code>(x,y)</code>
+	 */
+	public void addPiece(Piece piece, int square)
+	{
+		if(pieces[square]==null)
 		{
-			slot.setPiece(piece);
-			addOccupiedSlot(slot);
+			pieces[square]=piece;
+			occupiedSquares[numberOfPieces++]=square;
+			bitBoard.push(square, piece.getType().ordinal(), geometry.getMasks(square));
 		}else{
+			Coordinate coordinate=getCoordinate(square);
 			throw new RuntimeException("Slot on coordinate ("+coordinate.getX()+","+coordinate.getY()+") is already taken");
 		}
 	}
-	
+
+	/**
+	 * Removes the last piece added to the board, restoring the state of the board before that piece was added
+	 * @return the piece removed
+	 * @throws RuntimeException if the board is empty
+	 */
+	public Piece removeLastPiece()
+	{
+		if(numberOfPieces==0)
+		{
+			throw new RuntimeException("There are no pieces on the board");
+		}
+		int square=occupiedSquares[--numberOfPieces];
+		Piece piece=pieces[square];
+		pieces[square]=null;
+		bitBoard.pop();
+		return piece;
+	}
+
+	/**
+	 * Removes every piece from the board
+	 */
+	public void clear()
+	{
+		while(numberOfPieces>0)
+		{
+			removeLastPiece();
+		}
+	}
+
 	/**
-	 * Adds  the slot passed as parameter to the maps that store occupied Slots in the general occupied map
-	 * and the specific Piece type map 
-	 * @param slot the slot to be added to the maps of occupied slots
+	 * Returns the piece placed on a square
+	 * @param square the square <code>(x-1)*n+(y-1)</code> of the slot <code>(x,y)</code>
+	 * @return the piece, null if the square is free
 	 */
-	private void addOccupiedSlot(Slot slot) {
-		String strCoordinate = slot.getCoordinate().toString();
-		occupiedSlotsMap.put(strCoordinate.intern(),slot);
-		availableCoordinatesList.remove(strCoordinate);
+	public Piece getPiece(int square)
+	{
+		return pieces[square];
+	}
+
+	/**
+	 * Returns the number of pieces placed on the board
+	 * @return the number of occupied slots
+	 */
+	public int getNumberOfPieces()
+	{
+		return numberOfPieces;
 	}
 
 	/**
-	 * Returns the list of occupied slots 
-	 * @return a map containing as a key a string with the coordinate of the slot (in the form <code>x;y</code>) and the actual slot
+	 * Returns the square of one of the pieces placed on the board
+	 * @param i the index of the piece, in the order the pieces were added
+	 * @return the square of the piece
 	 */
-	public Map<String, Slot> getOccupiedSlots()
+	public int getOccupiedSquare(int i)
 	{
-		return occupiedSlotsMap;
+		return occupiedSquares[i];
 	}
-	
+
+	/**
+	 * Returns the list of occupied slots. The slots are created on every call, so this method is meant for
+	 * printing and reporting and not for the search
+	 * @return a new list of the occupied slots in the order the pieces were added
+	 */
+	public List<Slot> getOccupiedSlots()
+	{
+		List<Slot> occupiedSlots=new ArrayList<Slot>(numberOfPieces);
+		for(int i=0; i<numberOfPieces; i++)
+		{
+			occupiedSlots.add(new Slot(getCoordinate(occupiedSquares[i]), pieces[occupiedSquares[i]]));
+		}
+		return occupiedSlots;
+	}
+
+	/**
+	 * Returns the signature of the combination of pieces on the board
+	 * @return the signature
+	 */
+	public BoardSignature getSignature()
+	{
+		return getSignature(null, -1);
+	}
+
+	/**
+	 * Returns the signature of the combination of pieces on the board plus a piece that has not been added yet
+	 * @param piece the piece that would be added, null if there is no additional piece
+	 * @param coordinate the coordinate where the piece would be added
+	 * @return the signature
+	 */
+	public BoardSignature getSignature(Piece piece, Coordinate coordinate)
+	{
+		return getSignature(piece, piece!=null?getSquare(coordinate):-1);
+	}
+
+	/**
+	 * Returns the signature of the combination of pieces on the board plus a piece that has not been added yet
+	 * @param piece the piece that would be added, null if there is no additional piece
+	 * @param square the square where the piece would be added
+	 * @return the signature
+	 */
+	public BoardSignature getSignature(Piece piece, int square)
+	{
+		int count=numberOfPieces+(piece!=null?1:0);
+		int[] squares=new int[count];
+		PieceType[] types=new PieceType[count];
+		for(int i=0; i<numberOfPieces; i++)
+		{
+			squares[i]=occupiedSquares[i];
+			types[i]=pieces[occupiedSquares[i]].getType();
+		}
+		if(piece!=null)
+		{
+			squares[numberOfPieces]=square;
+			types[numberOfPieces]=piece.getType();
+		}
+		return new BoardSignature(squares, types, count, BoardSignature.calculateHash(squares, types, count));
+	}
+
+	/**
+	 * Returns the slots where a piece of the type passed as parameter can be placed: the slots that are free, not threatened
+	 * by the pieces on the board and from where the piece would not threaten any of them
+	 * @param type the type of piece
+	 * @return a new list of the safe coordinates
+	 */
+	public List<Coordinate> getSafeCoordinates(PieceType type)
+	{
+		List<Coordinate> coordinates=new ArrayList<Coordinate>();
+		long[] safe=bitBoard.getSafeSquares(type.ordinal());
+		for(int square=BitBoard.nextSetBit(safe, 0); square>=0; square=BitBoard.nextSetBit(safe, square+1))
+		{
+			coordinates.add(getCoordinate(square));
+		}
+		return coordinates;
+	}
+
+	/**
+	 * Returns the squares where a piece of the type passed as parameter can be placed, see {@link #getSafeCoordinates(PieceType)}
+	 * @param type the type of piece
+	 * @return a new array of the safe squares in increasing order
+	 */
+	public int[] getSafeSquares(PieceType type)
+	{
+		long[] safe=bitBoard.getSafeSquares(type.ordinal());
+		int[] squares=new int[bitBoard.countSafeSquares(type.ordinal())];
+		int i=0;
+		for(int square=BitBoard.nextSetBit(safe, 0); square>=0; square=BitBoard.nextSetBit(safe, square+1))
+		{
+			squares[i++]=square;
+		}
+		return squares;
+	}
+
+	/**
+	 * Returns the number of slots where a piece of the type passed as parameter can be placed
+	 * @param type the type of piece
+	 * @return the number of safe slots
+	 */
+	public int countSafeSlots(PieceType type)
+	{
+		return bitBoard.countSafeSquares(type.ordinal());
+	}
+
+	/**
+	 * Returns the square of the coordinate passed as parameter
+	 * @param coordinate the coordinate <code>(x,y)</code> of the slot
+	 * @return the square <code>(x-1)*n+(y-1)</code>
+	 */
+	public int getSquare(Coordinate coordinate)
+	{
+		return geometry.getSquare(coordinate);
+	}
+
+	/**
+	 * Returns the coordinate of the square passed as parameter
+	 * @param square the square <code>(x-1)*n+(y-1)</code>
+	 * @return the shared coordinate <code>(x,y)</code> of the slot
+	 */
+	public Coordinate getCoordinate(int square)
+	{
+		return geometry.getCoordinate(square);
+	}
+
 	/**
 	 * Prints the board through the log output
 	 */
 	public void print()
 	{
-		String coordinate;
-		Slot slot;
+		Piece piece;
 		StringBuffer strLine= new StringBuffer();
-		for(int i=1; i<=size.getX(); i++)
+		for(int i=0; i<size.getX(); i++)
 		{
 			strLine= new StringBuffer();
 			strLine.append("|");
-			for(int j=1; j<=size.getY(); j++)
+			for(int j=0; j<size.getY(); j++)
 			{
-				coordinate=i+";"+j;
-				slot=slots.get(coordinate);
-				strLine.append((!slot.isAvailable() ? slot.getPiece().getAbbreviatedName() : " ") + "|");
+				piece=pieces[i*size.getY()+j];
+				strLine.append((piece!=null ? piece.getAbbreviatedName() : " ") + "|");
 			}
-			log.info(strLine.toString()); 
+			log.info(strLine.toString());
 		}
-	}	
+	}
+
+	/**
+	 * Reads a board written either by this version or by the previous versions, which stored the slots
+	 * in maps keyed by the string <code>x;y</code>. In both cases the pieces are placed again on a new board, so
+	 * the state of the bit board and its undo stack are rebuilt
+	 * @param in the stream
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream.GetField fields=in.readFields();
+		size=(Coordinate)fields.get("size", null);
+		geometry=BoardGeometry.getInstance(size);
+		Board board=new Board(geometry);
+		Piece[] storedPieces=(Piece[])fields.get("pieces", null);
+		if(storedPieces!=null)
+		{
+			int[] storedSquares=(int[])fields.get("occupiedSquares", null);
+			int storedNumberOfPieces=fields.get("numberOfPieces", 0);
+			for(int i=0; i<storedNumberOfPieces; i++)
+			{
+				board.addPiece(storedPieces[storedSquares[i]], storedSquares[i]);
+			}
+		}else{
+			Map<String, Slot> occupiedSlotsMap=(Map<String, Slot>)fields.get("occupiedSlotsMap", null);
+			for(Slot slot: occupiedSlotsMap.values())
+			{
+				board.addPiece(slot.getPiece(), slot.getCoordinate());
+			}
+		}
+		pieces=board.pieces;
+		occupiedSquares=board.occupiedSquares;
+		numberOfPieces=board.numberOfPieces;
+		bitBoard=board.bitBoard;
+	}
 }
@@ -0,0 +1,192 @@
+package chess.board;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import chess.piece.AttackTable;
+import chess.piece.Coordinate;
+import chess.piece.PieceType;
+
+/**
+ * Stores everything about a board of a given size that does not depend on the pieces placed on it: the coordinate
+ * of every square, the squares threatened from every square by every type of piece, the lines of the board and
+ * the squares where every symmetry moves every square.<br/>
+ * The geometry is calculated once per board size and shared by every board and thread, it is immutable once created,
+ * so a {@link Board} only has to store its occupancy
+ * @author Willie
+ *
+ */
+public final class BoardGeometry {
+
+	/**
+	 * The geometries already calculated, the key is built from the board size
+	 */
+	private static final ConcurrentMap<Long, BoardGeometry> geometries=new ConcurrentHashMap<Long, BoardGeometry>();
+
+	private final Coordinate size;
+
+	/**
+	 * The coordinate of every square
+	 */
+	private final Coordinate[] coordinates;
+
+	/**
+	 * The squares threatened from every square by every type of piece, <code>masks[square][type.ordinal()]</code>
+	 */
+	private final long[][][] masks;
+
+	/**
+	 * The squares of every horizontal line
+	 */
+	private final long[][] rows;
+
+	/**
+	 * The squares of every vertical line
+	 */
+	private final long[][] columns;
+
+	private final List<Symmetry> symmetries;
+
+	/**
+	 * The square where every symmetry moves every square, <code>images[symmetry.ordinal()][square]</code>
+	 */
+	private final int[][] images;
+
+	/**
+	 * Returns the geometry of the board size, calculating it the first time it is requested
+	 * @param size the size of the chess board <code>(m x n-->(m,n))</code>
+	 * @return the geometry
+	 */
+	public static BoardGeometry getInstance(Coordinate size)
+	{
+		Long key=Long.valueOf(((long)size.getX()<<32) | size.getY());
+		BoardGeometry geometry=geometries.get(key);
+		if(geometry==null)
+		{
+			geometry=new BoardGeometry(size);
+			BoardGeometry previous=geometries.putIfAbsent(key, geometry);
+			if(previous!=null)
+			{
+				geometry=previous;
+			}
+		}
+		return geometry;
+	}
+
+	private BoardGeometry(Coordinate size)
+	{
+		int m=size.getX();
+		int n=size.getY();
+		this.size=Coordinate.valueOf(m, n);
+		coordinates=new Coordinate[m*n];
+		masks=new long[m*n][PieceType.values().length][];
+		rows=new long[m][BitBoard.getNumberOfWords(m*n)];
+		columns=new long[n][BitBoard.getNumberOfWords(m*n)];
+		for(int square=0; square<m*n; square++)
+		{
+			coordinates[square]=Coordinate.valueOf(square/n+1, square%n+1);
+			for(PieceType type: PieceType.values())
+			{
+				masks[square][type.ordinal()]=AttackTable.getInstance(type, this.size).getMask(square);
+			}
+			rows[square/n][square>>>6]|=1L<<square;
+			columns[square%n][square>>>6]|=1L<<square;
+		}
+		symmetries=Collections.unmodifiableList(Symmetry.getSymmetries(this.size));
+		images=new int[Symmetry.values().length][];
+		for(Symmetry symmetry: symmetries)
+		{
+			images[symmetry.ordinal()]=new int[m*n];
+			for(int square=0; square<m*n; square++)
+			{
+				images[symmetry.ordinal()][square]=symmetry.apply(square, m, n);
+			}
+		}
+	}
+
+	public Coordinate getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of squares of the board
+	 * @return <code>m x n</code>
+	 */
+	public int getNumberOfSquares()
+	{
+		return coordinates.length;
+	}
+
+	/**
+	 * Returns the square of the coordinate passed as parameter
+	 * @param coordinate the coordinate <code>(x,y)</code> of the slot
+	 * @return the square <code>(x-1)*n+(y-1)</code>
+	 */
+	public int getSquare(Coordinate coordinate)
+	{
+		return (coordinate.getX()-1)*size.getY()+coordinate.getY()-1;
+	}
+
+	/**
+	 * Returns the coordinate of the square passed as parameter
+	 * @param square the square <code>(x-1)*n+(y-1)</code>
+	 * @return the shared coordinate <code>(x,y)</code> of the slot
+	 */
+	public Coordinate getCoordinate(int square)
+	{
+		return coordinates[square];
+	}
+
+	/**
+	 * Returns the squares threatened from a square by every type of piece.
+	 * The returned arrays are shared and <b>must not</b> be modified
+	 * @param square the square of the piece
+	 * @return the masks of threatened squares indexed by the ordinal of the piece type
+	 */
+	public long[][] getMasks(int square)
+	{
+		return masks[square];
+	}
+
+	/**
+	 * Returns the squares of a horizontal line. The returned array is shared and <b>must not</b> be modified
+	 * @param row the line, from 0 to <code>m-1</code>
+	 * @return one bit per square of the line
+	 */
+	public long[] getRow(int row)
+	{
+		return rows[row];
+	}
+
+	/**
+	 * Returns the squares of a vertical line. The returned array is shared and <b>must not</b> be modified
+	 * @param column the line, from 0 to <code>n-1</code>
+	 * @return one bit per square of the line
+	 */
+	public long[] getColumn(int column)
+	{
+		return columns[column];
+	}
+
+	/**
+	 * Returns the symmetries of the board, see {@link Symmetry#getSymmetries(Coordinate)}
+	 * @return an unmodifiable list of the symmetries
+	 */
+	public List<Symmetry> getSymmetries()
+	{
+		return symmetries;
+	}
+
+	/**
+	 * Returns the square where a symmetry of the board moves a square
+	 * @param symmetry one of the symmetries of the board
+	 * @param square the square to be transformed
+	 * @return the transformed square
+	 */
+	public int getImage(Symmetry symmetry, int square)
+	{
+		return images[symmetry.ordinal()][square];
+	}
+}
@@ -0,0 +1,210 @@
+package chess.board;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import chess.piece.Coordinate;
+import chess.piece.PieceType;
+
+/**
+ * Identifies a combination of pieces on a board regardless of the order in which the pieces were placed.<br/>
+ * Every piece is packed in two bytes as <code>square*8+type</code> and the pieces are sorted by square, so two
+ * boards with the same pieces of the same type on the same squares have the same signature. The hash code is the
+ * {@link Zobrist} hash of the combination, which the search can maintain incrementally while placing pieces, so
+ * looking up a signature in a hash set costs the same no matter how many combinations the set holds.
+ * @author Willie
+ *
+ */
+public final class BoardSignature implements Serializable, Comparable<BoardSignature> {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -5137203545829155036L;
+
+	/**
+	 * The maximum number of squares of a board that can be packed in a signature
+	 */
+	public static final int MAX_SQUARES=1<<13;
+
+	private static final PieceType[] TYPES=PieceType.values();
+
+	/**
+	 * The pieces of the combination packed in two bytes each and sorted by square
+	 */
+	private final byte[] packed;
+
+	/**
+	 * The Zobrist hash of the combination
+	 */
+	private final long hash;
+
+	/**
+	 * Builds the signature of a combination from the squares and types of its pieces
+	 * @param squares the square of every piece
+	 * @param types the type of every piece
+	 * @param count the number of pieces to be taken from the arrays
+	 * @param hash the Zobrist hash of the combination, see {@link #calculateHash(int[], PieceType[], int)}
+	 */
+	public BoardSignature(int[] squares, PieceType[] types, int count, long hash)
+	{
+		int[] entries=new int[count];
+		for(int i=0; i<count; i++)
+		{
+			if(squares[i]<0 || squares[i]>=MAX_SQUARES)
+			{
+				throw new RuntimeException("Square " + squares[i] + " can not be packed in a signature");
+			}
+			entries[i]=(squares[i]<<3) | types[i].ordinal();
+		}
+		Arrays.sort(entries);
+		packed=new byte[count*2];
+		for(int i=0; i<count; i++)
+		{
+			packed[i*2]=(byte)(entries[i]>>>8);
+			packed[i*2+1]=(byte)entries[i];
+		}
+		this.hash=hash;
+	}
+
+	/**
+	 * Builds a signature from its packed representation
+	 * @param packed the pieces packed in two bytes each and sorted by square
+	 */
+	public BoardSignature(byte[] packed)
+	{
+		this.packed=packed;
+		long value=0;
+		for(int i=0; i<getNumberOfPieces(); i++)
+		{
+			value^=Zobrist.getKey(getType(i), getSquare(i));
+		}
+		this.hash=value;
+	}
+
+	/**
+	 * Calculates the Zobrist hash of a combination
+	 * @param squares the square of every piece
+	 * @param types the type of every piece
+	 * @param count the number of pieces to be taken from the arrays
+	 * @return the hash of the combination
+	 */
+	public static long calculateHash(int[] squares, PieceType[] types, int count)
+	{
+		long value=0;
+		for(int i=0; i<count; i++)
+		{
+			value^=Zobrist.getKey(types[i], squares[i]);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the number of pieces of the combination
+	 * @return the number of pieces
+	 */
+	public int getNumberOfPieces()
+	{
+		return packed.length/2;
+	}
+
+	/**
+	 * Returns the square of a piece, the pieces are sorted by square
+	 * @param index the position of the piece in the signature
+	 * @return the square of the piece
+	 */
+	public int getSquare(int index)
+	{
+		return getEntry(index)>>>3;
+	}
+
+	/**
+	 * Returns the type of a piece, the pieces are sorted by square
+	 * @param index the position of the piece in the signature
+	 * @return the type of the piece
+	 */
+	public PieceType getType(int index)
+	{
+		return TYPES[getEntry(index) & 7];
+	}
+
+	private int getEntry(int index)
+	{
+		return ((packed[index*2] & 0xFF)<<8) | (packed[index*2+1] & 0xFF);
+	}
+
+	/**
+	 * Returns the pieces packed in two bytes each, the array <b>must not</b> be modified
+	 * @return the packed pieces
+	 */
+	public byte[] getPacked()
+	{
+		return packed;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Creates a board with new pieces placed as described by this signature
+	 * @param size the size of the chess board <code>(m x n-->(m,n))</code>
+	 * @return the board
+	 */
+	public Board toBoard(Coordinate size)
+	{
+		Board board=new Board(size.getX(), size.getY());
+		for(int i=0; i<getNumberOfPieces(); i++)
+		{
+			board.addPiece(getType(i).newPiece(), getSquare(i));
+		}
+		return board;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int)(hash ^ (hash>>>32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(obj!=null && obj instanceof BoardSignature)
+		{
+			return hash==((BoardSignature)obj).hash && Arrays.equals(packed, ((BoardSignature)obj).packed);
+		}else{
+			return false;
+		}
+	}
+
+	/**
+	 * Compares the packed pieces as unsigned bytes
+	 */
+	@Override
+	public int compareTo(BoardSignature other) {
+		int length=Math.min(packed.length, other.packed.length);
+		int difference;
+		for(int i=0; i<length; i++)
+		{
+			difference=(packed[i] & 0xFF) - (other.packed[i] & 0xFF);
+			if(difference!=0)
+			{
+				return difference;
+			}
+		}
+		return packed.length - other.packed.length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder=new StringBuilder();
+		for(int i=0; i<getNumberOfPieces(); i++)
+		{
+			if(i>0)
+			{
+				builder.append(",");
+			}
+			builder.append(getSquare(i)).append("/").append(getType(i).getAbbreviatedName());
+		}
+		return builder.toString();
+	}
+}
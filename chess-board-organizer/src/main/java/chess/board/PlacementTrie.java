@@ -0,0 +1,270 @@
+package chess.board;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A prefix tree of the placements tried by a search that places the pieces of a pool in a fixed order: the node at depth
+ * <code>d</code> is a sequence of <code>d</code> placements and its children are keyed by the square of the next piece
+ * (the type of the piece is the type at that position of the pool, so it is not part of the key).<br/>
+ * A node is <b>exhausted</b> when none of its completions can lead to a new combination: a complete combination
+ * already found, a placement where the remaining pieces do not fit, or a placement all of whose candidate squares for the next piece
+ * lead to exhausted nodes. The search skips the exhausted nodes at any depth, instead of discovering at the last piece that
+ * the combination it is building was already found.<br/>
+ * The pieces of the same type are placed on increasing squares by the searches, so every combination has a single path in the tree.<br/>
+ * The children of a node are dropped when it is exhausted, so the memory taken by the tree shrinks as whole branches are completed.
+ * The tree does not take any lock, so the threads that share it never wait for each other: the children of a node are kept in
+ * a sorted array that is never modified, a child is added by a compare and set of a copy of the array with the new child, and a
+ * node is exhausted by a compare and set of its flag, so only the thread that exhausts it tells its parent.
+ * @author Willie
+ *
+ */
+public class PlacementTrie {
+
+	/**
+	 * Returned as the child of an exhausted node, so a thread that reaches a node exhausted in the meantime by another thread
+	 * sees the branch as exhausted
+	 */
+	private static final Node EXHAUSTED=new Node(-1, true);
+
+	private final Node root=new Node(-1, false);
+
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * Sets the number of candidate squares of a node, which is exhausted at once when all of them already are
+	 * @param path the nodes from the root, <code>path[0]</code> is the root
+	 * @param depth the position in the path of the node
+	 * @param candidates the number of squares where the next piece can be placed
+	 */
+	public void setCandidates(Node[] path, int depth, int candidates)
+	{
+		if(path[depth].setCandidates(candidates))
+		{
+			exhaustAncestors(path, depth);
+		}
+	}
+
+	/**
+	 * Marks a node as exhausted and goes up the path marking the ancestors all of whose candidates are now exhausted
+	 * @param path the nodes from the root, <code>path[0]</code> is the root
+	 * @param depth the position in the path of the node to be marked
+	 */
+	public void exhaust(Node[] path, int depth)
+	{
+		if(path[depth].exhaust())
+		{
+			exhaustAncestors(path, depth);
+		}
+	}
+
+	/**
+	 * Goes up the path from an exhausted node marking the ancestors all of whose candidates are now exhausted
+	 * @param path the nodes from the root
+	 * @param depth the position in the path of the exhausted node
+	 */
+	private void exhaustAncestors(Node[] path, int depth)
+	{
+		for(int i=depth-1; i>=0; i--)
+		{
+			if(!path[i].childExhausted())
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A sequence of placements
+	 */
+	public static final class Node {
+
+		private static final Node[] NO_CHILDREN=new Node[0];
+
+		private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN=
+				AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+		private static final AtomicIntegerFieldUpdater<Node> CANDIDATES=
+				AtomicIntegerFieldUpdater.newUpdater(Node.class, "candidates");
+
+		private static final AtomicIntegerFieldUpdater<Node> EXHAUSTED_CHILDREN=
+				AtomicIntegerFieldUpdater.newUpdater(Node.class, "exhaustedChildren");
+
+		private static final AtomicIntegerFieldUpdater<Node> EXHAUSTED_FLAG=
+				AtomicIntegerFieldUpdater.newUpdater(Node.class, "exhausted");
+
+		/**
+		 * The square of the last piece of the placements of this node
+		 */
+		private final int square;
+
+		/**
+		 * The children created so far sorted by square, the array is never modified: a child is added by replacing the
+		 * whole array. The children are dropped once the node is exhausted
+		 */
+		private volatile Node[] children=NO_CHILDREN;
+
+		/**
+		 * The number of squares where the next piece can be placed, -1 if it is not known yet
+		 */
+		private volatile int candidates=-1;
+
+		private volatile int exhaustedChildren;
+
+		/**
+		 * 1 once the node is exhausted
+		 */
+		private volatile int exhausted;
+
+		private Node(int square, boolean exhausted)
+		{
+			this.square=square;
+			this.exhausted=exhausted?1:0;
+		}
+
+		/**
+		 * Checks whether every completion of the placements of this node has already been tried
+		 * @return true if the node cannot lead to any new combination
+		 */
+		public boolean isExhausted()
+		{
+			return exhausted!=0;
+		}
+
+		/**
+		 * Sets the number of squares where the next piece can be placed after the placements of this node, the number
+		 * is the same every time the node is reached so only the first value is kept
+		 * @param candidates the number of squares
+		 * @return true if the node has been exhausted by this call, because all its candidates already were
+		 */
+		private boolean setCandidates(int candidates)
+		{
+			if(this.candidates>=0 || exhausted!=0 || !CANDIDATES.compareAndSet(this, -1, candidates))
+			{
+				return false;
+			}
+			//a child exhausted at the same time either sees the candidates or is counted here
+			return exhaustedChildren>=candidates && exhaust();
+		}
+
+		/**
+		 * Returns the child of the node for a square
+		 * @param square the square of the next piece
+		 * @return the child, null if the square has never been tried
+		 */
+		public Node getChild(int square)
+		{
+			Node[] current=children;
+			if(exhausted!=0)
+			{
+				return EXHAUSTED;
+			}
+			int index=indexOf(current, square);
+			return index>=0 ? current[index] : null;
+		}
+
+		/**
+		 * Returns the child of the node for a square, creating it the first time the square is tried
+		 * @param square the square of the next piece
+		 * @return the child, an exhausted node if this node is exhausted
+		 */
+		public Node child(int square)
+		{
+			Node[] current;
+			Node[] added;
+			int index;
+			Node child=null;
+			while(true)
+			{
+				current=children;
+				if(exhausted!=0)
+				{
+					return EXHAUSTED;
+				}
+				index=indexOf(current, square);
+				if(index>=0)
+				{
+					return current[index];
+				}
+				if(child==null)
+				{
+					child=new Node(square, false);
+				}
+				index=-index-1;
+				added=new Node[current.length+1];
+				System.arraycopy(current, 0, added, 0, index);
+				added[index]=child;
+				System.arraycopy(current, index, added, index+1, current.length-index);
+				//another thread may add a child in the meantime, then the children are read again
+				if(CHILDREN.compareAndSet(this, current, added))
+				{
+					if(exhausted!=0)
+					{
+						//the node was exhausted before the child was added
+						children=NO_CHILDREN;
+					}
+					return child;
+				}
+			}
+		}
+
+		/**
+		 * Looks for the child of a square with a binary search
+		 * @param children the children sorted by square
+		 * @param square the square
+		 * @return the index of the child, <code>(-(insertion point) - 1)</code> if there is no child for the square
+		 */
+		private static int indexOf(Node[] children, int square)
+		{
+			int low=0;
+			int high=children.length-1;
+			int middle;
+			while(low<=high)
+			{
+				middle=(low+high)>>>1;
+				if(children[middle].square<square)
+				{
+					low=middle+1;
+				}else if(children[middle].square>square)
+				{
+					high=middle-1;
+				}else{
+					return middle;
+				}
+			}
+			return -(low+1);
+		}
+
+		/**
+		 * Marks the node as exhausted and drops its children
+		 * @return true if the node was not exhausted yet
+		 */
+		private boolean exhaust()
+		{
+			if(exhausted!=0 || !EXHAUSTED_FLAG.compareAndSet(this, 0, 1))
+			{
+				return false;
+			}
+			children=NO_CHILDREN;
+			return true;
+		}
+
+		/**
+		 * Registers that one more child is exhausted, the node is exhausted once all its candidates are.
+		 * A child is only registered by the thread that exhausted it
+		 * @return true if the node has been exhausted by this call
+		 */
+		private boolean childExhausted()
+		{
+			if(exhausted!=0)
+			{
+				return false;
+			}
+			int exhaustedCount=EXHAUSTED_CHILDREN.incrementAndGet(this);
+			int candidateCount=candidates;
+			return candidateCount>=0 && exhaustedCount>=candidateCount && exhaust();
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package chess.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.piece.Coordinate;
+import chess.piece.PieceType;
+
+/**
+ * The symmetries of a chess board (the dihedral group D4): rotations and reflections that move every slot to another
+ * slot of the same board. The capture slots of every piece are transformed the same way, so the image of a combination
+ * where no piece threatens another is also a valid combination.<br/>
+ * A square board has the eight symmetries, a rectangular board only has the identity, the 180 degrees rotation
+ * and the two reflections along its axes.
+ * @author Willie
+ *
+ */
+public enum Symmetry {
+
+	IDENTITY(false),
+	ROTATE_180(false),
+	FLIP_HORIZONTAL(false),
+	FLIP_VERTICAL(false),
+	ROTATE_90(true),
+	ROTATE_270(true),
+	TRANSPOSE(true),
+	ANTI_TRANSPOSE(true);
+
+	/**
+	 * true if the symmetry only applies to square boards
+	 */
+	private boolean squareOnly;
+
+	private Symmetry(boolean squareOnly)
+	{
+		this.squareOnly=squareOnly;
+	}
+
+	/**
+	 * Returns the symmetries of a board of the given size
+	 * @param size the size of the chess board <code>(m x n-->(m,n))</code>
+	 * @return the eight symmetries for square boards, the four symmetries of rectangular boards otherwise
+	 */
+	public static List<Symmetry> getSymmetries(Coordinate size)
+	{
+		List<Symmetry> symmetries=new ArrayList<Symmetry>();
+		for(Symmetry symmetry: values())
+		{
+			if(!symmetry.squareOnly || size.getX()==size.getY())
+			{
+				symmetries.add(symmetry);
+			}
+		}
+		return symmetries;
+	}
+
+	/**
+	 * Returns the square where this symmetry moves the square passed as parameter
+	 * @param square the square <code>(x-1)*n+(y-1)</code> of the slot <code>(x,y)</code>
+	 * @param m number of horizontal lines
+	 * @param n number of vertical lines
+	 * @return the transformed square
+	 */
+	public int apply(int square, int m, int n)
+	{
+		int x=square/n;
+		int y=square%n;
+		switch(this)
+		{
+		case ROTATE_180:
+			return (m-1-x)*n+(n-1-y);
+		case FLIP_HORIZONTAL:
+			return (m-1-x)*n+y;
+		case FLIP_VERTICAL:
+			return x*n+(n-1-y);
+		case ROTATE_90:
+			return y*n+(n-1-x);
+		case ROTATE_270:
+			return (n-1-y)*n+x;
+		case TRANSPOSE:
+			return y*n+x;
+		case ANTI_TRANSPOSE:
+			return (n-1-y)*n+(n-1-x);
+		default:
+			return square;
+		}
+	}
+
+	/**
+	 * Returns the image of a combination under this symmetry
+	 * @param signature the combination to be transformed
+	 * @param size the size of the chess board
+	 * @return the signature of the transformed combination
+	 */
+	public BoardSignature apply(BoardSignature signature, Coordinate size)
+	{
+		return apply(signature, BoardGeometry.getInstance(size));
+	}
+
+	/**
+	 * Returns the image of a combination under this symmetry
+	 * @param signature the combination to be transformed
+	 * @param geometry the geometry of the chess board, which must have this symmetry
+	 * @return the signature of the transformed combination
+	 */
+	public BoardSignature apply(BoardSignature signature, BoardGeometry geometry)
+	{
+		int count=signature.getNumberOfPieces();
+		int[] squares=new int[count];
+		PieceType[] types=new PieceType[count];
+		for(int i=0; i<count; i++)
+		{
+			squares[i]=geometry.getImage(this, signature.getSquare(i));
+			types[i]=signature.getType(i);
+		}
+		return new BoardSignature(squares, types, count, BoardSignature.calculateHash(squares, types, count));
+	}
+
+	/**
+	 * Returns the distinct images of a combination under the symmetries of the board, the first element
+	 * is the combination itself
+	 * @param signature the combination
+	 * @param size the size of the chess board
+	 * @return the list of distinct combinations of the orbit
+	 */
+	public static List<BoardSignature> getOrbit(BoardSignature signature, Coordinate size)
+	{
+		List<BoardSignature> orbit=new ArrayList<BoardSignature>();
+		BoardSignature image;
+		BoardGeometry geometry=BoardGeometry.getInstance(size);
+		for(Symmetry symmetry: geometry.getSymmetries())
+		{
+			image=symmetry.apply(signature, geometry);
+			if(!orbit.contains(image))
+			{
+				orbit.add(image);
+			}
+		}
+		return orbit;
+	}
+
+	/**
+	 * Returns the representative of the symmetry class of a combination: the smallest signature of its orbit
+	 * @param signature the combination
+	 * @param size the size of the chess board
+	 * @return the canonical combination
+	 */
+	public static BoardSignature getCanonical(BoardSignature signature, Coordinate size)
+	{
+		BoardSignature canonical=signature;
+		BoardSignature image;
+		BoardGeometry geometry=BoardGeometry.getInstance(size);
+		for(Symmetry symmetry: geometry.getSymmetries())
+		{
+			image=symmetry.apply(signature, geometry);
+			if(image.compareTo(canonical)<0)
+			{
+				canonical=image;
+			}
+		}
+		return canonical;
+	}
+
+	/**
+	 * Checks whether the combination is the representative of its symmetry class, so the classes
+	 * can be counted while enumerating every combination without storing them
+	 * @param signature the combination
+	 * @param size the size of the chess board
+	 * @return true if no image of the combination is smaller than the combination
+	 */
+	public static boolean isCanonical(BoardSignature signature, Coordinate size)
+	{
+		return isCanonical(signature, BoardGeometry.getInstance(size));
+	}
+
+	/**
+	 * Checks whether the combination is the representative of its symmetry class, see {@link #isCanonical(BoardSignature, Coordinate)}
+	 * @param signature the combination
+	 * @param geometry the geometry of the chess board
+	 * @return true if no image of the combination is smaller than the combination
+	 */
+	public static boolean isCanonical(BoardSignature signature, BoardGeometry geometry)
+	{
+		for(Symmetry symmetry: geometry.getSymmetries())
+		{
+			if(symmetry.apply(signature, geometry).compareTo(signature)<0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
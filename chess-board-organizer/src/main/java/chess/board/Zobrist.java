@@ -0,0 +1,33 @@
+package chess.board;
+
+import chess.piece.PieceType;
+
+/**
+ * Provides the keys used to calculate the hash of a combination of pieces on a board: the hash of a combination
+ * is the XOR of the keys of every (piece type, square) pair, so it can be updated incrementally when a piece
+ * is placed on or removed from the board.<br/>
+ * The keys are derived from the piece type and square with a mixing function so they are the same on every
+ * execution and do not depend on the board size.
+ * @author Willie
+ *
+ */
+public final class Zobrist {
+
+	private Zobrist()
+	{
+	}
+
+	/**
+	 * Returns the key of a piece type placed on a square
+	 * @param type the type of the piece
+	 * @param square the square of the piece
+	 * @return the key to be XORed with the hash of the combination
+	 */
+	public static long getKey(PieceType type, int square)
+	{
+		long z=(((long)square<<3) | type.ordinal()) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+		z=(z ^ (z>>>30)) * 0xBF58476D1CE4E5B9L;
+		z=(z ^ (z>>>27)) * 0x94D049BB133111EBL;
+		return z ^ (z>>>31);
+	}
+}
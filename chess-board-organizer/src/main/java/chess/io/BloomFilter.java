@@ -0,0 +1,109 @@
+package chess.io;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of hashes that can tell a hash is <b>not</b> in the set without keeping the hashes: every hash sets a few bits
+ * of a bit array, and a hash none of whose bits is set was never added. A hash whose bits are all set may have been added,
+ * or its bits may have been set by other hashes.<br/>
+ * The bits of a hash are taken from the 64 bits {@link chess.board.Zobrist} hash of a combination, which is already random,
+ * so no other hash function is needed.<br/>
+ * Several threads can add and check hashes at the same time without blocking each other: the words of the bit array are
+ * atomic and a bit is set with a compare and set of its word.
+ * @author Willie
+ *
+ */
+public class BloomFilter {
+
+	private static final long MULTIPLIER=0x9E3779B97F4A7C15L;
+
+	private AtomicLongArray words;
+
+	private long bits;
+
+	/**
+	 * Number of bits set by every hash
+	 */
+	private int hashes;
+
+	/**
+	 * Creates an empty filter
+	 * @param bytes the size of the bit array in bytes
+	 * @param hashes the number of bits set by every hash
+	 */
+	public BloomFilter(long bytes, int hashes)
+	{
+		if(bytes<8 || bytes/8>Integer.MAX_VALUE || hashes<1)
+		{
+			throw new RuntimeException("Incorrect size of the Bloom filter " + bytes + " bytes " + hashes + " hashes");
+		}
+		words=new AtomicLongArray((int)(bytes/8));
+		bits=words.length()*64L;
+		this.hashes=hashes;
+	}
+
+	/**
+	 * Adds a hash to the set
+	 * @param hash the hash
+	 */
+	public void put(long hash)
+	{
+		long step=getStep(hash);
+		long bit;
+		long mask;
+		long word;
+		int index;
+		for(int i=0; i<hashes; i++)
+		{
+			bit=((hash+i*step) & Long.MAX_VALUE)%bits;
+			index=(int)(bit>>>6);
+			mask=1L<<bit;
+			//another thread may set a bit of the same word in the meantime
+			word=words.get(index);
+			while((word & mask)==0 && !words.compareAndSet(index, word, word|mask))
+			{
+				word=words.get(index);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a hash may have been added to the set
+	 * @param hash the hash
+	 * @return false if the hash has not been added for sure
+	 */
+	public boolean mightContain(long hash)
+	{
+		long step=getStep(hash);
+		long bit;
+		for(int i=0; i<hashes; i++)
+		{
+			bit=((hash+i*step) & Long.MAX_VALUE)%bits;
+			if((words.get((int)(bit>>>6)) & 1L<<bit)==0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the size of the bit array
+	 * @return the number of bytes
+	 */
+	public long getBytes()
+	{
+		return words.length()*8L;
+	}
+
+	/**
+	 * The distance between the bits of a hash, the bits of two hashes which share their first bit do not
+	 * share the following ones
+	 * @param hash the hash
+	 * @return an odd number
+	 */
+	private static long getStep(long hash)
+	{
+		return Long.rotateLeft(hash*MULTIPLIER, 32) | 1;
+	}
+}
@@ -0,0 +1,85 @@
+package chess.io;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.Execution;
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+
+/**
+ * Converts the execution data files written with java serialization by previous versions (.ser files)
+ * to the binary format described by {@link ExecutionFile}
+ * @author Willie
+ *
+ */
+public class ExecutionConverter {
+
+	private static final Logger log= LoggerFactory.getLogger(ExecutionConverter.class);
+
+	private ExecutionConverter()
+	{
+	}
+
+	/**
+	 * Converts a serialized execution to an execution data file
+	 * @param inputPath the path including the filename of the serialized execution
+	 * @param outputPath the path including the filename of the execution data file to be written
+	 * @param boardSize the size of the board, only needed when the serialized execution has no boards, may be null
+	 * @return the number of combinations converted
+	 * @throws RuntimeException in case the files cannot be read or written or the size of the board is unknown
+	 */
+	public static long convert(String inputPath, String outputPath, Coordinate boardSize)
+	{
+		Execution execution=Execution.read(inputPath);
+		Coordinate size=execution.getBoardSize()!=null ? execution.getBoardSize() : boardSize;
+		if(size==null)
+		{
+			throw new RuntimeException("The size of the board is not stored in " + inputPath + ", it must be provided");
+		}
+		long count=0;
+		try {
+			ExecutionFileWriter writer=new ExecutionFileWriter(outputPath, size, execution.getPool());
+			try {
+				for(BoardSignature solution: execution.getSolutions())
+				{
+					writer.write(solution);
+					count++;
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			log.error("Error writing the execution data file " + outputPath, e);
+			throw new RuntimeException(e);
+		}
+		log.info(count + " combinations converted from " + inputPath + " to " + outputPath);
+		return count;
+	}
+
+	/**
+	 * Converts a serialized execution, the parameters are:
+	 * <ol>
+	 * <li>The path including the filename of the serialized execution
+	 * <li>The path including the filename of the execution data file to be written
+	 * <li>M size of the board (optional parameter, only needed when the serialized execution has no boards)
+	 * <li>N size of the board (optional parameter, only needed when the serialized execution has no boards)
+	 * </ol>
+	 * @param args the array of parameters
+	 */
+	public static void main(String args[])
+	{
+		if(args.length!=2 && args.length!=4)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		Coordinate boardSize=null;
+		if(args.length==4)
+		{
+			boardSize=new Coordinate(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+		}
+		convert(args[0], args[1], boardSize);
+	}
+}
@@ -0,0 +1,63 @@
+package chess.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Describes the binary format of the execution data files:
+ * <ol>
+ * <li>The magic bytes <code>CBOX</code>
+ * <li>The version of the format (short)
+ * <li>M and N size of the board (int, int)
+ * <li>The number of pieces of the pool (int) followed by the {@link chess.piece.PieceType} ordinal of every piece (byte)
+ * <li>The combinations, every combination is stored in <code>2 x number of pieces</code> bytes as packed by
+ * {@link chess.board.BoardSignature}, until the end of the file
+ * </ol>
+ * Only the occupied squares are stored, so a combination takes a few bytes no matter the size of the board.
+ * @author Willie
+ *
+ */
+public final class ExecutionFile {
+
+	/**
+	 * The first bytes of every execution data file
+	 */
+	static final byte[] MAGIC=new byte[]{'C','B','O','X'};
+
+	/**
+	 * The current version of the format
+	 */
+	static final short VERSION=1;
+
+	/**
+	 * Size of the buffers used to read and write the files
+	 */
+	static final int BUFFER_SIZE=1<<16;
+
+	private ExecutionFile()
+	{
+	}
+
+	/**
+	 * Checks whether the file is an execution data file in the binary format
+	 * @param path the path including the filename
+	 * @return true if the file starts with the magic bytes of the format, false otherwise
+	 * @throws IOException in case the file cannot be read
+	 */
+	public static boolean isExecutionFile(String path) throws IOException
+	{
+		RandomAccessFile file=new RandomAccessFile(path, "r");
+		try {
+			if(file.length()<MAGIC.length)
+			{
+				return false;
+			}
+			byte[] magic=new byte[MAGIC.length];
+			file.readFully(magic);
+			return Arrays.equals(MAGIC, magic);
+		} finally {
+			file.close();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import chess.Execution;
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+import chess.piece.PieceType;
+
+/**
+ * Reads an execution data file in the format described by {@link ExecutionFile}, the combinations are read
+ * one at a time through a buffer so the file does not need to fit in memory.<br/>
+ * This class is not thread safe.
+ * @author Willie
+ *
+ */
+public class ExecutionFileReader implements Closeable {
+
+	private FileChannel channel;
+
+	private ByteBuffer buffer;
+
+	private Coordinate boardSize;
+
+	private List<Piece> pool;
+
+	/**
+	 * Number of bytes of every combination
+	 */
+	private int recordLength;
+
+	/**
+	 * Opens the file and reads the header
+	 * @param path the path including the filename
+	 * @throws IOException in case the file cannot be read or it is not an execution data file
+	 */
+	@SuppressWarnings("resource")
+	public ExecutionFileReader(String path) throws IOException
+	{
+		channel=new FileInputStream(path).getChannel();
+		buffer=ByteBuffer.allocateDirect(ExecutionFile.BUFFER_SIZE);
+		buffer.limit(0);
+		try {
+			byte[] magic=new byte[ExecutionFile.MAGIC.length];
+			ensure(magic.length+2+4+4+4);
+			buffer.get(magic);
+			if(!Arrays.equals(magic, ExecutionFile.MAGIC))
+			{
+				throw new IOException(path + " is not an execution data file");
+			}
+			short version=buffer.getShort();
+			if(version!=ExecutionFile.VERSION)
+			{
+				throw new IOException("Unsupported execution data file version " + version);
+			}
+			boardSize=new Coordinate(buffer.getInt(), buffer.getInt());
+			int pieces=buffer.getInt();
+			ensure(pieces);
+			List<Piece> list=new ArrayList<Piece>();
+			PieceType[] types=PieceType.values();
+			byte type;
+			for(int i=0; i<pieces; i++)
+			{
+				type=buffer.get();
+				if(type<0 || type>=types.length)
+				{
+					throw new IOException("Unknown piece type " + type);
+				}
+				list.add(types[type].newPiece());
+			}
+			pool=Collections.unmodifiableList(list);
+			recordLength=pieces*2;
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Makes sure the buffer holds at least the number of bytes passed as parameter
+	 * @param bytes the number of bytes
+	 * @return false if the end of the file is reached before
+	 * @throws IOException in case the file cannot be read or it ends in the middle of a record
+	 */
+	private boolean fill(int bytes) throws IOException
+	{
+		if(buffer.remaining()>=bytes)
+		{
+			return true;
+		}
+		buffer.compact();
+		while(buffer.position()<bytes)
+		{
+			if(channel.read(buffer)<0)
+			{
+				break;
+			}
+		}
+		buffer.flip();
+		if(buffer.remaining()==0)
+		{
+			return false;
+		}
+		if(buffer.remaining()<bytes)
+		{
+			throw new IOException("Truncated execution data file");
+		}
+		return true;
+	}
+
+	private void ensure(int bytes) throws IOException
+	{
+		if(!fill(bytes))
+		{
+			throw new IOException("Truncated execution data file");
+		}
+	}
+
+	/**
+	 * Reads the next combination
+	 * @return the signature of the combination, null when there are no more combinations
+	 * @throws IOException in case the file cannot be read
+	 */
+	public BoardSignature next() throws IOException
+	{
+		if(recordLength==0 || !fill(recordLength))
+		{
+			return null;
+		}
+		byte[] packed=new byte[recordLength];
+		buffer.get(packed);
+		return new BoardSignature(packed);
+	}
+
+	public Coordinate getBoardSize() {
+		return boardSize;
+	}
+
+	/**
+	 * Returns the pool of pieces of the execution
+	 * @return an unmodifiable list of new pieces in the order they were stored
+	 */
+	public List<Piece> getPool() {
+		return pool;
+	}
+
+	/**
+	 * Reads every combination of an execution data file
+	 * @param path the path including the filename
+	 * @return the execution data
+	 * @throws IOException in case the file cannot be read
+	 */
+	public static Execution read(String path) throws IOException
+	{
+		ExecutionFileReader reader=new ExecutionFileReader(path);
+		try {
+			List<BoardSignature> solutions=new ArrayList<BoardSignature>();
+			BoardSignature solution;
+			while((solution=reader.next())!=null)
+			{
+				solutions.add(solution);
+			}
+			return new Execution(reader.getBoardSize(), new ArrayList<Piece>(reader.getPool()), solutions);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
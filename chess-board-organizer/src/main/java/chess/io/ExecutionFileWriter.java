@@ -0,0 +1,166 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * Writes an execution data file in the format described by {@link ExecutionFile}. The combinations are
+ * written to a buffer which is written to the file channel when it is full or when {@link #flush()} is called.<br/>
+ * This class is not thread safe.
+ * @author Willie
+ *
+ */
+public class ExecutionFileWriter implements Closeable {
+
+	private FileChannel channel;
+
+	private ByteBuffer buffer;
+
+	/**
+	 * Number of bytes of every combination
+	 */
+	private int recordLength;
+
+	/**
+	 * Creates the file and writes the header
+	 * @param path the path including the filename
+	 * @param boardSize the size of the chess board
+	 * @param pool the pieces placed on the board
+	 * @throws IOException in case the file cannot be created
+	 */
+	@SuppressWarnings("resource")
+	public ExecutionFileWriter(String path, Coordinate boardSize, List<Piece> pool) throws IOException
+	{
+		channel=new FileOutputStream(path).getChannel();
+		buffer=ByteBuffer.allocateDirect(ExecutionFile.BUFFER_SIZE);
+		recordLength=pool.size()*2;
+		buffer.put(ExecutionFile.MAGIC);
+		buffer.putShort(ExecutionFile.VERSION);
+		buffer.putInt(boardSize.getX());
+		buffer.putInt(boardSize.getY());
+		buffer.putInt(pool.size());
+		for(Piece piece: pool)
+		{
+			buffer.put((byte)piece.getType().ordinal());
+		}
+	}
+
+	/**
+	 * Reopens a file written for the same board and pool to append combinations, the file is first truncated to the
+	 * length passed as parameter so the combinations written after that length (for instance by an execution that was
+	 * killed) are discarded
+	 * @param path the path including the filename
+	 * @param boardSize the size of the chess board
+	 * @param pool the pieces placed on the board
+	 * @param length the length of the file, as returned by {@link #getLength()}
+	 * @throws IOException in case the file cannot be opened, it was written for another problem or it is shorter than the length
+	 */
+	@SuppressWarnings("resource")
+	public ExecutionFileWriter(String path, Coordinate boardSize, List<Piece> pool, long length) throws IOException
+	{
+		ExecutionFileReader reader=new ExecutionFileReader(path);
+		try {
+			if(!reader.getBoardSize().equals(boardSize) || reader.getPool().size()!=pool.size())
+			{
+				throw new IOException(path + " was written for another problem");
+			}
+			for(int i=0; i<pool.size(); i++)
+			{
+				if(reader.getPool().get(i).getType()!=pool.get(i).getType())
+				{
+					throw new IOException(path + " was written for another problem");
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		recordLength=pool.size()*2;
+		long headerLength=ExecutionFile.MAGIC.length+2+4+4+4+pool.size();
+		channel=new RandomAccessFile(path, "rw").getChannel();
+		if(length<headerLength || length>channel.size() || (recordLength>0 && (length-headerLength)%recordLength!=0))
+		{
+			channel.close();
+			throw new IOException("Incorrect length " + length + " of the execution data file " + path);
+		}
+		channel.truncate(length);
+		channel.position(length);
+		buffer=ByteBuffer.allocateDirect(ExecutionFile.BUFFER_SIZE);
+	}
+
+	/**
+	 * Returns the length of the file including the buffered combinations
+	 * @return the number of bytes written
+	 * @throws IOException in case the position of the file cannot be read
+	 */
+	public long getLength() throws IOException
+	{
+		return channel.position()+buffer.position();
+	}
+
+	/**
+	 * Writes a combination
+	 * @param solution the signature of the combination
+	 * @throws IOException in case the combination cannot be written
+	 */
+	public void write(BoardSignature solution) throws IOException
+	{
+		byte[] packed=solution.getPacked();
+		if(packed.length!=recordLength)
+		{
+			throw new IOException("The combination has " + solution.getNumberOfPieces() + " pieces, expected " + recordLength/2);
+		}
+		if(buffer.remaining()<recordLength)
+		{
+			writeBuffer();
+		}
+		buffer.put(packed);
+	}
+
+	/**
+	 * Writes the buffered combinations to the file, once written they are not lost if the JVM stops
+	 * @throws IOException in case the combinations cannot be written
+	 */
+	public void flush() throws IOException
+	{
+		writeBuffer();
+	}
+
+	/**
+	 * Writes the buffered combinations to the file and forces them to the disk, once written they are not lost
+	 * even if the system stops
+	 * @throws IOException in case the combinations cannot be written
+	 */
+	public void sync() throws IOException
+	{
+		writeBuffer();
+		channel.force(false);
+	}
+
+	private void writeBuffer() throws IOException
+	{
+		buffer.flip();
+		while(buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			writeBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package chess.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.CommandLineOptions;
+import chess.board.BoardSignature;
+import chess.board.Symmetry;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * Combines the execution data files written by the shards of a search, see {@link chess.ExhaustiveExecutor}, into a single
+ * execution data file. The combinations found by more than one file are written once, so the files of executions that
+ * overlap can be merged as well.<br/>
+ * Every file must have been written for the same board and pool of pieces, in the same order.<br/>
+ * The combinations already written are kept in a {@link SignatureSet}, which can be given a memory budget to merge more
+ * combinations than fit in memory.
+ * @author Willie
+ *
+ */
+public class ExecutionMerger {
+
+	private static final Logger log= LoggerFactory.getLogger(ExecutionMerger.class);
+
+	/**
+	 * The combinations already written by the running merge
+	 */
+	private SignatureSet signatures=new SignatureSet();
+
+	/**
+	 * Number of distinct combinations written by the merge
+	 */
+	private long successCount;
+
+	/**
+	 * Number of distinct combinations that are the representative of their symmetry class
+	 */
+	private long symmetryClassesCount;
+
+	/**
+	 * Number of combinations read that had already been read from another file
+	 */
+	private long duplicatesCount;
+
+	/**
+	 * Merges the execution data files
+	 * @param outputPath the path including the filename of the execution data file to be written
+	 * @param inputPaths the paths including the filenames of the execution data files to be merged
+	 * @throws RuntimeException in case the files cannot be read or written or they were written for different problems
+	 */
+	public void merge(String outputPath, List<String> inputPaths)
+	{
+		if(inputPaths.isEmpty())
+		{
+			throw new RuntimeException("There are no execution data files to be merged");
+		}
+		successCount=0;
+		symmetryClassesCount=0;
+		duplicatesCount=0;
+		try {
+			ExecutionFileReader first=new ExecutionFileReader(inputPaths.get(0));
+			Coordinate boardSize=first.getBoardSize();
+			List<Piece> pool=first.getPool();
+			first.close();
+			ExecutionFileWriter writer=new ExecutionFileWriter(outputPath, boardSize, pool);
+			try {
+				for(String inputPath: inputPaths)
+				{
+					ExecutionFileReader reader=new ExecutionFileReader(inputPath);
+					try {
+						checkProblem(reader, inputPath, boardSize, pool);
+						BoardSignature solution;
+						while((solution=reader.next())!=null)
+						{
+							if(!signatures.add(solution))
+							{
+								duplicatesCount++;
+								continue;
+							}
+							writer.write(solution);
+							successCount++;
+							if(Symmetry.isCanonical(solution, boardSize))
+							{
+								symmetryClassesCount++;
+							}
+						}
+					} finally {
+						reader.close();
+					}
+				}
+			} finally {
+				writer.close();
+				signatures.close();
+			}
+		} catch (IOException e) {
+			log.error("Error merging the execution data files into " + outputPath, e);
+			throw new RuntimeException(e);
+		}
+		log.info(inputPaths.size() + " execution data files merged into " + outputPath);
+		log.info("Total Success combinations found: " + successCount);
+		log.info("Symmetry classes found: " + symmetryClassesCount);
+		log.info("Duplicate combinations removed: " + duplicatesCount);
+	}
+
+	/**
+	 * Checks that a file was written for the same board and pool as the first file
+	 * @param reader the reader of the file
+	 * @param path the path of the file
+	 * @param boardSize the size of the board of the first file
+	 * @param pool the pool of the first file
+	 * @throws IOException in case the file was written for another problem
+	 */
+	static void checkProblem(ExecutionFileReader reader, String path, Coordinate boardSize, List<Piece> pool) throws IOException
+	{
+		boolean same=reader.getBoardSize().equals(boardSize) && reader.getPool().size()==pool.size();
+		for(int i=0; same && i<pool.size(); i++)
+		{
+			same=reader.getPool().get(i).getType()==pool.get(i).getType();
+		}
+		if(!same)
+		{
+			throw new IOException(path + " was written for another problem");
+		}
+	}
+
+	/**
+	 * Sets the set that keeps the combinations already written, it is emptied at the end of every merge.
+	 * By default every combination is kept in memory
+	 * @param signatures the set
+	 */
+	public void setSignatureSet(SignatureSet signatures) {
+		this.signatures = signatures;
+	}
+
+	/**
+	 * Returns the number of distinct combinations written by the last merge
+	 * @return the number of combinations
+	 */
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	/**
+	 * Returns the number of symmetry classes of the combinations written by the last merge
+	 * @return the number of combinations that are not a rotation or reflection of each other
+	 */
+	public long getSymmetryClassesCount() {
+		return symmetryClassesCount;
+	}
+
+	/**
+	 * Returns the number of combinations found in more than one file by the last merge
+	 * @return the number of combinations discarded
+	 */
+	public long getDuplicatesCount() {
+		return duplicatesCount;
+	}
+
+	/**
+	 * Merges execution data files, the parameters are:
+	 * <ol>
+	 * <li>The path including the filename of the execution data file to be written
+	 * <li>The paths including the filenames of the execution data files to be merged, one or more
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--memory-budget &lt;megabytes&gt;</code> the memory taken by the combinations already written, the combinations
+	 * that do not fit are written to disk. By default every combination is kept in memory
+	 * <li><code>--spill-directory &lt;path&gt;</code> the directory of the combinations written to disk, the temporary directory by default
+	 * </ul>
+	 * @param args the array of parameters
+	 */
+	public static void main(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length<2)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		ExecutionMerger merger=new ExecutionMerger();
+		merger.setSignatureSet(SignatureSet.create(options));
+		merger.merge(args[0], Arrays.asList(args).subList(1, args.length));
+	}
+}
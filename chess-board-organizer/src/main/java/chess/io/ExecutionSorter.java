@@ -0,0 +1,433 @@
+package chess.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.CommandLineOptions;
+import chess.board.BoardSignature;
+import chess.board.Symmetry;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * Sorts the combinations of any number of execution data files into a single execution data file without duplicates,
+ * with an external sort whose memory does not depend on the size of the files:
+ * <ol>
+ * <li>the combinations are read in chunks of a fixed number of combinations, every chunk is sorted by one of the threads and
+ * written without duplicates to a {@link SortedRun}. At most one chunk per thread is held in memory besides the chunk being read.
+ * <li>the runs are merged {@value #MAX_MERGED_RUNS} at a time into bigger runs until there are no more than
+ * {@value #MAX_MERGED_RUNS}, which are merged into the output file. A combination found in several runs is written once.
+ * </ol>
+ * The combinations of the output file are sorted as {@link BoardSignature#compareTo(BoardSignature)}. Every file must
+ * have been written for the same board and pool of pieces, in the same order.<br/>
+ * Every run written by a sort is registered as soon as it is created, and all of them are deleted when the sort ends,
+ * whether it succeeds or fails at any step.
+ * @author Willie
+ *
+ */
+public class ExecutionSorter {
+
+	/**
+	 * Option with the number of combinations of a chunk
+	 */
+	public static final String OPTION_CHUNK_SIZE="chunk-size";
+
+	/**
+	 * Option with the number of threads sorting the chunks
+	 */
+	public static final String OPTION_THREADS="threads";
+
+	/**
+	 * Default number of combinations of a chunk
+	 */
+	public static final int DEFAULT_CHUNK_SIZE=1000000;
+
+	/**
+	 * Maximum number of runs merged at the same time, every one is read through its own buffer
+	 */
+	public static final int MAX_MERGED_RUNS=64;
+
+	private static final Logger log= LoggerFactory.getLogger(ExecutionSorter.class);
+
+	private int chunkSize=DEFAULT_CHUNK_SIZE;
+
+	private int threads=Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The directory of the runs, null for the temporary directory
+	 */
+	private File directory;
+
+	/**
+	 * Number of combinations read from the files
+	 */
+	private long readCount;
+
+	/**
+	 * Number of distinct combinations written by the sort
+	 */
+	private long successCount;
+
+	/**
+	 * Number of distinct combinations that are the representative of their symmetry class
+	 */
+	private long symmetryClassesCount;
+
+	/**
+	 * Number of runs written by the chunks
+	 */
+	private int runsCount;
+
+	/**
+	 * Sorts the combinations of the execution data files
+	 * @param outputPath the path including the filename of the execution data file to be written
+	 * @param inputPaths the paths including the filenames of the execution data files to be sorted
+	 * @throws RuntimeException in case the files cannot be read or written or they were written for different problems
+	 */
+	public void sort(String outputPath, List<String> inputPaths)
+	{
+		if(inputPaths.isEmpty())
+		{
+			throw new RuntimeException("There are no execution data files to be sorted");
+		}
+		readCount=0;
+		successCount=0;
+		symmetryClassesCount=0;
+		//every run created by the sort, which are all deleted at the end
+		List<SortedRun> temporary=Collections.synchronizedList(new ArrayList<SortedRun>());
+		List<SortedRun> runs=new ArrayList<SortedRun>();
+		ExecutorService executor=Executors.newFixedThreadPool(threads);
+		try {
+			ExecutionFileReader first=new ExecutionFileReader(inputPaths.get(0));
+			Coordinate boardSize=first.getBoardSize();
+			List<Piece> pool=first.getPool();
+			first.close();
+			writeRuns(inputPaths, boardSize, pool, executor, runs, temporary);
+			runsCount=runs.size();
+			while(runs.size()>MAX_MERGED_RUNS)
+			{
+				List<SortedRun> merged=new ArrayList<SortedRun>();
+				for(int i=0; i<runs.size(); i+=MAX_MERGED_RUNS)
+				{
+					merged.add(mergeRuns(runs.subList(i, Math.min(runs.size(), i+MAX_MERGED_RUNS)), pool.size()*2, temporary));
+				}
+				runs=merged;
+			}
+			ExecutionFileWriter writer=new ExecutionFileWriter(outputPath, boardSize, pool);
+			SortedRunMerger merger=new SortedRunMerger(runs);
+			try {
+				byte[] previous=null;
+				byte[] packed;
+				BoardSignature solution;
+				while((packed=merger.next())!=null)
+				{
+					if(previous!=null && SortedRun.compare(previous, 0, packed)==0)
+					{
+						continue;
+					}
+					previous=packed;
+					solution=new BoardSignature(packed);
+					writer.write(solution);
+					successCount++;
+					if(Symmetry.isCanonical(solution, boardSize))
+					{
+						symmetryClassesCount++;
+					}
+				}
+			} finally {
+				merger.close();
+				writer.close();
+			}
+		} catch (IOException e) {
+			log.error("Error sorting the execution data files into " + outputPath, e);
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdownNow();
+			try {
+				//a chunk still being sorted after a failure may create its run
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (temporary) {
+				for(SortedRun run: temporary)
+				{
+					run.delete();
+				}
+			}
+		}
+		log.info(inputPaths.size() + " execution data files sorted into " + outputPath + " through " + runsCount + " runs");
+		log.info("Combinations read: " + readCount);
+		log.info("Total Success combinations found: " + successCount);
+		log.info("Symmetry classes found: " + symmetryClassesCount);
+		log.info("Duplicate combinations removed: " + getDuplicatesCount());
+	}
+
+	/**
+	 * Reads the files in chunks, every chunk is sorted and written to a run by one of the threads
+	 * @param inputPaths the paths of the files
+	 * @param boardSize the size of the board of the first file
+	 * @param pool the pool of the first file
+	 * @param executor the threads sorting the chunks
+	 * @param runs the list where the runs are added
+	 * @param temporary the list where every run created is registered
+	 * @throws IOException in case a file cannot be read or a run cannot be written
+	 */
+	private void writeRuns(List<String> inputPaths, Coordinate boardSize, List<Piece> pool, ExecutorService executor,
+			List<SortedRun> runs, List<SortedRun> temporary) throws IOException
+	{
+		//a chunk is read while every thread sorts another one
+		final Semaphore chunks=new Semaphore(threads);
+		List<Future<?>> futures=new ArrayList<Future<?>>();
+		BoardSignature[] chunk=new BoardSignature[chunkSize];
+		int size=0;
+		try {
+			for(String inputPath: inputPaths)
+			{
+				ExecutionFileReader reader=new ExecutionFileReader(inputPath);
+				try {
+					ExecutionMerger.checkProblem(reader, inputPath, boardSize, pool);
+					BoardSignature solution;
+					while((solution=reader.next())!=null)
+					{
+						chunk[size++]=solution;
+						readCount++;
+						if(size==chunkSize)
+						{
+							futures.add(submit(executor, chunks, chunk, size, runs, temporary));
+							chunk=new BoardSignature[chunkSize];
+							size=0;
+						}
+					}
+				} finally {
+					reader.close();
+				}
+			}
+			if(size>0)
+			{
+				futures.add(submit(executor, chunks, chunk, size, runs, temporary));
+			}
+			for(Future<?> future: futures)
+			{
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Hands a chunk to the threads, waiting until a thread is free
+	 * @param executor the threads
+	 * @param chunks the permits of the chunks held in memory
+	 * @param chunk the combinations of the chunk
+	 * @param size the number of combinations of the chunk
+	 * @param runs the list where the run of the chunk is added
+	 * @param temporary the list where the run of the chunk is registered
+	 * @return the future of the sort
+	 * @throws InterruptedException in case the thread is interrupted while waiting
+	 */
+	private Future<?> submit(ExecutorService executor, final Semaphore chunks, final BoardSignature[] chunk, final int size,
+			final List<SortedRun> runs, final List<SortedRun> temporary) throws InterruptedException
+	{
+		chunks.acquire();
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				try {
+					Arrays.sort(chunk, 0, size);
+					SortedRun run=createRun(chunk[0].getPacked().length, temporary);
+					synchronized (runs) {
+						runs.add(run);
+					}
+					for(int i=0; i<size; i++)
+					{
+						if(i==0 || chunk[i].compareTo(chunk[i-1])!=0)
+						{
+							run.write(chunk[i].getPacked());
+						}
+					}
+					run.finish();
+				} finally {
+					chunks.release();
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Creates a run in the directory of the runs and registers it, so it is deleted at the end of the sort. The run is
+	 * only read in order, so it is not indexed and takes no memory once written
+	 * @param recordLength the number of bytes of every combination
+	 * @param temporary the list where the run is registered
+	 * @return the new run
+	 * @throws IOException in case the file cannot be created
+	 */
+	private SortedRun createRun(int recordLength, List<SortedRun> temporary) throws IOException
+	{
+		SortedRun run=new SortedRun(directory, recordLength, false);
+		temporary.add(run);
+		return run;
+	}
+
+	/**
+	 * Merges runs into a new run without duplicates, the runs are deleted
+	 * @param runs the runs to be merged
+	 * @param recordLength the number of bytes of every combination
+	 * @param temporary the list where the new run is registered
+	 * @return the new run
+	 * @throws IOException in case the runs cannot be read or written
+	 */
+	SortedRun mergeRuns(List<SortedRun> runs, int recordLength, List<SortedRun> temporary) throws IOException
+	{
+		SortedRun merged=createRun(recordLength, temporary);
+		SortedRunMerger merger=new SortedRunMerger(runs);
+		try {
+			byte[] previous=null;
+			byte[] packed;
+			while((packed=merger.next())!=null)
+			{
+				if(previous==null || SortedRun.compare(previous, 0, packed)!=0)
+				{
+					merged.write(packed);
+					previous=packed;
+				}
+			}
+			merged.finish();
+		} finally {
+			merger.close();
+		}
+		for(SortedRun run: runs)
+		{
+			run.delete();
+		}
+		//the runs merged are no longer needed
+		temporary.removeAll(runs);
+		return merged;
+	}
+
+	/**
+	 * Sets the number of combinations of a chunk, the memory taken by the sort is proportional to the number of
+	 * combinations of a chunk times the number of threads
+	 * @param chunkSize the number of combinations
+	 */
+	public void setChunkSize(int chunkSize) {
+		if(chunkSize<=0)
+		{
+			throw new RuntimeException("Incorrect chunk size " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Sets the number of threads sorting the chunks, by default the number of processors
+	 * @param threads the number of threads
+	 */
+	public void setThreads(int threads) {
+		if(threads<=0)
+		{
+			throw new RuntimeException("Incorrect number of threads " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets the directory of the runs, by default the temporary directory
+	 * @param directory the directory
+	 */
+	public void setDirectory(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the number of combinations read by the last sort
+	 * @return the number of combinations
+	 */
+	public long getReadCount() {
+		return readCount;
+	}
+
+	/**
+	 * Returns the number of distinct combinations written by the last sort
+	 * @return the number of combinations
+	 */
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	/**
+	 * Returns the number of symmetry classes of the combinations written by the last sort
+	 * @return the number of combinations that are not a rotation or reflection of each other
+	 */
+	public long getSymmetryClassesCount() {
+		return symmetryClassesCount;
+	}
+
+	/**
+	 * Returns the number of combinations read more than once by the last sort
+	 * @return the number of combinations discarded
+	 */
+	public long getDuplicatesCount() {
+		return readCount-successCount;
+	}
+
+	/**
+	 * Returns the number of runs written by the chunks of the last sort
+	 * @return the number of runs
+	 */
+	public int getRunsCount() {
+		return runsCount;
+	}
+
+	/**
+	 * Sorts execution data files, the parameters are:
+	 * <ol>
+	 * <li>The path including the filename of the execution data file to be written
+	 * <li>The paths including the filenames of the execution data files to be sorted, one or more
+	 * </ol>
+	 * followed by the options:
+	 * <ul>
+	 * <li><code>--chunk-size &lt;number&gt;</code> the number of combinations sorted in memory by a thread,
+	 * {@value #DEFAULT_CHUNK_SIZE} by default
+	 * <li><code>--threads &lt;number&gt;</code> the number of threads sorting the chunks, by default the number of processors
+	 * <li><code>--spill-directory &lt;path&gt;</code> the directory of the runs, the temporary directory by default
+	 * </ul>
+	 * @param args the array of parameters
+	 */
+	public static void main(String args[])
+	{
+		CommandLineOptions options=new CommandLineOptions(args);
+		args=options.getParameters();
+		if(args.length<2)
+		{
+			throw new RuntimeException("Incorrect number of parameters");
+		}
+		ExecutionSorter sorter=new ExecutionSorter();
+		sorter.setChunkSize(options.getIntOption(OPTION_CHUNK_SIZE, DEFAULT_CHUNK_SIZE));
+		sorter.setThreads(options.getIntOption(OPTION_THREADS, Runtime.getRuntime().availableProcessors()));
+		String directory=options.getOption(SignatureSet.OPTION_SPILL_DIRECTORY);
+		if(directory!=null)
+		{
+			sorter.setDirectory(new File(directory));
+		}
+		sorter.sort(args[0], Arrays.asList(args).subList(1, args.length));
+	}
+}
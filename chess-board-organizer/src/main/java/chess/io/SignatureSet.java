@@ -0,0 +1,364 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.CommandLineOptions;
+import chess.board.BoardSignature;
+import chess.metrics.SolverMetrics;
+
+/**
+ * The set of the combinations found by an execution, to check whether a combination has already been found.<br/>
+ * Without a memory budget the combinations are kept in a concurrent hash set, which several threads can update at the
+ * same time without blocking each other.<br/>
+ * With a memory budget a quarter of the budget, up to {@value #MAX_BLOOM_BYTES} bytes, is taken by a {@link BloomFilter}, which
+ * tells most new combinations apart without any other lookup, and the signatures are kept in memory up to the rest of the budget.
+ * When they do not fit any more they are sorted and written to a {@link SortedRun}, and the combinations that the filter cannot
+ * tell apart are looked for in the runs with a binary search: the first combination of every block of a run is kept in memory,
+ * so a lookup reads a single block of every run. The runs are merged into one when there are more than {@value #MAX_RUNS}.<br/>
+ * The filter is checked without any lock, and the lookups in memory and in the runs share a read lock, so the threads only wait
+ * for each other while the signatures in memory are written to a run or the runs are merged.<br/>
+ * The run files are deleted by {@link #close()}.
+ * @author Willie
+ *
+ */
+public class SignatureSet implements Closeable {
+
+	/**
+	 * Option with the memory budget of the combinations found in megabytes, every combination is kept in memory by default
+	 */
+	public static final String OPTION_MEMORY_BUDGET="memory-budget";
+
+	/**
+	 * Option with the directory of the combinations written to disk when they exceed the memory budget,
+	 * the temporary directory by default
+	 */
+	public static final String OPTION_SPILL_DIRECTORY="spill-directory";
+
+	/**
+	 * Number of runs above which the runs are merged into one
+	 */
+	public static final int MAX_RUNS=16;
+
+	/**
+	 * Maximum number of bytes of the Bloom filter, the rest of a larger budget keeps more signatures in memory. The filter
+	 * has then about 8 bits per combination for 1000 million combinations
+	 */
+	public static final long MAX_BLOOM_BYTES=1L<<30;
+
+	/**
+	 * Number of bits set by every combination in the Bloom filter
+	 */
+	private static final int BLOOM_HASHES=5;
+
+	private static final Logger log= LoggerFactory.getLogger(SignatureSet.class);
+
+	/**
+	 * The memory budget in bytes, 0 if the set is not bounded
+	 */
+	private long memoryBudget;
+
+	/**
+	 * The directory of the run files
+	 */
+	private File directory;
+
+	private Set<BoardSignature> memory;
+
+	private volatile BloomFilter bloom;
+
+	/**
+	 * Taken for reading by the lookups and the additions, and for writing when the signatures in memory are written to a run
+	 */
+	private ReadWriteLock lock=new ReentrantReadWriteLock();
+
+	/**
+	 * The number of signatures kept in memory before a run is written, calculated with the first signature added
+	 */
+	private volatile long maxInMemory;
+
+	/**
+	 * The runs, only changed with the write lock
+	 */
+	private List<SortedRun> runs=new ArrayList<SortedRun>();
+
+	/**
+	 * Number of signatures written to the runs, only changed with the write lock
+	 */
+	private long spilled;
+
+	/**
+	 * Creates a set whose signatures are all kept in memory
+	 */
+	public SignatureSet()
+	{
+		this(0, null);
+	}
+
+	/**
+	 * Creates a set
+	 * @param memoryBudget the number of bytes taken by the set in memory, 0 to keep every signature in memory
+	 * @param directory the directory of the run files, null for the temporary directory
+	 */
+	public SignatureSet(long memoryBudget, File directory)
+	{
+		if(memoryBudget<0)
+		{
+			throw new RuntimeException("Incorrect memory budget " + memoryBudget);
+		}
+		this.memoryBudget=memoryBudget;
+		this.directory=directory;
+		memory=Collections.newSetFromMap(new ConcurrentHashMap<BoardSignature, Boolean>());
+		if(memoryBudget>0)
+		{
+			bloom=new BloomFilter(Math.min(MAX_BLOOM_BYTES, Math.max(8, memoryBudget/4)), BLOOM_HASHES);
+		}
+	}
+
+	/**
+	 * Creates a set with the memory budget and directory of the options {@value #OPTION_MEMORY_BUDGET} and
+	 * {@value #OPTION_SPILL_DIRECTORY}
+	 * @param options the options of the execution
+	 * @return the set
+	 * @throws RuntimeException in case the options are incorrect
+	 */
+	public static SignatureSet create(CommandLineOptions options)
+	{
+		int megabytes=options.getIntOption(OPTION_MEMORY_BUDGET, 0);
+		String directory=options.getOption(OPTION_SPILL_DIRECTORY);
+		if(directory!=null && !new File(directory).isDirectory())
+		{
+			throw new RuntimeException("Incorrect spill directory " + directory);
+		}
+		return new SignatureSet(megabytes*1024L*1024L, directory!=null ? new File(directory) : null);
+	}
+
+	/**
+	 * Adds a combination to the set
+	 * @param signature the combination
+	 * @return true if the combination was not in the set
+	 * @throws RuntimeException in case the runs cannot be read or written
+	 */
+	public boolean add(BoardSignature signature)
+	{
+		if(memoryBudget==0)
+		{
+			return memory.add(signature);
+		}
+		BloomFilter filter;
+		lock.readLock().lock();
+		try {
+			filter=bloom;
+			if(filter.mightContain(signature.getHash()) && (memory.contains(signature) || isSpilled(signature)))
+			{
+				return false;
+			}
+			//the filter is set first, so the combination is never in memory without its bits
+			filter.put(signature.getHash());
+			if(!memory.add(signature))
+			{
+				//added by another thread in the meantime
+				return false;
+			}
+			if(maxInMemory==0)
+			{
+				maxInMemory=Math.max(1, (memoryBudget-filter.getBytes())/SolverMetrics.estimateSignatureBytes(signature.getNumberOfPieces()));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		if(memory.size()>=maxInMemory)
+		{
+			lock.writeLock().lock();
+			try {
+				//another thread may have written the run in the meantime
+				if(memory.size()>=maxInMemory)
+				{
+					spill();
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether a combination is in the set
+	 * @param signature the combination
+	 * @return true if the combination has been added
+	 * @throws RuntimeException in case the runs cannot be read
+	 */
+	public boolean contains(BoardSignature signature)
+	{
+		if(memoryBudget==0)
+		{
+			return memory.contains(signature);
+		}
+		if(!bloom.mightContain(signature.getHash()))
+		{
+			return false;
+		}
+		lock.readLock().lock();
+		try {
+			return memory.contains(signature) || isSpilled(signature);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of combinations of the set
+	 * @return the number of combinations
+	 */
+	public long size()
+	{
+		if(memoryBudget==0)
+		{
+			return memory.size();
+		}
+		lock.readLock().lock();
+		try {
+			return memory.size()+spilled;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of combinations kept in memory, the others are in the runs
+	 * @return the number of combinations
+	 */
+	public long getSizeInMemory()
+	{
+		return memory.size();
+	}
+
+	/**
+	 * Returns the number of run files
+	 * @return the number of runs
+	 */
+	public int getRunsCount()
+	{
+		lock.readLock().lock();
+		try {
+			return runs.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Deletes the run files and empties the set
+	 */
+	@Override
+	public void close()
+	{
+		lock.writeLock().lock();
+		try {
+			for(SortedRun run: runs)
+			{
+				run.delete();
+			}
+			runs.clear();
+			memory.clear();
+			spilled=0;
+			if(bloom!=null)
+			{
+				bloom=new BloomFilter(bloom.getBytes(), BLOOM_HASHES);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean isSpilled(BoardSignature signature)
+	{
+		try {
+			for(SortedRun run: runs)
+			{
+				if(run.contains(signature.getPacked()))
+				{
+					return true;
+				}
+			}
+			return false;
+		} catch (IOException e) {
+			throw new RuntimeException("Error reading the combinations written to disk", e);
+		}
+	}
+
+	/**
+	 * Writes the signatures kept in memory to a new run, sorted, with the write lock
+	 */
+	private void spill()
+	{
+		BoardSignature[] sorted=memory.toArray(new BoardSignature[memory.size()]);
+		Arrays.sort(sorted);
+		SortedRun run=null;
+		try {
+			run=new SortedRun(directory, sorted[0].getPacked().length);
+			for(BoardSignature signature: sorted)
+			{
+				run.write(signature.getPacked());
+			}
+			run.finish();
+			runs.add(run);
+			log.debug(sorted.length + " combinations written to " + run.getFile());
+			spilled+=sorted.length;
+			memory.clear();
+			if(runs.size()>MAX_RUNS)
+			{
+				mergeRuns();
+			}
+		} catch (IOException e) {
+			if(run!=null && !runs.contains(run))
+			{
+				run.delete();
+			}
+			throw new RuntimeException("Error writing the combinations to disk", e);
+		}
+	}
+
+	/**
+	 * Merges all the runs into one, the runs do not have any combination in common
+	 * @throws IOException in case the runs cannot be read or written
+	 */
+	private void mergeRuns() throws IOException
+	{
+		SortedRun merged=new SortedRun(directory, runs.get(0).getRecordLength());
+		SortedRunMerger merger=new SortedRunMerger(runs);
+		try {
+			byte[] packed;
+			while((packed=merger.next())!=null)
+			{
+				merged.write(packed);
+			}
+			merged.finish();
+		} catch (IOException e) {
+			merged.delete();
+			throw e;
+		} finally {
+			merger.close();
+		}
+		for(SortedRun run: runs)
+		{
+			run.delete();
+		}
+		runs.clear();
+		runs.add(merged);
+		log.debug(spilled + " combinations merged into " + merged.getFile());
+	}
+}
@@ -0,0 +1,270 @@
+package chess.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A temporary file of packed signatures of the same length written in increasing order, see
+ * {@link chess.board.BoardSignature#compareTo(chess.board.BoardSignature)}.<br/>
+ * The first signature of every block of {@value #BLOCK_SIZE} bytes of an indexed run is kept in memory while the run is
+ * written, so {@link #contains(byte[])} finds a signature reading a single block of the file. The runs that are only read
+ * in order by a {@link SortedRunMerger} are written without the index, so they do not take any memory once written.<br/>
+ * This class is not thread safe, except {@link #contains(byte[])} which several threads may call at the same time once the
+ * run is finished: every lookup reads its block at its position of the file, without moving a shared file pointer.
+ * @author Willie
+ *
+ */
+class SortedRun {
+
+	/**
+	 * Number of bytes of the blocks read by a lookup
+	 */
+	static final int BLOCK_SIZE=4096;
+
+	/**
+	 * Number of bytes of the buffers used to write and read a run in order
+	 */
+	static final int BUFFER_SIZE=BLOCK_SIZE*16;
+
+	private static final Logger log= LoggerFactory.getLogger(SortedRun.class);
+
+	private File file;
+
+	private int recordLength;
+
+	/**
+	 * Number of signatures of a block
+	 */
+	private int recordsPerBlock;
+
+	private long count;
+
+	/**
+	 * The first signature of every block, null if the run is not indexed
+	 */
+	private List<byte[]> index;
+
+	private DataOutputStream output;
+
+	private RandomAccessFile input;
+
+	/**
+	 * The channel of the file read by the lookups, opened by the first lookup
+	 */
+	private volatile FileChannel channel;
+
+	private boolean deleted;
+
+	/**
+	 * Creates an empty indexed run ready to be written
+	 * @param directory the directory of the file, null for the temporary directory
+	 * @param recordLength the number of bytes of every signature
+	 * @throws IOException in case the file cannot be created
+	 */
+	SortedRun(File directory, int recordLength) throws IOException
+	{
+		this(directory, recordLength, true);
+	}
+
+	/**
+	 * Creates an empty run ready to be written
+	 * @param directory the directory of the file, null for the temporary directory
+	 * @param recordLength the number of bytes of every signature
+	 * @param indexed true to keep the index needed by {@link #contains(byte[])}, false if the run is only read in order
+	 * @throws IOException in case the file cannot be created
+	 */
+	SortedRun(File directory, int recordLength, boolean indexed) throws IOException
+	{
+		if(indexed)
+		{
+			index=new ArrayList<byte[]>();
+		}
+		file=File.createTempFile("signatures", ".run", directory);
+		file.deleteOnExit();
+		this.recordLength=recordLength;
+		recordsPerBlock=Math.max(1, BLOCK_SIZE/recordLength);
+		output=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+	}
+
+	/**
+	 * Appends a signature to the run, the signatures must be written in increasing order
+	 * @param packed the packed signature, it is kept by the run when it is the first of a block
+	 * @throws IOException in case the file cannot be written
+	 */
+	void write(byte[] packed) throws IOException
+	{
+		if(index!=null && count%recordsPerBlock==0)
+		{
+			index.add(packed);
+		}
+		output.write(packed);
+		count++;
+	}
+
+	/**
+	 * Closes the output of the run, which can be read afterwards
+	 * @throws IOException in case the file cannot be written
+	 */
+	void finish() throws IOException
+	{
+		output.close();
+		output=null;
+	}
+
+	/**
+	 * Looks for a signature with a binary search on the first signature of every block and then on a single block
+	 * @param packed the packed signature
+	 * @return true if the run has the signature
+	 * @throws IOException in case the file cannot be read
+	 * @throws RuntimeException in case the run is not indexed
+	 */
+	boolean contains(byte[] packed) throws IOException
+	{
+		if(index==null)
+		{
+			throw new RuntimeException("The run " + file + " is not indexed");
+		}
+		//the last block whose first signature is not greater than the signature
+		int low=0;
+		int high=index.size()-1;
+		int middle;
+		while(low<=high)
+		{
+			middle=(low+high)>>>1;
+			if(compare(index.get(middle), 0, packed)<=0)
+			{
+				low=middle+1;
+			}else{
+				high=middle-1;
+			}
+		}
+		if(high<0)
+		{
+			return false;
+		}
+		int records=(int)Math.min(recordsPerBlock, count-(long)high*recordsPerBlock);
+		byte[] block=new byte[records*recordLength];
+		ByteBuffer buffer=ByteBuffer.wrap(block);
+		long position=(long)high*recordsPerBlock*recordLength;
+		FileChannel reader=getChannel();
+		while(buffer.hasRemaining())
+		{
+			if(reader.read(buffer, position+buffer.position())<0)
+			{
+				throw new IOException("Unexpected end of " + file);
+			}
+		}
+		low=0;
+		high=records-1;
+		int difference;
+		while(low<=high)
+		{
+			middle=(low+high)>>>1;
+			difference=compare(block, middle*recordLength, packed);
+			if(difference==0)
+			{
+				return true;
+			}else if(difference<0)
+			{
+				low=middle+1;
+			}else{
+				high=middle-1;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the channel read by the lookups, opening the file the first time
+	 * @return the channel
+	 * @throws IOException in case the file cannot be opened
+	 */
+	private FileChannel getChannel() throws IOException
+	{
+		FileChannel current=channel;
+		if(current==null)
+		{
+			synchronized (this) {
+				if(channel==null)
+				{
+					input=new RandomAccessFile(file, "r");
+					channel=input.getChannel();
+				}
+				current=channel;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Closes and deletes the file, nothing is done if it is already deleted
+	 */
+	synchronized void delete()
+	{
+		if(deleted)
+		{
+			return;
+		}
+		deleted=true;
+		try {
+			if(output!=null)
+			{
+				output.close();
+			}
+			if(input!=null)
+			{
+				input.close();
+			}
+		} catch (IOException e) {
+			log.error("Error closing " + file, e);
+		}
+		if(!file.delete())
+		{
+			log.warn("The run file " + file + " could not be deleted");
+		}
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	int getRecordLength() {
+		return recordLength;
+	}
+
+	long getCount() {
+		return count;
+	}
+
+	/**
+	 * Compares two packed signatures as unsigned bytes, as {@link chess.board.BoardSignature#compareTo(chess.board.BoardSignature)} does
+	 * @param buffer the array of the first signature
+	 * @param offset the position of the first signature in the array
+	 * @param packed the second signature
+	 * @return a negative number, zero or a positive number if the first signature is lower, equal or greater than the second
+	 */
+	static int compare(byte[] buffer, int offset, byte[] packed)
+	{
+		int difference;
+		for(int i=0; i<packed.length; i++)
+		{
+			difference=(buffer[offset+i] & 0xFF) - (packed[i] & 0xFF);
+			if(difference!=0)
+			{
+				return difference;
+			}
+		}
+		return 0;
+	}
+}
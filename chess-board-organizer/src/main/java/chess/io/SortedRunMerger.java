@@ -0,0 +1,117 @@
+package chess.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reads several {@link SortedRun}s at the same time returning their signatures in increasing order (a k-way merge),
+ * a signature written to several runs is returned once for every run. Every run is read through its own buffer, so the
+ * memory taken by a merge only depends on the number of runs.<br/>
+ * This class is not thread safe.
+ * @author Willie
+ *
+ */
+class SortedRunMerger implements Closeable {
+
+	private PriorityQueue<Cursor> cursors=new PriorityQueue<Cursor>();
+
+	/**
+	 * Opens the runs, they must have been finished
+	 * @param runs the runs to be merged
+	 * @throws IOException in case a run cannot be read
+	 */
+	SortedRunMerger(List<SortedRun> runs) throws IOException
+	{
+		try {
+			for(SortedRun run: runs)
+			{
+				Cursor cursor=new Cursor(run);
+				if(cursor.next())
+				{
+					cursors.add(cursor);
+				}
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the next signature of the runs
+	 * @return the packed signature, null when every run has been read
+	 * @throws IOException in case a run cannot be read
+	 */
+	byte[] next() throws IOException
+	{
+		Cursor cursor=cursors.poll();
+		if(cursor==null)
+		{
+			return null;
+		}
+		byte[] packed=cursor.current;
+		if(cursor.next())
+		{
+			cursors.add(cursor);
+		}
+		return packed;
+	}
+
+	@Override
+	public void close() throws IOException {
+		Cursor cursor;
+		while((cursor=cursors.poll())!=null)
+		{
+			cursor.in.close();
+		}
+	}
+
+	/**
+	 * Reads the signatures of a run in order
+	 */
+	private static class Cursor implements Comparable<Cursor> {
+
+		private DataInputStream in;
+
+		private long remaining;
+
+		private int recordLength;
+
+		private byte[] current;
+
+		Cursor(SortedRun run) throws IOException
+		{
+			in=new DataInputStream(new BufferedInputStream(new FileInputStream(run.getFile()), SortedRun.BUFFER_SIZE));
+			remaining=run.getCount();
+			recordLength=run.getRecordLength();
+		}
+
+		/**
+		 * Reads the next signature of the run, the file is closed when there is none
+		 * @return false if every signature of the run has been read
+		 * @throws IOException in case the file cannot be read
+		 */
+		boolean next() throws IOException
+		{
+			if(remaining==0)
+			{
+				in.close();
+				return false;
+			}
+			current=new byte[recordLength];
+			in.readFully(current);
+			remaining--;
+			return true;
+		}
+
+		@Override
+		public int compareTo(Cursor other) {
+			return SortedRun.compare(current, 0, other.current);
+		}
+	}
+}
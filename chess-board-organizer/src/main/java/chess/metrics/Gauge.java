@@ -0,0 +1,15 @@
+package chess.metrics;
+
+/**
+ * A value read from the solver when the metrics are reported, for instance the size of a queue
+ * @author Willie
+ *
+ */
+public interface Gauge {
+
+	/**
+	 * Returns the current value
+	 * @return the value
+	 */
+	long getValue();
+}
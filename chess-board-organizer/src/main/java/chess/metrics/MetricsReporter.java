@@ -0,0 +1,122 @@
+package chess.metrics;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.text.DecimalFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the {@link SolverMetrics} of a running solver as a JMX MBean named
+ * <code>chess:type=SolverMetrics,name=&lt;solver&gt;,id=&lt;n&gt;</code> and logs them periodically, the rates
+ * of the log line are calculated over the last period.
+ * @author Willie
+ *
+ */
+public class MetricsReporter implements Closeable {
+
+	public static final int DEFAULT_INTERVAL=10;
+
+	private static final AtomicInteger sequence=new AtomicInteger();
+
+	private Logger log= LoggerFactory.getLogger(MetricsReporter.class);
+
+	private SolverMetrics metrics;
+
+	private ObjectName objectName;
+
+	private ScheduledExecutorService scheduler;
+
+	private long lastTime;
+
+	private long lastNodesVisited;
+
+	private long lastSolutionsFound;
+
+	/**
+	 * Registers the MBean and starts logging the metrics
+	 * @param name the name of the solver
+	 * @param metrics the metrics of the solver
+	 * @param interval the number of seconds between two log lines
+	 */
+	public MetricsReporter(String name, SolverMetrics metrics, int interval)
+	{
+		this.metrics=metrics;
+		try {
+			MBeanServer server=ManagementFactory.getPlatformMBeanServer();
+			objectName=new ObjectName("chess:type=SolverMetrics,name=" + name + ",id=" + sequence.incrementAndGet());
+			server.registerMBean(metrics, objectName);
+		} catch (JMException e) {
+			log.warn("The solver metrics could not be registered in the MBean server", e);
+			objectName=null;
+		}
+		lastTime=System.nanoTime();
+		scheduler=Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread=new Thread(runnable, "metrics-reporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				report();
+			}
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Logs the metrics, the rates are calculated since the previous call
+	 */
+	public synchronized void report()
+	{
+		long now=System.nanoTime();
+		long nodesVisited=metrics.getNodesVisited();
+		long solutionsFound=metrics.getSolutionsFound();
+		double seconds=Math.max(now-lastTime, 1)/1e9;
+		DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance();
+		df.applyPattern("#####0.0#");
+		log.info("Metrics: positions tried " + nodesVisited + " (" + df.format((nodesVisited-lastNodesVisited)/seconds) + "/s)"
+				+ ", placements pruned " + metrics.getPlacementsPruned()
+				+ ", duplicate checks " + metrics.getDuplicateCheckHits() + " hits/" + metrics.getDuplicateCheckMisses() + " misses"
+				+ " (" + df.format(metrics.getAverageDuplicateCheckNanos()) + " ns)"
+				+ ", combinations " + solutionsFound + " (" + df.format((solutionsFound-lastSolutionsFound)/seconds) + "/s)"
+				+ ", stored combinations " + metrics.getStoredSolutionBytes() + " bytes"
+				+ ", queued tasks " + metrics.getQueueDepth());
+		lastTime=now;
+		lastNodesVisited=nodesVisited;
+		lastSolutionsFound=solutionsFound;
+	}
+
+	/**
+	 * Stops logging the metrics and unregisters the MBean
+	 */
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		if(objectName!=null)
+		{
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (JMException e) {
+				log.warn("The solver metrics could not be unregistered from the MBean server", e);
+			}
+		}
+	}
+
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+}
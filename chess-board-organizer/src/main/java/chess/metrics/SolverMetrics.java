@@ -0,0 +1,195 @@
+package chess.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics of a solver: the positions tried, the placements discarded because the piece would be threatened or
+ * would threaten another piece, the checks of a combination against the combinations already found, the combinations
+ * found, the memory taken by the combinations kept by the solver and the tasks waiting to be run.<br/>
+ * The counters are {@link StripedCounter}s so they can be updated by every thread of the search without slowing it
+ * down, the rates are calculated from the moment the metrics are created or {@link #reset()}.
+ * @author Willie
+ *
+ */
+public class SolverMetrics implements SolverMetricsMBean {
+
+	/**
+	 * Estimated number of bytes of a {@link chess.board.BoardSignature} object without its pieces, plus the entry
+	 * of the hash set that holds it
+	 */
+	private static final int SIGNATURE_OVERHEAD=32+16+48;
+
+	private static final Gauge ZERO=new Gauge() {
+		@Override
+		public long getValue() {
+			return 0;
+		}
+	};
+
+	private final StripedCounter nodesVisited=new StripedCounter();
+
+	private final StripedCounter placementsPruned=new StripedCounter();
+
+	private final StripedCounter duplicateCheckHits=new StripedCounter();
+
+	private final StripedCounter duplicateCheckMisses=new StripedCounter();
+
+	/**
+	 * Total time of the timed duplicate checks
+	 */
+	private final StripedCounter duplicateCheckNanos=new StripedCounter();
+
+	/**
+	 * Number of duplicate checks whose time was measured
+	 */
+	private final StripedCounter timedDuplicateChecks=new StripedCounter();
+
+	private final StripedCounter solutionsFound=new StripedCounter();
+
+	private volatile Gauge storedSolutionBytes=ZERO;
+
+	private volatile Gauge queueDepth=ZERO;
+
+	private volatile long startTime=System.nanoTime();
+
+	/**
+	 * Returns the estimated memory taken by a combination kept in a hash set
+	 * @param pieces the number of pieces of the combination
+	 * @return the number of bytes
+	 */
+	public static long estimateSignatureBytes(int pieces)
+	{
+		//the packed array of two bytes per piece, aligned to 8 bytes
+		return SIGNATURE_OVERHEAD+((16+pieces*2+7)&~7);
+	}
+
+	/**
+	 * Restarts the time the rates are calculated from, the counters are not modified
+	 */
+	public void reset()
+	{
+		startTime=System.nanoTime();
+	}
+
+	public void addNodesVisited(long nodes)
+	{
+		nodesVisited.add(nodes);
+	}
+
+	public void addPlacementsPruned(long placements)
+	{
+		placementsPruned.add(placements);
+	}
+
+	/**
+	 * Registers the result of checking combinations against the combinations already found
+	 * @param hits the number of combinations already found
+	 * @param misses the number of new combinations
+	 */
+	public void addDuplicateChecks(long hits, long misses)
+	{
+		duplicateCheckHits.add(hits);
+		duplicateCheckMisses.add(misses);
+	}
+
+	/**
+	 * Registers a duplicate check whose time was measured
+	 * @param hit true if the combination had already been found
+	 * @param nanos the time taken by the check
+	 */
+	public void addTimedDuplicateCheck(boolean hit, long nanos)
+	{
+		(hit?duplicateCheckHits:duplicateCheckMisses).increment();
+		duplicateCheckNanos.add(nanos);
+		timedDuplicateChecks.increment();
+	}
+
+	/**
+	 * Registers the time taken by a sample of the duplicate checks, the results of the checks are registered
+	 * with {@link #addDuplicateChecks(long, long)}
+	 * @param checks the number of checks whose time was measured
+	 * @param nanos the total time taken by those checks
+	 */
+	public void addDuplicateCheckTime(long checks, long nanos)
+	{
+		duplicateCheckNanos.add(nanos);
+		timedDuplicateChecks.add(checks);
+	}
+
+	public void addSolutionsFound(long solutions)
+	{
+		solutionsFound.add(solutions);
+	}
+
+	public void setStoredSolutionBytes(Gauge storedSolutionBytes)
+	{
+		this.storedSolutionBytes=storedSolutionBytes==null?ZERO:storedSolutionBytes;
+	}
+
+	public void setQueueDepth(Gauge queueDepth)
+	{
+		this.queueDepth=queueDepth==null?ZERO:queueDepth;
+	}
+
+	@Override
+	public long getNodesVisited() {
+		return nodesVisited.sum();
+	}
+
+	@Override
+	public double getNodesVisitedPerSecond() {
+		return perSecond(getNodesVisited());
+	}
+
+	@Override
+	public long getPlacementsPruned() {
+		return placementsPruned.sum();
+	}
+
+	@Override
+	public long getDuplicateCheckHits() {
+		return duplicateCheckHits.sum();
+	}
+
+	@Override
+	public long getDuplicateCheckMisses() {
+		return duplicateCheckMisses.sum();
+	}
+
+	@Override
+	public double getAverageDuplicateCheckNanos() {
+		long checks=timedDuplicateChecks.sum();
+		return checks==0?0:duplicateCheckNanos.sum()/(double)checks;
+	}
+
+	@Override
+	public long getSolutionsFound() {
+		return solutionsFound.sum();
+	}
+
+	@Override
+	public double getSolutionsPerSecond() {
+		return perSecond(getSolutionsFound());
+	}
+
+	@Override
+	public long getStoredSolutionBytes() {
+		return storedSolutionBytes.getValue();
+	}
+
+	@Override
+	public long getQueueDepth() {
+		return queueDepth.getValue();
+	}
+
+	@Override
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime()-startTime);
+	}
+
+	private double perSecond(long count)
+	{
+		long elapsed=System.nanoTime()-startTime;
+		return elapsed<=0?0:count*1e9/elapsed;
+	}
+}
@@ -0,0 +1,31 @@
+package chess.metrics;
+
+/**
+ * The metrics of a running solver as exposed through JMX, see {@link SolverMetrics}
+ * @author Willie
+ *
+ */
+public interface SolverMetricsMBean {
+
+	long getNodesVisited();
+
+	double getNodesVisitedPerSecond();
+
+	long getPlacementsPruned();
+
+	long getDuplicateCheckHits();
+
+	long getDuplicateCheckMisses();
+
+	double getAverageDuplicateCheckNanos();
+
+	long getSolutionsFound();
+
+	double getSolutionsPerSecond();
+
+	long getStoredSolutionBytes();
+
+	long getQueueDepth();
+
+	long getElapsedMillis();
+}
@@ -0,0 +1,58 @@
+package chess.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter updated by many threads at the same time. The count is split in stripes and every thread adds to the
+ * stripe chosen by its id, so the threads do not compete for the same value and the stripes are padded so
+ * they do not share a cache line. Reading the count adds up every stripe, which is slower than updating it.
+ * @author Willie
+ *
+ */
+public class StripedCounter {
+
+	/**
+	 * Number of longs of a cache line, only the first long of every cache line is used
+	 */
+	private static final int PADDING=8;
+
+	private static final int STRIPES=Integer.highestOneBit(Runtime.getRuntime().availableProcessors()*2-1)<<1;
+
+	private final AtomicLongArray cells=new AtomicLongArray(STRIPES*PADDING);
+
+	/**
+	 * Adds a value to the count
+	 * @param value the value to be added
+	 */
+	public void add(long value)
+	{
+		if(value!=0)
+		{
+			cells.getAndAdd(getStripe()*PADDING, value);
+		}
+	}
+
+	public void increment()
+	{
+		add(1);
+	}
+
+	/**
+	 * Returns the count, the updates made while the count is read may or may not be included
+	 * @return the sum of every stripe
+	 */
+	public long sum()
+	{
+		long sum=0;
+		for(int i=0; i<STRIPES; i++)
+		{
+			sum+=cells.get(i*PADDING);
+		}
+		return sum;
+	}
+
+	private static int getStripe()
+	{
+		return (int)((Thread.currentThread().getId()*0x9E3779B97F4A7C15L)>>>32) & (STRIPES-1);
+	}
+}
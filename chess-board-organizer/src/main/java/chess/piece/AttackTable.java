@@ -0,0 +1,131 @@
+package chess.piece;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stores the capture slots of a type of piece from every slot of a board of a given size.<br/>
+ * The tables are calculated once per piece type and board size and shared by every board and thread,
+ * they are immutable once created. The slot <code>(x,y)</code> of a board of size <code>m x n</code> is the
+ * square <code>(x-1)*n+(y-1)</code>, the same numbering used by {@link chess.board.BitBoard}.
+ * @author Willie
+ *
+ */
+public final class AttackTable {
+
+	/**
+	 * The tables already calculated, the key is built from the piece type and board size
+	 */
+	private static final ConcurrentMap<Long, AttackTable> tables=new ConcurrentHashMap<Long, AttackTable>();
+
+	private final PieceType type;
+
+	private final int m;
+
+	private final int n;
+
+	/**
+	 * Unmodifiable list of capture slots coordinates indexed by square
+	 */
+	private final List<List<Coordinate>> capturePositions;
+
+	/**
+	 * Capture slots as bit masks indexed by square
+	 */
+	private final long[][] masks;
+
+	/**
+	 * Returns the table of the piece type for the board size, calculating it the first time it is requested
+	 * @param type the type of piece
+	 * @param size the size of the chess board <code>(m x n-->(m,n))</code>
+	 * @return the attack table
+	 */
+	public static AttackTable getInstance(PieceType type, Coordinate size)
+	{
+		Long key=Long.valueOf(((long)type.ordinal()<<48) | ((long)size.getX()<<24) | size.getY());
+		AttackTable table=tables.get(key);
+		if(table==null)
+		{
+			table=new AttackTable(type, size.getX(), size.getY());
+			AttackTable previous=tables.putIfAbsent(key, table);
+			if(previous!=null)
+			{
+				table=previous;
+			}
+		}
+		return table;
+	}
+
+	private AttackTable(PieceType type, int m, int n)
+	{
+		this.type=type;
+		this.m=m;
+		this.n=n;
+		Piece piece=type.newPiece();
+		Coordinate size=Coordinate.valueOf(m, n);
+		List<List<Coordinate>> positions=new ArrayList<List<Coordinate>>(m*n);
+		masks=new long[m*n][];
+		List<Coordinate> coordinates;
+		long[] mask;
+		int square;
+		for(int x=1; x<=m; x++)
+		{
+			for(int y=1; y<=n; y++)
+			{
+				coordinates=piece.calculateCapturePositions(Coordinate.valueOf(x, y), size);
+				mask=new long[(m*n+63)>>>6];
+				for(Coordinate coordinate: coordinates)
+				{
+					square=(coordinate.getX()-1)*n+coordinate.getY()-1;
+					mask[square>>>6]|=1L<<square;
+				}
+				positions.add(Collections.unmodifiableList(coordinates));
+				masks[(x-1)*n+y-1]=mask;
+			}
+		}
+		capturePositions=Collections.unmodifiableList(positions);
+	}
+
+	/**
+	 * Returns the capture slots of the piece placed on the position passed as parameter
+	 * @param position the position of the piece on the board
+	 * @return an unmodifiable list of the coordinates threatened by the piece
+	 * @throws RuntimeException in case the position is outside the board
+	 */
+	public List<Coordinate> getCapturePositions(Coordinate position)
+	{
+		if(position.getX()<1 || position.getX()>m || position.getY()<1 || position.getY()>n)
+		{
+			throw new RuntimeException("Coordinate ("+position.getX()+","+position.getY()+") is outside the board");
+		}
+		return capturePositions.get((position.getX()-1)*n+position.getY()-1);
+	}
+
+	/**
+	 * Returns the capture slots of the piece placed on the square passed as parameter as a bit mask.
+	 * The returned array is shared and <b>must not</b> be modified
+	 * @param square the square of the piece
+	 * @return the mask of threatened squares
+	 */
+	public long[] getMask(int square)
+	{
+		return masks[square];
+	}
+
+	/**
+	 * Returns the number of slots threatened by the piece placed on the square passed as parameter
+	 * @param square the square of the piece
+	 * @return the number of capture slots
+	 */
+	public int getAttackCount(int square)
+	{
+		return capturePositions.get(square).size();
+	}
+
+	public PieceType getType() {
+		return type;
+	}
+}
@@ -23,7 +23,7 @@ public class Bishop extends Piece {
 		int yCoord=position.getY()-1;
 		while(xCoord>=1 && yCoord>=1)
 		{
-			coordinates.add(new Coordinate(xCoord,yCoord));
+			coordinates.add(Coordinate.valueOf(xCoord,yCoord));
 			xCoord--;
 			yCoord--;
 		}
@@ -31,7 +31,7 @@ public class Bishop extends Piece {
 		yCoord=position.getY()-1;
 		while(xCoord<=size.getX() && yCoord>=1)
 		{
-			coordinates.add(new Coordinate(xCoord,yCoord));
+			coordinates.add(Coordinate.valueOf(xCoord,yCoord));
 			xCoord++;
 			yCoord--;
 		}
@@ -39,7 +39,7 @@ public class Bishop extends Piece {
 		yCoord=position.getY()+1;
 		while(xCoord>=1 && yCoord<=size.getY())
 		{
-			coordinates.add(new Coordinate(xCoord,yCoord));
+			coordinates.add(Coordinate.valueOf(xCoord,yCoord));
 			xCoord--;
 			yCoord++;
 		}
@@ -47,7 +47,7 @@ public class Bishop extends Piece {
 		yCoord=position.getY()+1;
 		while(xCoord<=size.getX() && yCoord<=size.getY())
 		{
-			coordinates.add(new Coordinate(xCoord,yCoord));
+			coordinates.add(Coordinate.valueOf(xCoord,yCoord));
 			xCoord++;
 			yCoord++;
 		}
@@ -59,4 +59,9 @@ public class Bishop extends Piece {
 		return "B";
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.BISHOP;
+	}
+
 }
@@ -15,8 +15,27 @@ public class Coordinate implements Serializable{
 	 * 
 	 */
 	private static final long serialVersionUID = 7980218538079990943L;
-	private int x;
-	private int y;
+
+	/**
+	 * The coordinates up to <code>(CACHE_SIZE,CACHE_SIZE)</code> are shared, see {@link #valueOf(int, int)}
+	 */
+	private static final int CACHE_SIZE=64;
+
+	private static final Coordinate[][] CACHE=new Coordinate[CACHE_SIZE][CACHE_SIZE];
+
+	static
+	{
+		for(int x=1; x<=CACHE_SIZE; x++)
+		{
+			for(int y=1; y<=CACHE_SIZE; y++)
+			{
+				CACHE[x-1][y-1]=new Coordinate(x, y);
+			}
+		}
+	}
+
+	private final int x;
+	private final int y;
 
 	/**
 	 * Constructor that takes as parameter a coordinate represented by a string which must comply
@@ -55,6 +74,22 @@ public class Coordinate implements Serializable{
 		this.y = y;
 	}
 
+	/**
+	 * Returns the coordinate <code>(x,y)</code>. Coordinates are immutable, so the coordinates of the slots of the boards
+	 * up to <code>64 x 64</code> are created once and shared instead of creating a new object every time
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the coordinate
+	 */
+	public static Coordinate valueOf(int x, int y)
+	{
+		if(x>=1 && x<=CACHE_SIZE && y>=1 && y<=CACHE_SIZE)
+		{
+			return CACHE[x-1][y-1];
+		}
+		return new Coordinate(x, y);
+	}
+
 	public int getX() {
 		return x;
 	}
@@ -76,6 +111,9 @@ public class Coordinate implements Serializable{
 			return false;
 		}
 	}
-	
-	
+
+	@Override
+	public int hashCode() {
+		return 31*x+y;
+	}
 }
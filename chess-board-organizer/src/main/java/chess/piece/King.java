@@ -30,7 +30,7 @@ public class King extends Piece {
 				{
 					continue;
 				}
-				coordinates.add(new Coordinate(x, y));
+				coordinates.add(Coordinate.valueOf(x, y));
 			}
 		}
 		
@@ -42,4 +42,9 @@ public class King extends Piece {
 		return "K";
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.KING;
+	}
+
 }
@@ -24,16 +24,16 @@ public class Knight extends Piece {
 			{
 				if(position.getY()>1 && position.getY()<size.getY())
 				{
-					coordinates.add(new Coordinate(x,position.getY()-1));
-					coordinates.add(new Coordinate(x,position.getY()+1));
+					coordinates.add(Coordinate.valueOf(x,position.getY()-1));
+					coordinates.add(Coordinate.valueOf(x,position.getY()+1));
 				}else
 				if(position.getY()==1)
 				{
-					coordinates.add(new Coordinate(x,position.getY()+1));
+					coordinates.add(Coordinate.valueOf(x,position.getY()+1));
 				}else
 				if(position.getY()==size.getY())
 				{
-					coordinates.add(new Coordinate(x,position.getY()-1));
+					coordinates.add(Coordinate.valueOf(x,position.getY()-1));
 				}
 			}
 		}		
@@ -43,16 +43,16 @@ public class Knight extends Piece {
 			{
 				if(position.getX()>1 && position.getX()<size.getX())
 				{
-					coordinates.add(new Coordinate(position.getX()-1,y));
-					coordinates.add(new Coordinate(position.getX()+1,y));
+					coordinates.add(Coordinate.valueOf(position.getX()-1,y));
+					coordinates.add(Coordinate.valueOf(position.getX()+1,y));
 				}else
 				if(position.getX()==1)
 				{
-					coordinates.add(new Coordinate(position.getX()+1,y));
+					coordinates.add(Coordinate.valueOf(position.getX()+1,y));
 				}else
 				if(position.getX()==size.getX())
 				{
-					coordinates.add(new Coordinate(position.getX()-1,y));
+					coordinates.add(Coordinate.valueOf(position.getX()-1,y));
 				}
 			}
 		}		
@@ -64,4 +64,9 @@ public class Knight extends Piece {
 		return "N";
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.KNIGHT;
+	}
+
 }
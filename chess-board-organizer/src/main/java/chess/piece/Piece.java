@@ -13,32 +13,18 @@ public abstract class Piece implements Serializable{
 	 * 
 	 */
 	private static final long serialVersionUID = -4526256416055323292L;
-	/**
-	 * The list of capture position for the piece and the 
-	 * current capture position coordinate
-	 */
-	protected List<Coordinate> capturePositions;
-	/**
-	 * The capture position coordinate used to calculate the capture positions list
-	 */
-	protected Coordinate capturePositionCoordenate;
 	/**
 	 * Returns the list of the slots where the piece can move on a chess board based on the 
 	 * piece type, current piece position and the size of the chess board
 	 * @param position the position of the piece on the board
 	 * @param size the size of the chess board <code>(m x n-->(m,n))</code>
-	 * @return the list of the positions in coordinates where the piece may move, an empty list
+	 * @return the unmodifiable list of the positions in coordinates where the piece may move, an empty list
 	 * in case there are no capture slots
+	 * @see AttackTable
 	 */
 	public final List<Coordinate> getCaptureSlotsPositions(Coordinate position, Coordinate size)
 	{
-		if(capturePositions== null || 
-				(capturePositionCoordenate!=null && !capturePositionCoordenate.equals(position)))
-		{
-			capturePositions= calculateCapturePositions(position, size);
-			capturePositionCoordenate=position;
-		}
-		return capturePositions;
+		return AttackTable.getInstance(getType(), size).getCapturePositions(position);
 	}
 	
 	/**
@@ -58,4 +44,10 @@ public abstract class Piece implements Serializable{
 	 * @return the abbreviated piece name
 	 */
 	public abstract String getAbbreviatedName();
+
+	/**
+	 * Returns the type of the piece
+	 * @return the piece type
+	 */
+	public abstract PieceType getType();
 }
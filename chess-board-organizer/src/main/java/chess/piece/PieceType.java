@@ -0,0 +1,50 @@
+package chess.piece;
+
+/**
+ * The types of pieces that can be placed on the chess board
+ * @author Willie
+ *
+ */
+public enum PieceType {
+
+	KING("K"),
+	QUEEN("Q"),
+	BISHOP("B"),
+	KNIGHT("N"),
+	ROOK("R");
+
+	/**
+	 * The abbreviated name of the piece
+	 */
+	private String abbreviatedName;
+
+	private PieceType(String abbreviatedName)
+	{
+		this.abbreviatedName=abbreviatedName;
+	}
+
+	public String getAbbreviatedName() {
+		return abbreviatedName;
+	}
+
+	/**
+	 * Creates a new piece of this type
+	 * @return the new piece
+	 */
+	public Piece newPiece()
+	{
+		switch(this)
+		{
+		case KING:
+			return new King();
+		case QUEEN:
+			return new Queen();
+		case BISHOP:
+			return new Bishop();
+		case KNIGHT:
+			return new Knight();
+		default:
+			return new Rook();
+		}
+	}
+}
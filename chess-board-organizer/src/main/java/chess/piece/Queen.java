@@ -18,8 +18,8 @@ public class Queen extends Piece {
 	public List<Coordinate> calculateCapturePositions(Coordinate position,
 			Coordinate size) {
 		List<Coordinate> coordinates= new ArrayList<Coordinate>();
-		coordinates.addAll(new Rook().getCaptureSlotsPositions(position, size));
-		coordinates.addAll(new Bishop().getCaptureSlotsPositions(position, size));
+		coordinates.addAll(AttackTable.getInstance(PieceType.ROOK, size).getCapturePositions(position));
+		coordinates.addAll(AttackTable.getInstance(PieceType.BISHOP, size).getCapturePositions(position));
 		return coordinates;
 	}
 
@@ -28,4 +28,9 @@ public class Queen extends Piece {
 		return "Q";
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.QUEEN;
+	}
+
 }
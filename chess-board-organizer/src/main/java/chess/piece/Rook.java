@@ -23,14 +23,14 @@ public class Rook extends Piece {
 		{
 			if(x!=position.getX())
 			{
-				coordinates.add(new Coordinate(x,position.getY()));
+				coordinates.add(Coordinate.valueOf(x,position.getY()));
 			}
 		}
 		for(int y=1; y<=size.getY(); y++)
 		{
 			if(y!=position.getY())
 			{
-				coordinates.add(new Coordinate(position.getX(),y));
+				coordinates.add(Coordinate.valueOf(position.getX(),y));
 			}
 		}
 		
@@ -42,4 +42,9 @@ public class Rook extends Piece {
 		return "R";
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.ROOK;
+	}
+
 }
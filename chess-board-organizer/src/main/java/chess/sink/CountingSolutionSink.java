@@ -0,0 +1,33 @@
+package chess.sink;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.board.BoardSignature;
+
+/**
+ * A sink that only counts the combinations received, its memory use does not depend on the number of combinations
+ * @author Willie
+ *
+ */
+public class CountingSolutionSink implements SolutionSink {
+
+	private AtomicLong count=new AtomicLong();
+
+	@Override
+	public void accept(BoardSignature solution) {
+		count.incrementAndGet();
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,123 @@
+package chess.sink;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import chess.board.BoardSignature;
+import chess.io.ExecutionFileWriter;
+import chess.piece.Coordinate;
+import chess.piece.Piece;
+
+/**
+ * A sink that writes every combination received to an execution data file as soon as it is received, see
+ * {@link chess.io.ExecutionFile} for the format. The file can be read back with {@link chess.Execution#read(String)}.<br/>
+ * The stream is flushed every {@link #FLUSH_INTERVAL} combinations, so if the execution is killed only the last
+ * combinations are lost. {@link #flush()} also forces the file to the disk, since the checkpoints of the search refer to
+ * its length.
+ * @author Willie
+ *
+ */
+public class FileSolutionSink implements SolutionSink {
+
+	/**
+	 * Number of combinations buffered between writes to the file
+	 */
+	public static final int FLUSH_INTERVAL=1024;
+
+	private Logger log= LoggerFactory.getLogger(FileSolutionSink.class);
+
+	private String path;
+
+	private ExecutionFileWriter out;
+
+	private long count;
+
+	/**
+	 * Creates the file and writes the size of the board and the pool of pieces
+	 * @param path the path including the filename where the combinations will be written
+	 * @param boardSize the size of the chess board
+	 * @param pool the pieces placed on the board
+	 * @throws RuntimeException in case the file cannot be created
+	 */
+	public FileSolutionSink(String path, Coordinate boardSize, List<Piece> pool)
+	{
+		this.path=path;
+		try {
+			log.info("Saving execution data to " + path);
+			out=new ExecutionFileWriter(path, boardSize, pool);
+		} catch (IOException e) {
+			log.error("Error creating the execution data file " + path, e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Reopens an execution data file to append combinations, see {@link ExecutionFileWriter#ExecutionFileWriter(String, Coordinate, List, long)}
+	 * @param path the path including the filename where the combinations will be written
+	 * @param boardSize the size of the chess board
+	 * @param pool the pieces placed on the board
+	 * @param length the length the file is truncated to before appending
+	 * @param count the number of combinations already stored in the file
+	 * @throws RuntimeException in case the file cannot be opened
+	 */
+	public FileSolutionSink(String path, Coordinate boardSize, List<Piece> pool, long length, long count)
+	{
+		this.path=path;
+		this.count=count;
+		try {
+			log.info("Appending execution data to " + path);
+			out=new ExecutionFileWriter(path, boardSize, pool, length);
+		} catch (IOException e) {
+			log.error("Error opening the execution data file " + path, e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns the length of the execution data file including the buffered combinations
+	 * @return the number of bytes written
+	 * @throws IOException in case the length cannot be read
+	 */
+	public synchronized long getLength() throws IOException {
+		return out.getLength();
+	}
+
+	@Override
+	public synchronized void accept(BoardSignature solution) {
+		try {
+			out.write(solution);
+			count++;
+			if(count%FLUSH_INTERVAL==0)
+			{
+				out.flush();
+			}
+		} catch (IOException e) {
+			log.error("Error storing the execution data on file " + path, e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Writes the buffered combinations and forces the file to the disk, so a checkpoint taken afterwards never refers
+	 * to combinations lost by a crash of the system
+	 * @throws IOException in case the combinations cannot be written
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+		out.sync();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		out.close();
+		log.info("Execution data successfully saved, " + count + " combinations");
+	}
+}
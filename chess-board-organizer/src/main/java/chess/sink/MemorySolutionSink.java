@@ -0,0 +1,42 @@
+package chess.sink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.board.BoardSignature;
+
+/**
+ * A sink that keeps every combination received in memory, intended for small problems and tests
+ * @author Willie
+ *
+ */
+public class MemorySolutionSink implements SolutionSink {
+
+	private List<BoardSignature> solutions=new ArrayList<BoardSignature>();
+
+	@Override
+	public synchronized void accept(BoardSignature solution) {
+		solutions.add(solution);
+	}
+
+	@Override
+	public synchronized long getCount() {
+		return solutions.size();
+	}
+
+	/**
+	 * Returns a copy of the combinations received
+	 * @return the list of combinations in the order they were received
+	 */
+	public synchronized List<BoardSignature> getSolutions() {
+		return new ArrayList<BoardSignature>(solutions);
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,31 @@
+package chess.sink;
+
+import java.io.Closeable;
+import java.io.Flushable;
+
+import chess.board.BoardSignature;
+
+/**
+ * Receives the combinations as soon as they are found by the search, so the search does not need to keep
+ * them until the end of the execution.<br/>
+ * {@link #flush()} is called by the search before taking a checkpoint, the combinations received before the call
+ * must not be lost if the execution is killed afterwards.<br/>
+ * The search may push combinations from several threads at the same time, implementations must be thread safe.
+ * @author Willie
+ *
+ */
+public interface SolutionSink extends Closeable, Flushable {
+
+	/**
+	 * Receives a combination found by the search
+	 * @param solution the signature of the combination
+	 * @throws RuntimeException in case the combination cannot be stored
+	 */
+	void accept(BoardSignature solution);
+
+	/**
+	 * Returns the number of combinations received
+	 * @return the number of combinations
+	 */
+	long getCount();
+}
@@ -0,0 +1,283 @@
+package chess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.board.BoardSignature;
+import chess.sink.MemorySolutionSink;
+
+/**
+ * Test cases for the distribution of the exhaustive search among workers
+ * @author Willie
+ * @see ClusterCoordinator
+ * @see ClusterWorker
+ */
+public class TestCluster extends TestCase {
+
+	private static final String[] PROBLEM = new String[]{"6","6","2","1","1","1","1"};
+
+	/**
+	 * The search of the problem on a single process
+	 */
+	private ExhaustiveExecutor full;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		full = new ExhaustiveExecutor(PROBLEM);
+		full.start();
+	}
+
+	@Test
+	public final void testSplitUnits() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(PROBLEM);
+		executor.prepareSearch();
+		final Deque<WorkUnit> units = new ArrayDeque<WorkUnit>();
+		final SearchCounters counters = new SearchCounters();
+		final List<BoardSignature> solutions = new ArrayList<BoardSignature>();
+		WorkUnitListener listener = new WorkUnitListener() {
+			@Override
+			public void publish(SubtreeTask task, List<BoardSignature> found) {
+				solutions.addAll(found);
+				WorkUnit part = task.split();
+				if(part != null)
+				{
+					units.add(part);
+				}
+			}
+
+			@Override
+			public void complete(SubtreeTask task, SearchCounters unitCounters, List<BoardSignature> found) {
+				solutions.addAll(found);
+				counters.add(unitCounters);
+			}
+		};
+		units.add(new WorkUnit(new int[0], 0, 36));
+		int searched = 0;
+		while(!units.isEmpty())
+		{
+			new SubtreeTask(executor, units.poll(), listener).invoke();
+			searched++;
+		}
+		assertTrue(searched > 1);
+		assertEquals(full.getSuccessCount(), counters.getSuccessCount());
+		assertEquals(full.getSymmetryClassesCount(), counters.getSymmetryClassesCount());
+		assertEquals(full.getVisitedNodes(), counters.getVisitedNodes());
+		assertSolutions(solutions);
+	}
+
+	@Test
+	public final void testRemainingUnits() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(PROBLEM);
+		executor.prepareSearch();
+		final Deque<WorkUnit> units = new ArrayDeque<WorkUnit>();
+		final SearchCounters counters = new SearchCounters();
+		final List<BoardSignature> solutions = new ArrayList<BoardSignature>();
+		WorkUnitListener listener = new WorkUnitListener() {
+			private boolean lost;
+
+			@Override
+			public void publish(SubtreeTask task, List<BoardSignature> found) {
+				solutions.addAll(found);
+				if(!lost)
+				{
+					//the first unit is split and then stops at its checkpoint, as if its worker disconnected
+					lost = true;
+					WorkUnit part = task.split();
+					if(part != null)
+					{
+						units.add(part);
+					}
+					units.addAll(task.getRemainingUnits());
+					counters.add(task.getCounters());
+					throw new IllegalStateException("Worker lost");
+				}
+			}
+
+			@Override
+			public void complete(SubtreeTask task, SearchCounters unitCounters, List<BoardSignature> found) {
+				solutions.addAll(found);
+				counters.add(unitCounters);
+			}
+		};
+		units.add(new WorkUnit(new int[0], 0, 36));
+		int lost = 0;
+		while(!units.isEmpty())
+		{
+			try {
+				new SubtreeTask(executor, units.poll(), listener).invoke();
+			} catch (IllegalStateException e) {
+				lost++;
+			}
+		}
+		assertEquals(1, lost);
+		assertEquals(full.getSuccessCount(), counters.getSuccessCount());
+		assertEquals(full.getSymmetryClassesCount(), counters.getSymmetryClassesCount());
+		assertEquals(full.getVisitedNodes(), counters.getVisitedNodes());
+		assertSolutions(solutions);
+	}
+
+	/**
+	 * Connects to the coordinator, searches its first unit and disconnects after the first checkpoint of the unit,
+	 * or before reporting the unit done when it is searched without any checkpoint
+	 * @param port the port of the coordinator
+	 * @throws IOException in case the connection fails
+	 */
+	private void searchAndDisconnect(int port) throws IOException
+	{
+		Socket socket = new Socket("localhost", port);
+		try {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			assertEquals(ClusterProtocol.MAGIC, in.readInt());
+			assertEquals(ClusterProtocol.VERSION, in.readShort());
+			in.readUTF();
+			in.readUTF();
+			final boolean sendSolutions = in.readBoolean();
+			ExhaustiveExecutor executor = new ExhaustiveExecutor(PROBLEM);
+			executor.prepareSearch();
+			out.writeByte(ClusterProtocol.REQUEST_WORK);
+			out.flush();
+			assertEquals(ClusterProtocol.WORK, in.readByte());
+			WorkUnit unit = WorkUnit.read(in);
+			WorkUnitListener listener = new WorkUnitListener() {
+				@Override
+				public void publish(SubtreeTask task, List<BoardSignature> solutions) {
+					try {
+						out.writeByte(ClusterProtocol.PROGRESS);
+						ClusterProtocol.writeSolutions(out, sendSolutions ? solutions : null);
+						ClusterProtocol.writeCounters(out, task.getCounters());
+						ClusterProtocol.writeUnits(out, task.getRemainingUnits());
+						out.flush();
+						in.readByte();
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+					throw new IllegalStateException("Worker lost");
+				}
+
+				@Override
+				public void complete(SubtreeTask task, SearchCounters counters, List<BoardSignature> solutions) {
+					throw new IllegalStateException("Worker lost");
+				}
+			};
+			try {
+				new SubtreeTask(executor, unit, listener).invoke();
+			} catch (IllegalStateException e) {
+				//the connection is closed in the middle of the unit
+			}
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Creates a coordinator listening on a port chosen by the system
+	 * @param path the execution data file, null to not save the execution
+	 * @return the coordinator
+	 */
+	private ClusterCoordinator createCoordinator(String path)
+	{
+		List<String> args = new ArrayList<String>(Arrays.asList(PROBLEM));
+		if(path != null)
+		{
+			args.add(path);
+		}
+		args.add("--" + ClusterCoordinator.OPTION_PORT);
+		args.add("0");
+		ClusterCoordinator coordinator = new ClusterCoordinator(args.toArray(new String[args.size()]));
+		coordinator.bind();
+		return coordinator;
+	}
+
+	/**
+	 * Runs the search of a coordinator with a worker of three threads on the loopback interface and checks the counters
+	 * of the coordinator against the search on a single process
+	 * @param coordinator the coordinator, already bound
+	 * @param disconnect true if a client that disconnects in the middle of its unit connects before the worker
+	 * @return the worker
+	 * @throws Exception in case the search fails
+	 */
+	private ClusterWorker runCluster(final ClusterCoordinator coordinator, boolean disconnect) throws Exception
+	{
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					coordinator.start();
+				} catch (Throwable e) {
+					errors.add(e);
+				}
+			}
+		});
+		thread.start();
+		if(disconnect)
+		{
+			searchAndDisconnect(coordinator.getLocalPort());
+		}
+		ClusterWorker worker = new ClusterWorker(new String[]{"localhost", String.valueOf(coordinator.getLocalPort()),
+				"--" + ClusterWorker.OPTION_THREADS, "3"});
+		worker.start();
+		thread.join();
+		assertTrue(errors.isEmpty());
+		assertEquals(full.getSuccessCount(), coordinator.getSuccessCount());
+		assertEquals(full.getSymmetryClassesCount(), coordinator.getSymmetryClassesCount());
+		assertEquals(full.getVisitedNodes(), coordinator.getVisitedNodes());
+		return worker;
+	}
+
+	/**
+	 * Checks that the combinations received are the combinations of the search on a single process, each one once
+	 * @param solutions the combinations
+	 */
+	private void assertSolutions(List<BoardSignature> solutions)
+	{
+		assertEquals(full.getSuccessCount(), solutions.size());
+		assertEquals(full.getSuccessCount(), new HashSet<BoardSignature>(solutions).size());
+	}
+
+	@Test
+	public final void testLostWorker() throws Exception {
+		File file = File.createTempFile("cluster", ".dat");
+		file.deleteOnExit();
+		runCluster(createCoordinator(file.getPath()), true);
+		assertSolutions(Execution.read(file.getPath()).getSolutions());
+	}
+
+	@Test
+	public final void testLoopback() throws Exception {
+		File file = File.createTempFile("cluster", ".dat");
+		file.deleteOnExit();
+		ClusterCoordinator coordinator = createCoordinator(file.getPath());
+		ClusterWorker worker = runCluster(coordinator, false);
+		//the units of the first piece plus the units split when a worker was idle
+		assertTrue(worker.getUnitsDone() >= 36);
+		assertEquals(worker.getUnitsDone(), coordinator.getUnitsDone());
+		assertSolutions(Execution.read(file.getPath()).getSolutions());
+	}
+
+	@Test
+	public final void testSink() throws Exception {
+		ClusterCoordinator coordinator = createCoordinator(null);
+		MemorySolutionSink sink = new MemorySolutionSink();
+		coordinator.setSink(sink);
+		runCluster(coordinator, false);
+		assertSolutions(sink.getSolutions());
+	}
+}
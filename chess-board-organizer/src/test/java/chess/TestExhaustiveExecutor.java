@@ -0,0 +1,176 @@
+package chess;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.board.BoardSignature;
+import chess.io.ExecutionMerger;
+import chess.sink.MemorySolutionSink;
+
+/**
+ * Test cases for the ExhaustiveExecutor using problems whose number of combinations is known
+ * @author Willie
+ * @see ExhaustiveExecutor
+ */
+public class TestExhaustiveExecutor extends TestCase {
+
+	@Test
+	public final void testTwoKingsOneRook() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"3","3","2","0","0","0","1"});
+		executor.start();
+		assertEquals(4, executor.getSuccessCount());
+	}
+
+	@Test
+	public final void testTwoRooksFourKnights() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"4","4","0","0","0","4","2"});
+		executor.start();
+		assertEquals(8, executor.getSuccessCount());
+		assertEquals(2, executor.getSymmetryClassesCount());
+	}
+
+	@Test
+	public final void testFiveQueens() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"5","5","0","5","0","0","0"});
+		executor.start();
+		assertEquals(10, executor.getSuccessCount());
+		assertEquals(2, executor.getSymmetryClassesCount());
+	}
+
+	@Test
+	public final void testMemorySink() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"4","4","0","0","0","4","2"});
+		MemorySolutionSink sink = new MemorySolutionSink();
+		executor.setSink(sink);
+		executor.start();
+		assertEquals(8, sink.getCount());
+		assertEquals(8, new HashSet<Object>(sink.getSolutions()).size());
+	}
+
+	@Test
+	public final void testFileSink() throws Exception {
+		File file = File.createTempFile("execution", ".dat");
+		file.deleteOnExit();
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"3","3","2","0","0","0","1",file.getPath()});
+		executor.start();
+		Execution execution = Execution.read(file.getPath());
+		assertEquals(3, execution.getPool().size());
+		assertEquals(4, execution.getSolutions().size());
+	}
+
+	@Test
+	public final void testOrderingStrategies() {
+		String[] problem = new String[]{"6","6","2","1","1","1","1"};
+		ExhaustiveExecutor natural = new ExhaustiveExecutor(problem);
+		natural.start();
+		for(SearchOrdering ordering: SearchOrdering.values())
+		{
+			ExhaustiveExecutor executor = new ExhaustiveExecutor(problem);
+			executor.setOrderingStrategy(ordering);
+			executor.start();
+			assertEquals(natural.getSuccessCount(), executor.getSuccessCount());
+			assertEquals(natural.getSymmetryClassesCount(), executor.getSymmetryClassesCount());
+		}
+	}
+
+	@Test
+	public final void testResumeFromCheckpoint() throws Exception {
+		String[] problem = new String[]{"6","6","2","1","1","1","1"};
+		final File checkpoint = File.createTempFile("search", ".chk");
+		checkpoint.delete();
+		checkpoint.deleteOnExit();
+		ExhaustiveExecutor full = new ExhaustiveExecutor(problem);
+		full.start();
+		final long killAt = full.getSuccessCount()/2;
+		final ExhaustiveExecutor killed = new ExhaustiveExecutor(withCheckpoint(problem, checkpoint));
+		killed.setParallelism(1);
+		killed.setSink(new MemorySolutionSink() {
+			@Override
+			public synchronized void accept(BoardSignature solution) {
+				if(getCount()==killAt)
+				{
+					killed.writeCheckpoint();
+					throw new IllegalStateException("killed");
+				}
+				super.accept(solution);
+			}
+		});
+		try {
+			killed.start();
+			fail("The execution should have been killed");
+		} catch (IllegalStateException e) {
+			assertTrue(checkpoint.exists());
+		}
+		SearchCheckpoint state = SearchCheckpoint.read(checkpoint.getPath());
+		long found = state.getCompletedCounters().getSuccessCount();
+		for(SubtreeProgress subtree: state.getProgress())
+		{
+			found += subtree.getCounters().getSuccessCount();
+		}
+		assertTrue(found > 0 && found < full.getSuccessCount());
+		ExhaustiveExecutor resumed = new ExhaustiveExecutor(withCheckpoint(problem, checkpoint));
+		MemorySolutionSink sink = new MemorySolutionSink();
+		resumed.setSink(sink);
+		resumed.start();
+		assertEquals(full.getSuccessCount(), resumed.getSuccessCount());
+		assertEquals(full.getSymmetryClassesCount(), resumed.getSymmetryClassesCount());
+		assertEquals(full.getVisitedNodes(), resumed.getVisitedNodes());
+		assertEquals(full.getSuccessCount() - found, sink.getCount());
+		assertFalse(checkpoint.exists());
+	}
+
+	@Test
+	public final void testShards() throws Exception {
+		String[] problem = new String[]{"6","6","2","1","1","1","1"};
+		ExhaustiveExecutor full = new ExhaustiveExecutor(problem);
+		full.start();
+		List<String> paths = new ArrayList<String>();
+		long found = 0;
+		for(int shard=1; shard<=3; shard++)
+		{
+			File file = File.createTempFile("shard", ".dat");
+			file.deleteOnExit();
+			String[] args = Arrays.copyOf(problem, problem.length+3);
+			args[problem.length] = file.getPath();
+			args[problem.length+1] = "--" + ExhaustiveExecutor.OPTION_SHARD;
+			args[problem.length+2] = shard + "/3";
+			ExhaustiveExecutor executor = new ExhaustiveExecutor(args);
+			executor.start();
+			assertTrue(executor.getSuccessCount() < full.getSuccessCount());
+			found += executor.getSuccessCount();
+			paths.add(file.getPath());
+		}
+		assertEquals(full.getSuccessCount(), found);
+		//the last shard is merged twice, its combinations are only written once
+		paths.add(paths.get(2));
+		File merged = File.createTempFile("merged", ".dat");
+		merged.deleteOnExit();
+		ExecutionMerger merger = new ExecutionMerger();
+		merger.merge(merged.getPath(), paths);
+		assertEquals(full.getSuccessCount(), merger.getSuccessCount());
+		assertEquals(full.getSymmetryClassesCount(), merger.getSymmetryClassesCount());
+		assertTrue(merger.getDuplicatesCount() > 0);
+		assertEquals(full.getSuccessCount(), Execution.read(merged.getPath()).getSolutions().size());
+		try {
+			new ExhaustiveExecutor(new String[]{"6","6","2","1","1","1","1","--" + ExhaustiveExecutor.OPTION_SHARD,"4/3"});
+			fail("The shard must not be greater than the number of shards");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().startsWith("Incorrect shard"));
+		}
+	}
+
+	private static String[] withCheckpoint(String[] problem, File checkpoint) {
+		String[] args = new String[problem.length+2];
+		System.arraycopy(problem, 0, args, 0, problem.length);
+		args[problem.length] = "--" + ExhaustiveExecutor.OPTION_CHECKPOINT;
+		args[problem.length+1] = checkpoint.getPath();
+		return args;
+	}
+}
@@ -0,0 +1,53 @@
+package chess;
+
+import java.util.HashSet;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.sink.MemorySolutionSink;
+
+/**
+ * Test cases for the RandomSampler using problems whose number of combinations is known
+ * @author Willie
+ * @see RandomSampler
+ */
+public class TestRandomSampler extends TestCase {
+
+	@Test
+	public final void testTwoRooksFourKnights() {
+		RandomSampler sampler = new RandomSampler(new String[]{"4","4","0","0","0","4","2","20000",
+				"--" + RandomSampler.OPTION_THREADS,"4","--" + RandomSampler.OPTION_SEED,"42"});
+		MemorySolutionSink sink = new MemorySolutionSink();
+		sampler.setSink(sink);
+		sampler.start();
+		assertEquals(8, sampler.getSuccessCount());
+		assertEquals(8, sink.getCount());
+		assertEquals(8, new HashSet<Object>(sink.getSolutions()).size());
+		assertEquals(8, sampler.getMetrics().getSolutionsFound());
+		assertTrue(sampler.getMetrics().getNodesVisited() > 0);
+	}
+
+	@Test
+	public final void testStopsWhenEveryCombinationIsFound() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"5","5","2","0","1","1","1"});
+		executor.start();
+		//the retries would take minutes if they did not stop once the trie is exhausted
+		RandomSampler sampler = new RandomSampler(new String[]{"5","5","2","0","1","1","1","1000000000",
+				"--" + RandomSampler.OPTION_THREADS,"4","--" + RandomSampler.OPTION_SEED,"7"});
+		sampler.start();
+		assertEquals(executor.getSuccessCount(), sampler.getSuccessCount());
+		assertTrue(sampler.getMetrics().getDuplicateCheckHits() > 0);
+	}
+
+	@Test
+	public final void testIncorrectThreads() {
+		try {
+			new RandomSampler(new String[]{"4","4","0","0","0","4","2","100","--" + RandomSampler.OPTION_THREADS,"0"});
+			fail("A sampler needs at least one thread");
+		} catch (RuntimeException e) {
+			assertEquals("Incorrect number of threads 0", e.getMessage());
+		}
+	}
+}
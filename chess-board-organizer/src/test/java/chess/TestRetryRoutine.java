@@ -0,0 +1,86 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.board.Board;
+import chess.board.BoardSignature;
+import chess.board.PlacementTrie;
+import chess.piece.Bishop;
+import chess.piece.King;
+import chess.piece.Rook;
+
+/**
+ * Test cases for the random retries shared by the Executor and the RandomSampler
+ * @author Willie
+ * @see RetryRoutine
+ */
+public class TestRetryRoutine extends TestCase {
+
+	//the 3x3 board with 2 kings and a rook has 4 combinations
+	private static final Problem PROBLEM = new Problem(new String[]{"3","3","2","0","0","0","1"}, 0);
+
+	private RetryRoutine createRoutine(PlacementTrie trie)
+	{
+		return new RetryRoutine(new PlacementRules(PROBLEM.getBoardSize(), PROBLEM.getPool()), trie,
+				new Board(3, 3), new Random(7));
+	}
+
+	/**
+	 * Runs retries until every combination has been found
+	 * @param routine the routine
+	 * @return the combinations found
+	 */
+	private List<BoardSignature> runAll(RetryRoutine routine)
+	{
+		List<BoardSignature> found = new ArrayList<BoardSignature>();
+		while(!routine.isExhausted())
+		{
+			if(routine.run())
+			{
+				found.add(routine.getBoard().getSignature());
+			}
+		}
+		return found;
+	}
+
+	@Test
+	public final void testEveryCombinationOnce() {
+		List<BoardSignature> found = runAll(createRoutine(new PlacementTrie()));
+		assertEquals(4, found.size());
+		assertEquals(4, new HashSet<BoardSignature>(found).size());
+	}
+
+	@Test
+	public final void testAdd() {
+		List<BoardSignature> found = runAll(createRoutine(new PlacementTrie()));
+		RetryRoutine routine = createRoutine(new PlacementTrie());
+		routine.add(found.get(0));
+		routine.add(found.get(1));
+		Set<BoardSignature> remaining = new HashSet<BoardSignature>(runAll(routine));
+		assertEquals(2, remaining.size());
+		assertFalse(remaining.contains(found.get(0)));
+		assertFalse(remaining.contains(found.get(1)));
+	}
+
+	@Test
+	public final void testAddOtherPieces() {
+		Board board = new Board(3, 3);
+		board.addPiece(new Bishop(), 0);
+		board.addPiece(new King(), 2);
+		board.addPiece(new Rook(), 7);
+		try {
+			createRoutine(new PlacementTrie()).add(board.getSignature());
+			fail("The combination does not have the pieces of the pool");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().endsWith("does not have the pieces of the pool"));
+		}
+	}
+}
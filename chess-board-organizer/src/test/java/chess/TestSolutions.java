@@ -0,0 +1,98 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.board.BoardSignature;
+
+/**
+ * Test cases for the lazy iteration of the combinations of a problem
+ * @author Willie
+ * @see Solutions
+ * @see SolutionIterator
+ */
+public class TestSolutions extends TestCase {
+
+	private static final String[] PROBLEM = new String[]{"6","6","2","1","1","1","1"};
+
+	private List<BoardSignature> toList(Iterable<BoardSignature> solutions)
+	{
+		List<BoardSignature> list = new ArrayList<BoardSignature>();
+		for(BoardSignature solution: solutions)
+		{
+			list.add(solution);
+		}
+		return list;
+	}
+
+	@Test
+	public final void testAllSolutions() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(PROBLEM);
+		executor.start();
+		Solutions solutions = new Solutions(new Problem(PROBLEM, 0));
+		List<BoardSignature> all = toList(solutions);
+		assertEquals(executor.getSuccessCount(), all.size());
+		assertEquals(all.size(), new HashSet<BoardSignature>(all).size());
+		assertEquals(all.size(), solutions.count());
+		for(BoardSignature solution: all)
+		{
+			assertEquals(6, solution.getNumberOfPieces());
+		}
+	}
+
+	@Test
+	public final void testPages() {
+		Solutions solutions = new Solutions(new Problem(PROBLEM, 0));
+		List<BoardSignature> all = toList(solutions);
+		int size = 1000;
+		for(int page = 0; page * size < all.size(); page++)
+		{
+			Solutions view = solutions.skip(page * size).limit(size);
+			assertEquals(all.subList(page * size, Math.min(all.size(), (page + 1) * size)), toList(view));
+			assertEquals(Math.min(size, all.size() - page * size), view.count());
+		}
+		assertTrue(toList(solutions.skip(all.size())).isEmpty());
+		assertEquals(0, solutions.skip(all.size() + 5).count());
+		assertEquals(all.subList(3, 5), toList(solutions.limit(5).skip(3)));
+	}
+
+	@Test
+	public final void testIteratorSkip() {
+		Solutions solutions = new Solutions(new Problem(PROBLEM, 0));
+		List<BoardSignature> all = toList(solutions);
+		SolutionIterator iterator = solutions.iterator();
+		assertEquals(all.get(0), iterator.next());
+		assertTrue(iterator.hasNext());
+		assertEquals(10, iterator.skip(10));
+		assertEquals(all.get(11), iterator.next());
+		assertEquals(all.size() - 12, iterator.skip(Long.MAX_VALUE));
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public final void testEmptyPool() {
+		String[] problem = new String[]{"1","1","0","0","0","0","0"};
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(problem);
+		executor.start();
+		Solutions solutions = new Solutions(new Problem(problem, 0));
+		//both engines agree that an empty pool has no combinations
+		assertEquals(0, executor.getSuccessCount());
+		assertEquals(executor.getSuccessCount(), solutions.count());
+		assertTrue(toList(solutions).isEmpty());
+		assertEquals(0, solutions.iterator().skip(1));
+	}
+
+	@Test
+	public final void testLazy() {
+		//far too many combinations to be enumerated, the first page is found at once
+		Solutions solutions = new Solutions(new Problem(new String[]{"12","12","2","2","3","3","2"}, 0));
+		List<BoardSignature> page = toList(solutions.limit(20));
+		assertEquals(20, page.size());
+		assertEquals(20, new HashSet<BoardSignature>(page).size());
+	}
+}
@@ -0,0 +1,47 @@
+package chess;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the estimate of the number of combinations using problems whose number of combinations is known
+ * @author Willie
+ * @see TreeSizeEstimator
+ */
+public class TestTreeSizeEstimator extends TestCase {
+
+	@Test
+	public final void testEstimate() {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"6","6","2","1","1","1","1"});
+		executor.start();
+		TreeSizeEstimator estimator = new TreeSizeEstimator(new String[]{"6","6","2","1","1","1","1","200000",
+				"--" + TreeSizeEstimator.OPTION_THREADS,"4","--" + TreeSizeEstimator.OPTION_SEED,"13"});
+		estimator.start();
+		double error = Math.abs(estimator.getEstimatedSolutions() - executor.getSuccessCount());
+		//a margin of two confidence intervals so the seed does not decide the result
+		assertTrue(error <= 2 * estimator.getSolutionsError());
+		assertTrue(estimator.getSolutionsError() < estimator.getEstimatedSolutions() / 10);
+		assertTrue(estimator.getEstimatedNodes() > estimator.getEstimatedSolutions());
+		assertTrue(estimator.isExactRunFeasible());
+	}
+
+	@Test
+	public final void testEightQueens() {
+		TreeSizeEstimator estimator = new TreeSizeEstimator(new String[]{"8","8","0","8","0","0","0","200000",
+				"--" + TreeSizeEstimator.OPTION_SEED,"1"});
+		estimator.start();
+		//the 8 queens problem has 92 solutions
+		assertTrue(Math.abs(estimator.getEstimatedSolutions() - 92) <= 2 * estimator.getSolutionsError());
+	}
+
+	@Test
+	public final void testIncorrectProbes() {
+		try {
+			new TreeSizeEstimator(new String[]{"6","6","2","1","1","1","1","1"});
+			fail("The confidence interval needs at least two probes");
+		} catch (RuntimeException e) {
+			assertEquals("Incorrect number of probes", e.getMessage());
+		}
+	}
+}
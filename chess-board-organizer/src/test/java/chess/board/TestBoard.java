@@ -0,0 +1,125 @@
+package chess.board;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.piece.AttackTable;
+import chess.piece.Coordinate;
+import chess.piece.PieceType;
+
+/**
+ * Some test cases for the Board class
+ * @author Willie
+ * @see Board
+ */
+public class TestBoard extends TestCase {
+
+	@Test
+	public final void testSquares() {
+		Board board = new Board(5, 7);
+		for(int square=0; square<35; square++)
+		{
+			assertEquals(square, board.getSquare(board.getCoordinate(square)));
+		}
+		assertEquals(Coordinate.valueOf(2, 3), board.getCoordinate(9));
+	}
+
+	@Test
+	public final void testAddPiece() {
+		Board board = new Board(5, 7);
+		board.addPiece(PieceType.KING.newPiece(), Coordinate.valueOf(2, 3));
+		board.addPiece(PieceType.KNIGHT.newPiece(), 34);
+		assertEquals(2, board.getNumberOfPieces());
+		assertEquals(9, board.getOccupiedSquare(0));
+		assertEquals(PieceType.KNIGHT, board.getPiece(34).getType());
+		assertNull(board.getPiece(0));
+		assertEquals(Coordinate.valueOf(5, 7), board.getOccupiedSlots().get(1).getCoordinate());
+		try {
+			board.addPiece(PieceType.ROOK.newPiece(), 9);
+			fail("A slot can only hold one piece");
+		} catch (RuntimeException e) {
+			assertEquals(2, board.getNumberOfPieces());
+		}
+	}
+
+	@Test
+	public final void testRemoveLastPiece() {
+		Board board = new Board(5, 7);
+		board.addPiece(PieceType.ROOK.newPiece(), 9);
+		int[] safeQueenSquares = board.getSafeSquares(PieceType.QUEEN);
+		int safeKnightSlots = board.countSafeSlots(PieceType.KNIGHT);
+		board.addPiece(PieceType.KNIGHT.newPiece(), 34);
+		board.addPiece(PieceType.BISHOP.newPiece(), 0);
+		assertEquals(PieceType.BISHOP, board.removeLastPiece().getType());
+		assertEquals(PieceType.KNIGHT, board.removeLastPiece().getType());
+		assertEquals(1, board.getNumberOfPieces());
+		assertNull(board.getPiece(34));
+		assertTrue(Arrays.equals(safeQueenSquares, board.getSafeSquares(PieceType.QUEEN)));
+		assertEquals(safeKnightSlots, board.countSafeSlots(PieceType.KNIGHT));
+		board.clear();
+		assertEquals(0, board.getNumberOfPieces());
+		assertEquals(35, board.countSafeSlots(PieceType.QUEEN));
+		try {
+			board.removeLastPiece();
+			fail("An empty board has no pieces to be removed");
+		} catch (RuntimeException e) {
+			assertEquals(0, board.getNumberOfPieces());
+		}
+	}
+
+	@Test
+	public final void testSerialization() throws IOException, ClassNotFoundException {
+		Board board = new Board(4, 4);
+		board.addPiece(PieceType.QUEEN.newPiece(), 1);
+		board.addPiece(PieceType.QUEEN.newPiece(), 7);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(board);
+		out.close();
+		Board copy = (Board) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(board.getSignature(), copy.getSignature());
+		assertEquals(board.countSafeSlots(PieceType.QUEEN), copy.countSafeSlots(PieceType.QUEEN));
+		board.removeLastPiece();
+		copy.removeLastPiece();
+		assertEquals(board.getSignature(), copy.getSignature());
+		assertEquals(board.countSafeSlots(PieceType.QUEEN), copy.countSafeSlots(PieceType.QUEEN));
+	}
+
+	@Test
+	public final void testSharedCoordinates() {
+		assertSame(Coordinate.valueOf(3, 4), Coordinate.valueOf(3, 4));
+		Set<Coordinate> coordinates = new HashSet<Coordinate>();
+		coordinates.add(Coordinate.valueOf(3, 4));
+		assertTrue(coordinates.contains(new Coordinate(3, 4)));
+		assertTrue(coordinates.contains(new Coordinate("3;4")));
+		assertEquals(new Coordinate(100, 4), Coordinate.valueOf(100, 4));
+	}
+
+	@Test
+	public final void testSharedGeometry() {
+		BoardGeometry geometry = BoardGeometry.getInstance(Coordinate.valueOf(5, 7));
+		assertSame(geometry, new Board(5, 7).getGeometry());
+		assertSame(geometry, new Board(5, 7).getGeometry());
+		assertEquals(4, geometry.getSymmetries().size());
+		for(int square=0; square<35; square++)
+		{
+			assertSame(AttackTable.getInstance(PieceType.BISHOP, geometry.getSize()).getMask(square),
+					geometry.getMasks(square)[PieceType.BISHOP.ordinal()]);
+			for(Symmetry symmetry: geometry.getSymmetries())
+			{
+				assertEquals(symmetry.apply(square, 5, 7), geometry.getImage(symmetry, square));
+			}
+		}
+		assertEquals(0x7fL<<14, geometry.getRow(2)[0]);
+	}
+}
@@ -0,0 +1,121 @@
+package chess.board;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.piece.King;
+import chess.piece.Piece;
+import chess.piece.Rook;
+
+/**
+ * Test cases for the prefix tree of the placements tried by the random retries
+ * @author Willie
+ * @see PlacementTrie
+ */
+public class TestPlacementTrie extends TestCase {
+
+	/**
+	 * Places the pieces of the pool on the first candidate square whose node is not exhausted until the trie is exhausted
+	 * @param trie the trie
+	 * @param pool the pieces
+	 * @return the combinations found
+	 */
+	private List<BoardSignature> walk(PlacementTrie trie, List<Piece> pool)
+	{
+		List<BoardSignature> found=new ArrayList<BoardSignature>();
+		Board board=new Board(3, 3);
+		PlacementTrie.Node[] path=new PlacementTrie.Node[pool.size()+1];
+		PlacementTrie.Node child;
+		int[] safeSquares;
+		int first;
+		while(!trie.getRoot().isExhausted())
+		{
+			board.clear();
+			path[0]=trie.getRoot();
+			for(int depth=0; depth<pool.size(); depth++)
+			{
+				safeSquares=board.getSafeSquares(pool.get(depth).getType());
+				first=0;
+				//the kings are placed on increasing squares
+				while(depth==1 && first<safeSquares.length && safeSquares[first]<board.getOccupiedSquare(0))
+				{
+					first++;
+				}
+				trie.setCandidates(path, depth, safeSquares.length-first);
+				for(int i=first; i<safeSquares.length; i++)
+				{
+					child=path[depth].getChild(safeSquares[i]);
+					if(child==null || !child.isExhausted())
+					{
+						path[depth+1]=path[depth].child(safeSquares[i]);
+						board.addPiece(pool.get(depth), safeSquares[i]);
+						break;
+					}
+				}
+				if(board.getNumberOfPieces()==depth)
+				{
+					trie.exhaust(path, depth);
+					break;
+				}
+			}
+			if(board.getNumberOfPieces()==pool.size())
+			{
+				found.add(board.getSignature());
+				trie.exhaust(path, pool.size());
+			}
+		}
+		return found;
+	}
+
+	private List<Piece> getPool()
+	{
+		List<Piece> pool=new ArrayList<Piece>();
+		pool.add(new King());
+		pool.add(new King());
+		pool.add(new Rook());
+		return pool;
+	}
+
+	@Test
+	public final void testExhaustion() {
+		List<Piece> pool=getPool();
+		List<BoardSignature> found=walk(new PlacementTrie(), pool);
+		//the 3x3 board with 2 kings and a rook has 4 combinations, every one is found once
+		assertEquals(4, found.size());
+		assertEquals(4, new HashSet<BoardSignature>(found).size());
+	}
+
+	@Test
+	public final void testChild() {
+		PlacementTrie trie=new PlacementTrie();
+		assertNull(trie.getRoot().getChild(4));
+		PlacementTrie.Node child=trie.getRoot().child(4);
+		assertSame(child, trie.getRoot().child(4));
+		assertSame(child, trie.getRoot().getChild(4));
+		assertNotSame(child, trie.getRoot().child(1));
+		assertSame(child, trie.getRoot().getChild(4));
+		assertNull(trie.getRoot().getChild(7));
+	}
+
+	@Test
+	public final void testNoCandidates() {
+		PlacementTrie trie=new PlacementTrie();
+		PlacementTrie.Node[] path=new PlacementTrie.Node[2];
+		path[0]=trie.getRoot();
+		trie.setCandidates(path, 0, 2);
+		path[1]=trie.getRoot().child(2);
+		trie.setCandidates(path, 1, 0);
+		assertTrue(path[1].isExhausted());
+		assertFalse(trie.getRoot().isExhausted());
+		path[1]=trie.getRoot().child(5);
+		trie.exhaust(path, 1);
+		//both candidates of the root are exhausted
+		assertTrue(trie.getRoot().isExhausted());
+		assertTrue(trie.getRoot().getChild(5).isExhausted());
+	}
+}
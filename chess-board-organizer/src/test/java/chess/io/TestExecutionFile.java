@@ -0,0 +1,100 @@
+package chess.io;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.Execution;
+import chess.board.Board;
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+import chess.piece.King;
+import chess.piece.Piece;
+import chess.piece.Rook;
+
+/**
+ * Test cases for the execution data files
+ * @author Willie
+ * @see ExecutionFile
+ */
+public class TestExecutionFile extends TestCase {
+
+	private List<Piece> pool;
+
+	private Board board;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		pool = new ArrayList<Piece>();
+		pool.add(new King());
+		pool.add(new King());
+		pool.add(new Rook());
+		board = new Board(3, 3);
+		board.addPiece(pool.get(0), new Coordinate(1, 1));
+		board.addPiece(pool.get(1), new Coordinate(1, 3));
+		board.addPiece(pool.get(2), new Coordinate(3, 2));
+	}
+
+	@Test
+	public final void testWriteAndRead() throws Exception {
+		File file = File.createTempFile("execution", ".dat");
+		file.deleteOnExit();
+		ExecutionFileWriter writer = new ExecutionFileWriter(file.getPath(), board.getSize(), pool);
+		writer.write(board.getSignature());
+		writer.close();
+		assertTrue(ExecutionFile.isExecutionFile(file.getPath()));
+		ExecutionFileReader reader = new ExecutionFileReader(file.getPath());
+		assertEquals(board.getSize(), reader.getBoardSize());
+		assertEquals(3, reader.getPool().size());
+		assertEquals(board.getSignature(), reader.next());
+		assertNull(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public final void testConvertSerializedExecution() throws Exception {
+		File serialized = File.createTempFile("execution", ".ser");
+		serialized.deleteOnExit();
+		File converted = File.createTempFile("execution", ".dat");
+		converted.deleteOnExit();
+		List<Board> boards = new ArrayList<Board>();
+		boards.add(board);
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(serialized));
+		out.writeObject(new Execution(pool, boards));
+		out.close();
+		assertFalse(ExecutionFile.isExecutionFile(serialized.getPath()));
+		assertEquals(1, ExecutionConverter.convert(serialized.getPath(), converted.getPath(), null));
+		List<BoardSignature> solutions = Execution.read(converted.getPath()).getSolutions();
+		assertEquals(1, solutions.size());
+		assertEquals(board.getSignature(), solutions.get(0));
+	}
+
+	@Test
+	public final void testUnknownPieceType() throws Exception {
+		File file = File.createTempFile("execution", ".dat");
+		file.deleteOnExit();
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		out.write(ExecutionFile.MAGIC);
+		out.writeShort(ExecutionFile.VERSION);
+		out.writeInt(3);
+		out.writeInt(3);
+		out.writeInt(1);
+		out.writeByte(-1);
+		out.close();
+		try {
+			new ExecutionFileReader(file.getPath());
+			fail("The piece type of the pool is not valid");
+		} catch (IOException e) {
+			assertEquals("Unknown piece type -1", e.getMessage());
+		}
+	}
+}
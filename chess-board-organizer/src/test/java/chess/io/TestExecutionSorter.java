@@ -0,0 +1,154 @@
+package chess.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.board.BoardSignature;
+import chess.piece.Coordinate;
+import chess.piece.King;
+import chess.piece.Piece;
+import chess.piece.PieceType;
+import chess.piece.Rook;
+
+/**
+ * Test cases for the external sort of execution data files
+ * @author Willie
+ * @see ExecutionSorter
+ */
+public class TestExecutionSorter extends TestCase {
+
+	private static final PieceType[] TYPES = new PieceType[]{PieceType.KING, PieceType.KING, PieceType.ROOK};
+
+	private static final Coordinate BOARD_SIZE = new Coordinate(20, 20);
+
+	private List<Piece> pool;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		pool = new ArrayList<Piece>();
+		pool.add(new King());
+		pool.add(new King());
+		pool.add(new Rook());
+	}
+
+	private File writeFile(Random random, int count, TreeSet<BoardSignature> expected) throws Exception
+	{
+		File file = File.createTempFile("execution", ".dat");
+		file.deleteOnExit();
+		ExecutionFileWriter writer = new ExecutionFileWriter(file.getPath(), BOARD_SIZE, pool);
+		int[] squares;
+		BoardSignature signature;
+		for(int i=0; i<count; i++)
+		{
+			//a small number of squares so the files have duplicates
+			squares = new int[]{random.nextInt(30), random.nextInt(30), random.nextInt(30)};
+			signature = new BoardSignature(squares, TYPES, squares.length, BoardSignature.calculateHash(squares, TYPES, squares.length));
+			writer.write(signature);
+			expected.add(signature);
+		}
+		writer.close();
+		return file;
+	}
+
+	@Test
+	public final void testSort() throws Exception {
+		Random random = new Random(11);
+		TreeSet<BoardSignature> expected = new TreeSet<BoardSignature>();
+		File first = writeFile(random, 4000, expected);
+		File second = writeFile(random, 3000, expected);
+		File output = File.createTempFile("sorted", ".dat");
+		output.deleteOnExit();
+		ExecutionSorter sorter = new ExecutionSorter();
+		//enough chunks to need a merge of the runs before the output is written
+		sorter.setChunkSize(50);
+		sorter.setThreads(3);
+		sorter.sort(output.getPath(), Arrays.asList(first.getPath(), second.getPath()));
+		assertEquals(7000, sorter.getReadCount());
+		assertEquals(140, sorter.getRunsCount());
+		assertEquals(expected.size(), sorter.getSuccessCount());
+		assertEquals(7000 - expected.size(), sorter.getDuplicatesCount());
+		ExecutionFileReader reader = new ExecutionFileReader(output.getPath());
+		try {
+			for(BoardSignature signature: expected)
+			{
+				assertEquals(signature, reader.next());
+			}
+			assertNull(reader.next());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public final void testMergeFailure() throws Exception {
+		Random random = new Random(13);
+		TreeSet<BoardSignature> expected = new TreeSet<BoardSignature>();
+		File input = writeFile(random, 7000, expected);
+		File output = File.createTempFile("sorted", ".dat");
+		output.deleteOnExit();
+		File directory = File.createTempFile("runs", "");
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+		directory.deleteOnExit();
+		//the second merge fails, after the first one has written its run
+		ExecutionSorter sorter = new ExecutionSorter() {
+			private int merges;
+
+			@Override
+			SortedRun mergeRuns(List<SortedRun> runs, int recordLength, List<SortedRun> temporary) throws IOException {
+				if(++merges == 2)
+				{
+					throw new IOException("Merge failed");
+				}
+				return super.mergeRuns(runs, recordLength, temporary);
+			}
+		};
+		sorter.setChunkSize(50);
+		sorter.setThreads(3);
+		sorter.setDirectory(directory);
+		try {
+			sorter.sort(output.getPath(), Arrays.asList(input.getPath()));
+			fail("The merge of the runs fails");
+		} catch (RuntimeException e) {
+			assertEquals("Merge failed", e.getCause().getMessage());
+		}
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public final void testRunWithoutIndex() throws Exception {
+		SortedRun run = new SortedRun(null, 2, false);
+		try {
+			run.write(new byte[]{0, 1});
+			run.write(new byte[]{0, 2});
+			run.finish();
+			assertEquals(2, run.getCount());
+			run.contains(new byte[]{0, 1});
+			fail("The run is only read in order");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().endsWith("is not indexed"));
+		} finally {
+			run.delete();
+		}
+	}
+
+	@Test
+	public final void testIncorrectChunkSize() {
+		try {
+			new ExecutionSorter().setChunkSize(0);
+			fail("A chunk needs at least one combination");
+		} catch (RuntimeException e) {
+			assertEquals("Incorrect chunk size 0", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package chess.io;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.board.BoardSignature;
+import chess.piece.PieceType;
+
+/**
+ * Test cases for the set of combinations found with a memory budget
+ * @author Willie
+ * @see SignatureSet
+ */
+public class TestSignatureSet extends TestCase {
+
+	private static final PieceType[] TYPES = new PieceType[]{PieceType.KING, PieceType.KING, PieceType.ROOK};
+
+	private BoardSignature newSignature(Random random)
+	{
+		int[] squares = new int[]{random.nextInt(400), random.nextInt(400), random.nextInt(400)};
+		return new BoardSignature(squares, TYPES, squares.length, BoardSignature.calculateHash(squares, TYPES, squares.length));
+	}
+
+	@Test
+	public final void testSpill() {
+		Random random = new Random(3);
+		Set<BoardSignature> expected = new HashSet<BoardSignature>();
+		SignatureSet signatures = new SignatureSet(64*1024, null);
+		try {
+			BoardSignature signature;
+			for(int i=0; i<40000; i++)
+			{
+				signature = newSignature(random);
+				assertEquals(expected.contains(signature), signatures.contains(signature));
+				assertEquals(expected.add(signature), signatures.add(signature));
+			}
+			assertEquals(expected.size(), signatures.size());
+			assertTrue(signatures.getSizeInMemory() < expected.size());
+			assertTrue(signatures.getRunsCount() > 0);
+			assertTrue(signatures.getRunsCount() <= SignatureSet.MAX_RUNS);
+			for(BoardSignature found: expected)
+			{
+				assertTrue(signatures.contains(found));
+				assertFalse(signatures.add(found));
+			}
+		} finally {
+			signatures.close();
+		}
+		assertEquals(0, signatures.size());
+		assertEquals(0, signatures.getRunsCount());
+	}
+
+	@Test
+	public final void testConcurrentSpill() throws InterruptedException {
+		final Set<BoardSignature> expected = new HashSet<BoardSignature>();
+		Random random = new Random(11);
+		while(expected.size() < 20000)
+		{
+			expected.add(newSignature(random));
+		}
+		final BoardSignature[] all = expected.toArray(new BoardSignature[expected.size()]);
+		final SignatureSet signatures = new SignatureSet(64*1024, null);
+		final AtomicInteger added = new AtomicInteger();
+		try {
+			//every thread adds all the combinations, each must be new for a single thread
+			Thread[] threads = new Thread[4];
+			for(int i=0; i<threads.length; i++)
+			{
+				final int offset = i*all.length/threads.length;
+				threads[i] = new Thread() {
+					@Override
+					public void run() {
+						for(int j=0; j<all.length; j++)
+						{
+							if(signatures.add(all[(offset+j)%all.length]))
+							{
+								added.incrementAndGet();
+							}
+						}
+					}
+				};
+				threads[i].start();
+			}
+			for(Thread thread: threads)
+			{
+				thread.join();
+			}
+			assertEquals(all.length, added.get());
+			assertEquals(all.length, signatures.size());
+			assertTrue(signatures.getRunsCount() > 0);
+			for(BoardSignature found: all)
+			{
+				assertTrue(signatures.contains(found));
+			}
+		} finally {
+			signatures.close();
+		}
+	}
+
+	@Test
+	public final void testWithoutBudget() {
+		Random random = new Random(5);
+		SignatureSet signatures = new SignatureSet();
+		BoardSignature signature = newSignature(random);
+		assertTrue(signatures.add(signature));
+		assertFalse(signatures.add(signature));
+		assertTrue(signatures.contains(signature));
+		assertEquals(1, signatures.size());
+		assertEquals(0, signatures.getRunsCount());
+	}
+
+	@Test
+	public final void testBloomFilter() {
+		Random random = new Random(7);
+		BloomFilter filter = new BloomFilter(1024, 5);
+		long[] hashes = new long[500];
+		for(int i=0; i<hashes.length; i++)
+		{
+			hashes[i] = random.nextLong();
+			filter.put(hashes[i]);
+		}
+		for(long hash: hashes)
+		{
+			assertTrue(filter.mightContain(hash));
+		}
+		int falsePositives = 0;
+		for(int i=0; i<1000; i++)
+		{
+			if(filter.mightContain(random.nextLong()))
+			{
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 500);
+	}
+}
@@ -0,0 +1,70 @@
+package chess.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import chess.ExhaustiveExecutor;
+
+/**
+ * Test cases for the solver metrics
+ * @author Willie
+ * @see SolverMetrics
+ */
+public class TestSolverMetrics extends TestCase {
+
+	@Test
+	public final void testStripedCounter() throws Exception {
+		final StripedCounter counter = new StripedCounter();
+		Thread[] threads = new Thread[4];
+		for(int i=0; i<threads.length; i++)
+		{
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for(int j=0; j<100000; j++)
+					{
+						counter.increment();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread thread: threads)
+		{
+			thread.join();
+		}
+		assertEquals(400000, counter.sum());
+	}
+
+	@Test
+	public final void testExhaustiveExecutorMetrics() throws Exception {
+		ExhaustiveExecutor executor = new ExhaustiveExecutor(new String[]{"4","4","0","0","0","4","2"});
+		executor.start();
+		SolverMetrics metrics = executor.getMetrics();
+		assertEquals(executor.getVisitedNodes(), metrics.getNodesVisited());
+		assertEquals(8, metrics.getSolutionsFound());
+		//the same pieces are never placed in a different order so no combination is checked against the previous ones
+		assertEquals(0, metrics.getDuplicateCheckHits() + metrics.getDuplicateCheckMisses());
+		assertTrue(metrics.getPlacementsPruned() > 0 && metrics.getPlacementsPruned() < metrics.getNodesVisited());
+		assertEquals(0, metrics.getQueueDepth());
+		assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("chess:type=SolverMetrics,*"), null).isEmpty());
+	}
+
+	@Test
+	public final void testReporterRegistersMBean() throws Exception {
+		SolverMetrics metrics = new SolverMetrics();
+		metrics.addNodesVisited(10);
+		MetricsReporter reporter = new MetricsReporter("test", metrics, MetricsReporter.DEFAULT_INTERVAL);
+		try {
+			assertEquals(Long.valueOf(10), ManagementFactory.getPlatformMBeanServer().getAttribute(reporter.getObjectName(), "NodesVisited"));
+		} finally {
+			reporter.close();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(reporter.getObjectName()));
+	}
+}
@@ -0,0 +1,65 @@
+package chess.piece;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+/**
+ * Some test cases for the AttackTable class
+ * @author Willie
+ * @see AttackTable
+ */
+public class TestAttackTable extends TestCase {
+
+	@Test
+	public final void testSharedInstance() {
+		assertSame(AttackTable.getInstance(PieceType.KNIGHT, new Coordinate(7, 7)),
+				AttackTable.getInstance(PieceType.KNIGHT, new Coordinate(7, 7)));
+		assertNotSame(AttackTable.getInstance(PieceType.KNIGHT, new Coordinate(7, 7)),
+				AttackTable.getInstance(PieceType.KNIGHT, new Coordinate(7, 6)));
+	}
+
+	@Test
+	public final void testUnmodifiable() {
+		List<Coordinate> list = new Rook().getCaptureSlotsPositions(new Coordinate(1, 1), new Coordinate(7,7));
+		try {
+			list.clear();
+			fail("The capture slots must not be modifiable");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(12, list.size());
+		}
+	}
+
+	@Test
+	public final void testQueenMask() {
+		Coordinate size = new Coordinate(7, 7);
+		long[] queen = AttackTable.getInstance(PieceType.QUEEN, size).getMask(24);
+		long[] rook = AttackTable.getInstance(PieceType.ROOK, size).getMask(24);
+		long[] bishop = AttackTable.getInstance(PieceType.BISHOP, size).getMask(24);
+		assertEquals(rook[0] | bishop[0], queen[0]);
+		assertEquals(24, Long.bitCount(queen[0]));
+	}
+
+	@Test
+	public final void testSymmetricThreats() {
+		//the safe squares kept by the BitBoard rely on threats being symmetric
+		Coordinate size = new Coordinate(5, 7);
+		for(PieceType type: PieceType.values())
+		{
+			AttackTable table = AttackTable.getInstance(type, size);
+			for(int a=0; a<35; a++)
+			{
+				for(int b=0; b<35; b++)
+				{
+					assertEquals(type + " " + a + " " + b, isSet(table.getMask(a), b), isSet(table.getMask(b), a));
+				}
+			}
+		}
+	}
+
+	private static boolean isSet(long[] mask, int square) {
+		return (mask[square>>>6] & (1L<<square))!=0;
+	}
+}